@@ -0,0 +1,124 @@
+package com.ecommerce.benchmark;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compares a JMH json result against the committed baseline and exits non-zero on a regression.
+// A benchmark regresses only if it is slower by more than the threshold and the two 99.9% confidence
+// intervals do not overlap, so a noisy run alone cannot fail the check.
+public class BaselineComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final double ALLOCATION_SLACK_BYTES = 16;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineComparison <baseline.json> <result.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, JsonNode> baseline = index(args[0]);
+        Map<String, JsonNode> current = index(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-70s %22s %22s %9s  %s%n", "Benchmark", "Baseline", "Current", "Change", "Verdict");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %22s %22s %9s  %s%n", entry.getKey(), "-",
+                        format(entry.getValue().get("primaryMetric")), "", "new");
+                continue;
+            }
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().get("mode").asString());
+            String verdict = verdict(before.get("primaryMetric"), entry.getValue().get("primaryMetric"),
+                    higherIsBetter, threshold);
+            String allocation = allocationVerdict(before, entry.getValue(), threshold);
+            if (allocation != null) {
+                verdict = verdict.equals("ok") ? allocation : verdict + ", " + allocation;
+            }
+            if (verdict.contains("REGRESSION")) {
+                regressions++;
+            }
+            double change = entry.getValue().get("primaryMetric").get("score").asDouble()
+                    / before.get("primaryMetric").get("score").asDouble() - 1;
+            System.out.printf("%-70s %22s %22s %+8.1f%%  %s%n", entry.getKey(),
+                    format(before.get("primaryMetric")), format(entry.getValue().get("primaryMetric")),
+                    change * 100, verdict);
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-70s %22s %22s %9s  %s%n", name, format(baseline.get(name).get("primaryMetric")),
+                        "-", "", "not run");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+        System.out.println("No regressions against the baseline");
+    }
+
+    private static String verdict(JsonNode before, JsonNode after, boolean higherIsBetter, double threshold) {
+        double base = before.get("score").asDouble();
+        double score = after.get("score").asDouble();
+        double slowdown = higherIsBetter ? base / score - 1 : score / base - 1;
+        boolean overlapping = low(after) <= high(before) && low(before) <= high(after);
+        if (overlapping || Math.abs(slowdown) <= threshold) {
+            return "ok";
+        }
+        return slowdown > 0 ? "REGRESSION" : "faster";
+    }
+
+    private static String allocationVerdict(JsonNode before, JsonNode after, double threshold) {
+        JsonNode base = secondary(before, ALLOCATION_METRIC);
+        JsonNode current = secondary(after, ALLOCATION_METRIC);
+        if (base == null || current == null) {
+            return null;
+        }
+        double growth = current.get("score").asDouble() - base.get("score").asDouble();
+        if (growth > ALLOCATION_SLACK_BYTES && growth > base.get("score").asDouble() * threshold) {
+            return String.format("ALLOCATION REGRESSION (+%.0f B/op)", growth);
+        }
+        return null;
+    }
+
+    private static JsonNode secondary(JsonNode result, String metric) {
+        JsonNode metrics = result.get("secondaryMetrics");
+        return metrics != null ? metrics.get(metric) : null;
+    }
+
+    private static double low(JsonNode metric) {
+        return metric.get("scoreConfidence").get(0).asDouble();
+    }
+
+    private static double high(JsonNode metric) {
+        return metric.get("scoreConfidence").get(1).asDouble();
+    }
+
+    private static String format(JsonNode metric) {
+        double error = metric.get("scoreError").asDouble();
+        return Double.isNaN(error)
+                ? String.format("%.3f", metric.get("score").asDouble())
+                : String.format("%.3f +- %.3f", metric.get("score").asDouble(), error);
+    }
+
+    private static Map<String, JsonNode> index(String path) {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(path))) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asString()
+                    .replace("com.ecommerce.benchmark.", ""));
+            JsonNode params = result.get("params");
+            if (params != null) {
+                params.properties().forEach(param -> key.append(' ').append(param.getKey())
+                        .append('=').append(param.getValue().asString()));
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
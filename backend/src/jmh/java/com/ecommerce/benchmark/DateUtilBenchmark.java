@@ -0,0 +1,37 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.utils.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class DateUtilBenchmark {
+
+    private final LocalDateTime date = LocalDateTime.of(2025, 7, 21, 14, 35, 12);
+
+    @Benchmark
+    public Map<String, String> formattedDates() {
+        return DateUtil.getFormattedDates(date);
+    }
+
+    @Benchmark
+    public String nepaliDate() {
+        return DateUtil.convertToNepaliDate(date);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.dto.InterestAccrual;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.service.InterestCalculationService;
+import com.ecommerce.service.RateFactorTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class InterestCalculationBenchmark {
+
+    @Param({"12", "60"})
+    public int tenureMonths;
+
+    private InterestCalculationService service;
+    private CustomerLoan compoundLoan;
+    private CustomerLoan simpleLoan;
+    private LocalDateTime asOf;
+
+    @Setup
+    public void setUp() {
+        service = new InterestCalculationService(new RateFactorTables());
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 10, 0);
+        compoundLoan = loan("COMPOUND", start);
+        simpleLoan = loan("SIMPLE", start);
+        asOf = start.plusMonths(tenureMonths / 2).plusDays(11);
+    }
+
+    @Benchmark
+    public double compoundInterest() {
+        return service.calculateCompoundInterest(250_000, 14.5, tenureMonths);
+    }
+
+    @Benchmark
+    public double reducingBalanceInterest() {
+        return service.calculateReducingBalanceInterest(250_000, 14.5, tenureMonths);
+    }
+
+    @Benchmark
+    public double accruedInterestCompound() {
+        return service.calculateAccruedInterest(compoundLoan, asOf);
+    }
+
+    @Benchmark
+    public double accruedInterestSimple() {
+        return service.calculateAccruedInterest(simpleLoan, asOf);
+    }
+
+    @Benchmark
+    public List<InterestAccrual> accrualSchedule() {
+        return service.generateAccrualSchedule(compoundLoan);
+    }
+
+    private CustomerLoan loan(String interestType, LocalDateTime start) {
+        CustomerLoan loan = new CustomerLoan();
+        loan.setInterestType(interestType);
+        loan.setInterestRate(14.5);
+        loan.setPrincipalAmount(250_000.0);
+        loan.setOutstandingAmount(250_000.0);
+        loan.setTotalInterestReceivable(service.calculateReducingBalanceInterest(250_000, 14.5, tenureMonths));
+        loan.setStartDate(start);
+        loan.setMaturityDate(start.plusMonths(tenureMonths));
+        return loan;
+    }
+}
@@ -0,0 +1,169 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.GoldAllocation;
+import com.ecommerce.model.PledgedGoldItem;
+import org.bson.Document;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new GoldAllocationWriter(), new GoldAllocationReader(),
+                new PledgedGoldItemWriter(), new PledgedGoldItemReader()));
+    }
+
+    // Embedded bank loan entries are stored under short keys; readers still accept the long keys that
+    // documents written before the typed model carry until the migration has rewritten them
+    public static final class AllocationKeys {
+        public static final String GOLD_ITEM_ID = "g";
+        public static final String ITEM_TYPE = "t";
+        public static final String WEIGHT = "w";
+        public static final String PURITY = "u";
+        public static final String ESTIMATED_VALUE = "v";
+        public static final String PROPORTION = "p";
+        public static final String ALLOCATED_PRINCIPAL = "ap";
+        public static final String ALLOCATED_INTEREST = "ai";
+        public static final String PAID_PRINCIPAL = "pp";
+        public static final String REMAINING_PRINCIPAL = "rp";
+        public static final String CUSTOMER_LOAN_ID = "cl";
+        public static final String CUSTOMER_SERIAL = "cs";
+
+        private AllocationKeys() {
+        }
+    }
+
+    public static final class PledgedItemKeys {
+        public static final String ID = "i";
+        public static final String ITEM_TYPE = "t";
+        public static final String WEIGHT = "w";
+        public static final String PURITY = "u";
+        public static final String ESTIMATED_VALUE = "v";
+        public static final String SERIAL_NUMBER = "s";
+        public static final String CUSTOMER_ID = "c";
+        public static final String CUSTOMER_LOAN_ID = "cl";
+        public static final String IMAGE_URL = "img";
+        public static final String BILL_ATTACHMENTS = "b";
+
+        private PledgedItemKeys() {
+        }
+    }
+
+    @WritingConverter
+    static class GoldAllocationWriter implements Converter<GoldAllocation, Document> {
+        @Override
+        public Document convert(GoldAllocation source) {
+            Document doc = new Document();
+            putIfPresent(doc, AllocationKeys.GOLD_ITEM_ID, source.getGoldItemId());
+            putIfPresent(doc, AllocationKeys.ITEM_TYPE, source.getItemType());
+            doc.put(AllocationKeys.WEIGHT, source.getWeightInGrams());
+            putIfPresent(doc, AllocationKeys.PURITY, source.getPurity());
+            doc.put(AllocationKeys.ESTIMATED_VALUE, source.getEstimatedValue());
+            doc.put(AllocationKeys.PROPORTION, source.getProportion());
+            doc.put(AllocationKeys.ALLOCATED_PRINCIPAL, source.getAllocatedPrincipal());
+            doc.put(AllocationKeys.ALLOCATED_INTEREST, source.getAllocatedInterest());
+            doc.put(AllocationKeys.PAID_PRINCIPAL, source.getPaidPrincipal());
+            doc.put(AllocationKeys.REMAINING_PRINCIPAL, source.getRemainingPrincipal());
+            putIfPresent(doc, AllocationKeys.CUSTOMER_LOAN_ID, source.getCustomerLoanId());
+            putIfPresent(doc, AllocationKeys.CUSTOMER_SERIAL, source.getCustomerSerialNumber());
+            return doc;
+        }
+    }
+
+    @ReadingConverter
+    static class GoldAllocationReader implements Converter<Document, GoldAllocation> {
+        @Override
+        public GoldAllocation convert(Document source) {
+            GoldAllocation allocation = new GoldAllocation();
+            allocation.setGoldItemId(string(source, AllocationKeys.GOLD_ITEM_ID, "goldItemId"));
+            allocation.setItemType(string(source, AllocationKeys.ITEM_TYPE, "itemType"));
+            allocation.setWeightInGrams(number(source, AllocationKeys.WEIGHT, "weightInGrams"));
+            allocation.setPurity(string(source, AllocationKeys.PURITY, "purity"));
+            allocation.setEstimatedValue(number(source, AllocationKeys.ESTIMATED_VALUE, "estimatedValue"));
+            allocation.setProportion(number(source, AllocationKeys.PROPORTION, "proportion"));
+            allocation.setAllocatedPrincipal(number(source, AllocationKeys.ALLOCATED_PRINCIPAL, "allocatedPrincipal"));
+            allocation.setAllocatedInterest(number(source, AllocationKeys.ALLOCATED_INTEREST, "allocatedInterest"));
+            allocation.setPaidPrincipal(number(source, AllocationKeys.PAID_PRINCIPAL, "paidPrincipal"));
+            allocation.setRemainingPrincipal(has(source, AllocationKeys.REMAINING_PRINCIPAL, "remainingPrincipal")
+                    ? number(source, AllocationKeys.REMAINING_PRINCIPAL, "remainingPrincipal")
+                    : allocation.getAllocatedPrincipal() - allocation.getPaidPrincipal());
+            allocation.setCustomerLoanId(string(source, AllocationKeys.CUSTOMER_LOAN_ID, "customerLoanId"));
+            allocation.setCustomerSerialNumber(string(source, AllocationKeys.CUSTOMER_SERIAL, "customerSerialNumber"));
+            return allocation;
+        }
+    }
+
+    @WritingConverter
+    static class PledgedGoldItemWriter implements Converter<PledgedGoldItem, Document> {
+        @Override
+        public Document convert(PledgedGoldItem source) {
+            Document doc = new Document();
+            putIfPresent(doc, PledgedItemKeys.ID, source.getId());
+            putIfPresent(doc, PledgedItemKeys.ITEM_TYPE, source.getItemType());
+            doc.put(PledgedItemKeys.WEIGHT, source.getWeightInGrams());
+            putIfPresent(doc, PledgedItemKeys.PURITY, source.getPurity());
+            doc.put(PledgedItemKeys.ESTIMATED_VALUE, source.getEstimatedValue());
+            putIfPresent(doc, PledgedItemKeys.SERIAL_NUMBER, source.getSerialNumber());
+            putIfPresent(doc, PledgedItemKeys.CUSTOMER_ID, source.getCustomerId());
+            putIfPresent(doc, PledgedItemKeys.CUSTOMER_LOAN_ID, source.getCustomerLoanId());
+            putIfPresent(doc, PledgedItemKeys.IMAGE_URL, source.getImageUrl());
+            if (source.getBillAttachments() != null && !source.getBillAttachments().isEmpty()) {
+                doc.put(PledgedItemKeys.BILL_ATTACHMENTS, source.getBillAttachments());
+            }
+            return doc;
+        }
+    }
+
+    @ReadingConverter
+    static class PledgedGoldItemReader implements Converter<Document, PledgedGoldItem> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public PledgedGoldItem convert(Document source) {
+            PledgedGoldItem item = new PledgedGoldItem();
+            item.setId(string(source, PledgedItemKeys.ID, "id"));
+            item.setItemType(string(source, PledgedItemKeys.ITEM_TYPE, "itemType"));
+            item.setWeightInGrams(number(source, PledgedItemKeys.WEIGHT, "weightInGrams"));
+            item.setPurity(string(source, PledgedItemKeys.PURITY, "purity"));
+            item.setEstimatedValue(number(source, PledgedItemKeys.ESTIMATED_VALUE, "estimatedValue"));
+            item.setSerialNumber(string(source, PledgedItemKeys.SERIAL_NUMBER, "serialNumber"));
+            item.setCustomerId(string(source, PledgedItemKeys.CUSTOMER_ID, "customerId"));
+            item.setCustomerLoanId(string(source, PledgedItemKeys.CUSTOMER_LOAN_ID, "customerLoanId"));
+            item.setImageUrl(string(source, PledgedItemKeys.IMAGE_URL, "imageUrl"));
+            Object attachments = source.containsKey(PledgedItemKeys.BILL_ATTACHMENTS)
+                    ? source.get(PledgedItemKeys.BILL_ATTACHMENTS) : source.get("billAttachments");
+            if (attachments instanceof List<?>) {
+                item.setBillAttachments((List<String>) attachments);
+            }
+            return item;
+        }
+    }
+
+    private static void putIfPresent(Document doc, String key, Object value) {
+        if (value != null) {
+            doc.put(key, value);
+        }
+    }
+
+    private static boolean has(Document doc, String key, String legacyKey) {
+        return doc.get(key) != null || doc.get(legacyKey) != null;
+    }
+
+    private static String string(Document doc, String key, String legacyKey) {
+        Object value = doc.containsKey(key) ? doc.get(key) : doc.get(legacyKey);
+        return value != null ? value.toString() : null;
+    }
+
+    private static double number(Document doc, String key, String legacyKey) {
+        Object value = doc.containsKey(key) ? doc.get(key) : doc.get(legacyKey);
+        return value instanceof Number n ? n.doubleValue() : 0.0;
+    }
+}
@@ -7,16 +7,27 @@ import com.ecommerce.repository.GoldItemRepository;
 import com.ecommerce.repository.UserRepository;
 import com.ecommerce.service.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 @RestController
@@ -25,6 +36,9 @@ import java.util.List;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
     private final DashboardService dashboardService;
+    private final DashboardCounterService dashboardCounterService;
+    private final LoanRollupService loanRollupService;
+    private final DashboardSnapshotService dashboardSnapshotService;
     private final CustomerLoanService customerLoanService;
     private final BankLoanService bankLoanService;
     private final UserService userService;
@@ -33,6 +47,45 @@ public class AdminController {
     private final NotificationService notificationService;
     private final UserRepository userRepository;
     private final GoldItemService goldItemService;
+    private final CustomerCache customerCache;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationStreamService notificationStreamService;
+    private final NotificationArchiveService notificationArchiveService;
+    private final InterestAccrualService interestAccrualService;
+    private final AccrualScheduleService accrualScheduleService;
+    private final PortfolioSimulationService portfolioSimulationService;
+    private final BankLoanAllocationMigration bankLoanAllocationMigration;
+    private final GoldRateService goldRateService;
+    private final GoldRevaluationService goldRevaluationService;
+    private final LoanToValueMonitor loanToValueMonitor;
+    private final SmsService smsService;
+    private final ObjectMapper objectMapper;
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private <T> ResponseEntity<StreamingResponseBody> ndjson(Supplier<Stream<T>> source) {
+        StreamingResponseBody body = out -> {
+            try (Stream<T> items = source.get()) {
+                Iterator<T> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    // The unpaged list endpoints still return every row but point callers at the cursor endpoint
+    private <T> ResponseEntity<ApiResponse<List<T>>> deprecatedList(List<T> items, String successor) {
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "<" + successor + ">; rel=\"successor-version\"")
+                .body(ApiResponse.success(items));
+    }
 
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -53,6 +106,110 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("Dashboard snapshot saved", summary));
     }
 
+    @PostMapping("/interest/accrual/run")
+    public ResponseEntity<ApiResponse<String>> runInterestAccrual(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (date != null && !date.equals(LocalDate.now())) {
+            throw new RuntimeException("Interest accrual can only be run for today");
+        }
+        String checkpointId = interestAccrualService.runInBackground();
+        return new ResponseEntity<>(ApiResponse.success("Interest accrual started", checkpointId), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/interest/accrual/status")
+    public ResponseEntity<ApiResponse<AccrualCheckpoint>> getInterestAccrualStatus() {
+        return ResponseEntity.ok(ApiResponse.success(interestAccrualService.getLatestCheckpoint()));
+    }
+
+    @PostMapping("/simulations/what-if")
+    public ResponseEntity<ApiResponse<WhatIfResult>> runWhatIf(@Valid @RequestBody WhatIfScenario scenario) {
+        return ResponseEntity.ok(ApiResponse.success(portfolioSimulationService.simulate(scenario)));
+    }
+
+    @PostMapping("/simulations/what-if/batch")
+    public ResponseEntity<ApiResponse<List<WhatIfResult>>> runWhatIfBatch(
+            @Valid @RequestBody List<WhatIfScenario> scenarios) {
+        return ResponseEntity.ok(ApiResponse.success(portfolioSimulationService.simulateAll(scenarios)));
+    }
+
+    @PostMapping("/simulations/snapshot/refresh")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> refreshSimulationSnapshot() {
+        return ResponseEntity.ok(ApiResponse.success("Simulation snapshot refreshed", portfolioSimulationService.refreshSnapshot()));
+    }
+
+    @GetMapping("/simulations/snapshot")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSimulationSnapshot() {
+        return ResponseEntity.ok(ApiResponse.success(portfolioSimulationService.getSnapshotInfo()));
+    }
+
+    @PostMapping("/gold-rates")
+    public ResponseEntity<ApiResponse<List<GoldRate>>> ingestGoldRates(@Valid @RequestBody List<GoldRateRequest> requests) {
+        List<GoldRate> changed = goldRateService.ingest(requests, "api");
+        return ResponseEntity.ok(ApiResponse.success(changed.size() + " gold rates updated", changed));
+    }
+
+    @GetMapping("/gold-rates/current")
+    public ResponseEntity<ApiResponse<Map<String, GoldRate>>> getCurrentGoldRates() {
+        return ResponseEntity.ok(ApiResponse.success(goldRateService.getCurrentRates()));
+    }
+
+    @GetMapping("/gold-rates/history")
+    public ResponseEntity<ApiResponse<List<GoldRate>>> getGoldRateHistory(
+            @RequestParam String purity,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(goldRateService.getHistory(purity, limit)));
+    }
+
+    @PostMapping("/gold-rates/revalue")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> revalueGoldItems() {
+        boolean queued = goldRevaluationService.requestRevaluation();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(
+                queued ? "Revaluation queued" : "Revaluation already queued", goldRevaluationService.getStatus()));
+    }
+
+    @GetMapping("/gold-rates/revaluation/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRevaluationStatus() {
+        return ResponseEntity.ok(ApiResponse.success(goldRevaluationService.getStatus()));
+    }
+
+    @GetMapping("/ltv/at-risk")
+    public ResponseEntity<ApiResponse<List<LoanToValue>>> getAtRiskLoans() {
+        return ResponseEntity.ok(ApiResponse.success(loanToValueMonitor.getAtRiskLoans()));
+    }
+
+    @GetMapping("/ltv/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLtvStatus() {
+        return ResponseEntity.ok(ApiResponse.success(loanToValueMonitor.getStatus()));
+    }
+
+    @PostMapping("/ltv/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildLtvIndex() {
+        loanToValueMonitor.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("LTV index rebuilt", loanToValueMonitor.getStatus()));
+    }
+
+    @GetMapping("/dashboard/history")
+    public ResponseEntity<ApiResponse<List<DashboardSummary>>> getDashboardHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String resolution) {
+        List<DashboardSummary> history = dashboardSnapshotService.getHistory(
+                from, to != null ? to : LocalDateTime.now(), resolution);
+        return ResponseEntity.ok(ApiResponse.success(history));
+    }
+
+    @PostMapping("/dashboard/counters/reconcile")
+    public ResponseEntity<ApiResponse<DashboardCounters>> reconcileDashboardCounters() {
+        DashboardCounters counters = dashboardCounterService.reconcile();
+        return ResponseEntity.ok(ApiResponse.success("Dashboard counters reconciled", counters));
+    }
+
+    @PostMapping("/dashboard/rollups/backfill")
+    public ResponseEntity<ApiResponse<Long>> backfillLoanRollups() {
+        long months = loanRollupService.backfill();
+        return ResponseEntity.ok(ApiResponse.success("Monthly loan rollups rebuilt", months));
+    }
+
     @PostMapping("/customer-loans")
     public ResponseEntity<ApiResponse<CustomerLoan>> createCustomerLoan(
             @Valid @RequestBody CustomerLoanRequest request){
@@ -60,10 +217,24 @@ public class AdminController {
         return new ResponseEntity<>(ApiResponse.success("Loan created successfully", loan), HttpStatus.CREATED);
     }
 
+    @Deprecated
     @GetMapping("/customer-loans")
     public ResponseEntity<ApiResponse<List<CustomerLoan>>> getAllCustomerLoans() {
-        List<CustomerLoan> loans = customerLoanService.getAllActiveLoans();
-        return ResponseEntity.ok(ApiResponse.success(loans));
+        return deprecatedList(customerLoanService.getAllActiveLoans(),
+                "/api/admin/customer-loans/page");
+    }
+
+    @GetMapping("/customer-loans/page")
+    public ResponseEntity<ApiResponse<CursorPage<CustomerLoan>>> getCustomerLoansPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<CustomerLoan> page = customerLoanService.getActiveLoansPage(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping(value = "/customer-loans/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCustomerLoans() {
+        return ndjson(customerLoanService::streamActiveLoans);
     }
 
     @GetMapping("/customer-loans/{id}")
@@ -72,6 +243,24 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(loan));
     }
 
+    @GetMapping("/customer-loans/{id}/schedule")
+    public ResponseEntity<ApiResponse<List<InterestAccrual>>> getCustomerLoanSchedule(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer fromPeriod,
+            @RequestParam(required = false) Integer toPeriod) {
+        return ResponseEntity.ok(ApiResponse.success(accrualScheduleService.getSchedule(id, fromPeriod, toPeriod)));
+    }
+
+    @GetMapping(value = "/customer-loans/{id}/schedule/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCustomerLoanSchedule(@PathVariable String id) {
+        return ndjson(() -> accrualScheduleService.streamSchedule(id));
+    }
+
+    @GetMapping("/customer-loans/schedule/cache/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getScheduleCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(accrualScheduleService.getStats()));
+    }
+
     @GetMapping("/customer-loans/customer/{customerId}")
     public ResponseEntity<ApiResponse<List<CustomerLoan>>> getLoansByCustomer(
             @PathVariable String customerId) {
@@ -148,10 +337,34 @@ public class AdminController {
         return new ResponseEntity<>(ApiResponse.success("Bank loan created successfully", loan), HttpStatus.CREATED);
     }
 
+    @Deprecated
     @GetMapping("/bank-loans")
     public ResponseEntity<ApiResponse<List<BankLoan>>> getAllBankLoans() {
-        List<BankLoan> loans = bankLoanService.getAllActiveBankLoans();
-        return ResponseEntity.ok(ApiResponse.success(loans));
+        return deprecatedList(bankLoanService.getAllActiveBankLoans(),
+                "/api/admin/bank-loans/page");
+    }
+
+    @GetMapping("/bank-loans/page")
+    public ResponseEntity<ApiResponse<CursorPage<BankLoan>>> getBankLoansPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<BankLoan> page = bankLoanService.getActiveBankLoansPage(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping(value = "/bank-loans/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamBankLoans() {
+        return ndjson(bankLoanService::streamActiveBankLoans);
+    }
+
+    @GetMapping("/bank-loans/exposure")
+    public ResponseEntity<ApiResponse<BankExposureSummary>> getBankExposure() {
+        return ResponseEntity.ok(ApiResponse.success(bankLoanService.getExposureSummary()));
+    }
+
+    @GetMapping("/bank-loans/migration/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getBankLoanMigrationStatus() {
+        return ResponseEntity.ok(ApiResponse.success(bankLoanAllocationMigration.getStatus()));
     }
 
     @GetMapping("/bank-loans/{id}")
@@ -180,10 +393,31 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(loan));
     }
 
+    @Deprecated
     @GetMapping("/customers")
     public ResponseEntity<ApiResponse<List<Customer>>> getAllCustomers(){
-        List<Customer> customers = customerRepository.findAll();
-        return ResponseEntity.ok(ApiResponse.success(customers));
+        return deprecatedList(customerRepository.findAll(),
+                "/api/admin/customers/page");
+    }
+
+    @GetMapping("/customers/page")
+    public ResponseEntity<ApiResponse<CursorPage<Customer>>> getCustomersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> ids) {
+        CursorPage<Customer> page = userService.getCustomersPage(cursor, limit, q, ids);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping(value = "/customers/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCustomers() {
+        return ndjson(userService::streamCustomers);
+    }
+
+    @GetMapping("/customers/cache/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCustomerCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(customerCache.getStats()));
     }
 
     @GetMapping("/customers/{id}")
@@ -215,13 +449,31 @@ public class AdminController {
                     return customerRepository.save(existing);
                 })
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
+        customerCache.invalidate(id);
         return ResponseEntity.ok(ApiResponse.success("Customer updated successfully", updatedCustomer));
     }
 
+    @Deprecated
     @GetMapping("/gold-items")
     public ResponseEntity<ApiResponse<List<GoldItemAdminResponse>>> getAllGoldItems() {
-        List<GoldItemAdminResponse> items = goldItemService.getAllGoldItemsWithLoanDetails();
-        return ResponseEntity.ok(ApiResponse.success(items));
+        return deprecatedList(goldItemService.getAllGoldItemsWithLoanDetails(),
+                "/api/admin/gold-items/page");
+    }
+
+    @GetMapping("/gold-items/page")
+    public ResponseEntity<ApiResponse<CursorPage<GoldItemAdminResponse>>> getGoldItemsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> ids) {
+        CursorPage<GoldItemAdminResponse> page = goldItemService.getGoldItemsPage(cursor, limit, status, q, ids);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping(value = "/gold-items/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamGoldItems() {
+        return ndjson(goldItemService::streamGoldItems);
     }
 
     @GetMapping("/gold-items/available")
@@ -257,6 +509,7 @@ public class AdminController {
                     return goldItemRepository.save(existing);
                 })
                 .orElseThrow(() -> new RuntimeException("Gold item not found"));
+        loanToValueMonitor.itemChanged(updatedItem);
         return ResponseEntity.ok(ApiResponse.success("Gold item updated successfully", updatedItem));
     }
 
@@ -270,27 +523,84 @@ public class AdminController {
     @GetMapping("/notifications")
     public ResponseEntity<ApiResponse<List<Notification>>> getNotifications() {
         User currentUser = getCurrentUser();
-        List<Notification> notifications = notificationService.getUserNotifications(currentUser.getId());
+        List<Notification> notifications = notificationService
+                .getNotificationFeed(currentUser.getId(), currentUser.getRole(), null, null).getItems();
         return ResponseEntity.ok(ApiResponse.success(notifications));
     }
 
+    @GetMapping("/notifications/feed")
+    public ResponseEntity<ApiResponse<CursorPage<Notification>>> getNotificationFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        User currentUser = getCurrentUser();
+        CursorPage<Notification> page = notificationService
+                .getNotificationFeed(currentUser.getId(), currentUser.getRole(), cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @PostMapping("/notifications/archive")
+    public ResponseEntity<ApiResponse<Long>> archiveNotifications() {
+        long archived = notificationArchiveService.archiveReadNotifications();
+        return ResponseEntity.ok(ApiResponse.success("Read notifications archived", archived));
+    }
+
     @GetMapping("/notifications/unread-count")
     public ResponseEntity<ApiResponse<Long>> getUnreadCount() {
         User currentUser = getCurrentUser();
-        long count = notificationService.getUnreadCount(currentUser.getId());
+        long count = notificationService.getUnreadCount(currentUser.getId(), currentUser.getRole());
         return ResponseEntity.ok(ApiResponse.success(count));
     }
 
     @PostMapping("/notifications/{id}/read")
     public ResponseEntity<ApiResponse<Void>> markAsRead(@PathVariable String id) {
-        notificationService.markAsRead(id);
+        User currentUser = getCurrentUser();
+        notificationService.markAsRead(id, currentUser.getId(), currentUser.getRole());
         return ResponseEntity.ok(ApiResponse.success("Marked as read", null));
     }
 
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications() {
+        User currentUser = getCurrentUser();
+        long count = notificationService.getUnreadCount(currentUser.getId(), currentUser.getRole());
+        return ResponseEntity.ok(notificationStreamService.subscribe(currentUser.getId(), currentUser.getRole(), count));
+    }
+
+    @GetMapping("/notifications/stream/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getNotificationStreamStats() {
+        return ResponseEntity.ok(ApiResponse.success(notificationStreamService.getStats()));
+    }
+
+    @PostMapping("/notifications/unread/repair")
+    public ResponseEntity<ApiResponse<Void>> repairUnreadCounters() {
+        notificationService.repairUnreadCounters();
+        return ResponseEntity.ok(ApiResponse.success("Unread counters repaired", null));
+    }
+
+    @GetMapping("/notifications/dispatch/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getNotificationDispatchStats() {
+        return ResponseEntity.ok(ApiResponse.success(notificationDispatcher.getStats()));
+    }
+
+    @GetMapping("/sms/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSmsStats() {
+        return ResponseEntity.ok(ApiResponse.success(smsService.getStats()));
+    }
+
+    @GetMapping("/sms/dead-letters")
+    public ResponseEntity<ApiResponse<List<smsNotification>>> getSmsDeadLetters() {
+        return ResponseEntity.ok(ApiResponse.success(smsService.getDeadLetters()));
+    }
+
+    @PostMapping("/sms/{id}/retry")
+    public ResponseEntity<ApiResponse<smsNotification>> retrySms(@PathVariable String id) {
+        smsNotification sms = smsService.retryDeadLetter(id);
+        return ResponseEntity.ok(ApiResponse.success("SMS requeued", sms));
+    }
+
     @PostMapping("/notifications/read-all")
     public ResponseEntity<ApiResponse<Void>> markAllAsRead() {
         User currentUser = getCurrentUser();
-        notificationService.markAllAsRead(currentUser.getId());
+        notificationService.markAllAsRead(currentUser.getId(), currentUser.getRole());
         return ResponseEntity.ok(ApiResponse.success("All marked as read", null));
     }
 
@@ -9,9 +9,11 @@ import com.ecommerce.service.GoldItemService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.ecommerce.dto.UserProfileUpdateRequest;
 
 import java.time.LocalDate;
@@ -26,8 +28,10 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final NotificationService notificationService;
+    private final NotificationStreamService notificationStreamService;
     private final UserService userService;
     private final CustomerLoanService customerLoanService;
+    private final AccrualScheduleService accrualScheduleService;
     private final GoldItemRepository goldItemRepository;
     private final GoldItemService goldItemService;
     private final CustomerRepository customerRepository;
@@ -112,6 +116,21 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(customerLoanService.getLoanById(id)));
     }
 
+    @GetMapping("/my-loans/{id}/schedule")
+    public ResponseEntity<ApiResponse<List<InterestAccrual>>> getMyLoanSchedule(
+            Authentication authentication,
+            @PathVariable String id,
+            @RequestParam(required = false) Integer fromPeriod,
+            @RequestParam(required = false) Integer toPeriod) {
+        String email = getUserEmail(authentication);
+        Customer customer = userService.getCustomerByEmail(email);
+        if (customer == null) return ResponseEntity.status(404).body(ApiResponse.error("Customer not found"));
+
+        List<InterestAccrual> schedule = accrualScheduleService
+                .getScheduleForCustomer(customer.getId(), id, fromPeriod, toPeriod);
+        return ResponseEntity.ok(ApiResponse.success(schedule));
+    }
+
     @GetMapping("/my-gold-items")
     public ResponseEntity<ApiResponse<List<GoldItemDetailResponse>>> getMyGoldItems(Authentication authentication) {
         String email = getUserEmail(authentication);
@@ -176,36 +195,55 @@ public class UserController {
         Optional<User> userOpt = userService.getUserByEmail(email);
         if (userOpt.isEmpty()) return ResponseEntity.status(404).body(ApiResponse.error("User not found"));
 
-        String userId = userOpt.get().getId();
-        boolean isAdmin = userOpt.get().getRole().equals("ADMIN");
-        
-        List<Notification> notifications = notificationService.getUserNotifications(userId);
-        if (isAdmin) {
-            notifications.addAll(notificationService.getUserNotifications("ADMIN"));
-            notifications.sort(Comparator.comparing(Notification::getCreatedAt).reversed());
-        }
+        User user = userOpt.get();
+        List<Notification> notifications = notificationService
+                .getNotificationFeed(user.getId(), user.getRole(), null, null).getItems();
         return ResponseEntity.ok(ApiResponse.success(notifications));
     }
 
+    @GetMapping("/notifications/feed")
+    public ResponseEntity<ApiResponse<CursorPage<Notification>>> getNotificationFeed(
+            Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String email = getUserEmail(authentication);
+        Optional<User> userOpt = userService.getUserByEmail(email);
+        if (userOpt.isEmpty()) return ResponseEntity.status(404).body(ApiResponse.error("User not found"));
+
+        User user = userOpt.get();
+        CursorPage<Notification> page = notificationService.getNotificationFeed(user.getId(), user.getRole(), cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     @GetMapping("/notifications/unread-count")
     public ResponseEntity<ApiResponse<Long>> getUnreadNotificationCount(Authentication authentication) {
         String email = getUserEmail(authentication);
         Optional<User> userOpt = userService.getUserByEmail(email);
         if (userOpt.isEmpty()) return ResponseEntity.status(404).body(ApiResponse.error("User not found"));
 
-        String userId = userOpt.get().getId();
-        boolean isAdmin = userOpt.get().getRole().equals("ADMIN");
-        
-        long count = notificationService.getUnreadCount(userId);
-        if (isAdmin) {
-            count += notificationService.getUnreadCount("ADMIN");
-        }
+        User user = userOpt.get();
+        long count = notificationService.getUnreadCount(user.getId(), user.getRole());
         return ResponseEntity.ok(ApiResponse.success(count));
     }
 
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(Authentication authentication) {
+        String email = getUserEmail(authentication);
+        Optional<User> userOpt = userService.getUserByEmail(email);
+        if (userOpt.isEmpty()) return ResponseEntity.status(404).build();
+
+        User user = userOpt.get();
+        long count = notificationService.getUnreadCount(user.getId(), user.getRole());
+        return ResponseEntity.ok(notificationStreamService.subscribe(user.getId(), user.getRole(), count));
+    }
+
     @PostMapping("/notifications/{id}/read")
-    public ResponseEntity<ApiResponse<String>> markNotificationAsRead(@PathVariable String id) {
-        notificationService.markAsRead(id);
+    public ResponseEntity<ApiResponse<String>> markNotificationAsRead(@PathVariable String id, Authentication authentication) {
+        String email = getUserEmail(authentication);
+        Optional<User> userOpt = userService.getUserByEmail(email);
+        if (userOpt.isEmpty()) return ResponseEntity.status(404).body(ApiResponse.error("User not found"));
+
+        notificationService.markAsRead(id, userOpt.get().getId(), userOpt.get().getRole());
         return ResponseEntity.ok(ApiResponse.success("Notification marked as read"));
     }
 
@@ -215,7 +253,7 @@ public class UserController {
         Optional<User> userOpt = userService.getUserByEmail(email);
         if (userOpt.isEmpty()) return ResponseEntity.status(404).body(ApiResponse.error("User not found"));
 
-        notificationService.markAllAsRead(userOpt.get().getId());
+        notificationService.markAllAsRead(userOpt.get().getId(), userOpt.get().getRole());
         return ResponseEntity.ok(ApiResponse.success("All notifications marked as read"));
     }
     @PutMapping("/profile")
@@ -0,0 +1,26 @@
+package com.ecommerce.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BankExposureSummary {
+    private double totalPrincipal;
+    private double totalOutstanding;
+    private double totalInterestPayable;
+    private long activeLoans;
+    private List<BankExposure> banks;
+
+    @Data
+    @Builder
+    public static class BankExposure {
+        private String bankName;
+        private double principal;
+        private double outstanding;
+        private double interestPayable;
+        private long activeLoans;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class CollateralRevaluedEvent {
+    private Set<String> customerLoanIds;
+    private Set<String> bankLoanIds;
+    private Map<String, Double> itemValues;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummary {
+    private String id;
+    private String fullName;
+    private String phoneNumber;
+}
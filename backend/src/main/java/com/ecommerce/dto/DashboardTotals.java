@@ -0,0 +1,19 @@
+package com.ecommerce.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class DashboardTotals {
+    private double totalInvestment;
+    private double totalReceivableInterest;
+    private long activeCustomerLoans;
+
+    private double totalPayableInterest;
+    private double totalBankLoans;
+    private long activeBankLoans;
+
+    private double totalGoldWeightPledged;
+    private long pledgedGoldItems;
+}
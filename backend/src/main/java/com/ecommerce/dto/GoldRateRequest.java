@@ -0,0 +1,20 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoldRateRequest {
+    @NotBlank(message = "Purity is required")
+    private String purity;
+
+    @NotNull(message = "Price per gram is required")
+    @Positive(message = "Price per gram must be positive")
+    private Double pricePerGram;
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class GoldRatesUpdatedEvent {
+    private Set<String> purities;
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+public class InterestAccrual {
+    private int periodNumber;
+    private LocalDateTime date;
+    private Double openingBalance;
+    private Double interestRate;
+    private Double interestAmount;
+    private Double closingBalance;
+    private String period;
+    private Map<String, String> formattedDate;
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LoanToValue {
+    private String loanType;
+    private String loanId;
+    private String loanNumber;
+    private String ownerId;
+    private double outstandingAmount;
+    private double collateralValue;
+    private Double ratio;
+    private String level;
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationEvent {
+
+    public enum Channel {
+        USER,
+        ROLE,
+        SMS
+    }
+
+    private Channel channel;
+    private String recipient;
+    private String title;
+    private String message;
+    private String type;
+    private String referenceId;
+    private Map<String, Object> data;
+    private LocalDateTime occurredAt;
+}
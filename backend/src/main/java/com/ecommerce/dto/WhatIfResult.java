@@ -0,0 +1,33 @@
+package com.ecommerce.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class WhatIfResult {
+    private String scenario;
+    private Projection baseline;
+    private Projection projected;
+    private double netMarginChange;
+
+    private int customerLoans;
+    private int bankLoans;
+    private long earlyRepaidLoans;
+    private LocalDateTime snapshotTakenAt;
+    private long durationMillis;
+
+    @Data
+    @Builder
+    public static class Projection {
+        private double receivableInterest;
+        private double payableInterest;
+        private double netMargin;
+        private double collateralValue;
+        private double collateralShortfall;
+        private long underCollateralisedCustomerLoans;
+        private long underCollateralisedBankLoans;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class WhatIfScenario {
+    private String name;
+
+    private double customerRateChange;
+
+    private double bankRateChange;
+
+    @DecimalMin(value = "-100.0", message = "Gold price cannot fall by more than 100%")
+    private double goldPriceChangePercent;
+
+    @DecimalMin(value = "0.0", message = "Early repayment share must be between 0 and 1")
+    @DecimalMax(value = "1.0", message = "Early repayment share must be between 0 and 1")
+    private double earlyRepaymentShare;
+
+    @Min(value = 1, message = "Horizon must be at least 1 month")
+    @Max(value = 360, message = "Horizon cannot exceed 360 months")
+    private Integer horizonMonths;
+}
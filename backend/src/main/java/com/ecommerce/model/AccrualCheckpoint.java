@@ -0,0 +1,25 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "accrual_checkpoints")
+public class AccrualCheckpoint {
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    @Id
+    private String id;
+    private String status;
+    private LocalDateTime asOf;
+    private String lastProcessedId;
+    private Long processedLoans = 0L;
+    private Long elapsedMillis = 0L;
+    private Double loansPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
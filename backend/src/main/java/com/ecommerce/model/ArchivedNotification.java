@@ -0,0 +1,40 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Document(collection = "notifications_archive")
+public class ArchivedNotification {
+    @Id
+    private String id;
+    private String userId;
+    private String targetRole;
+    private String title;
+    private String message;
+    private String type;
+    private String referenceId;
+    private boolean isRead;
+    private LocalDateTime createdAt;
+    private Map<String, Object> data;
+    private LocalDateTime archivedAt;
+
+    public static ArchivedNotification from(Notification notification, LocalDateTime archivedAt) {
+        ArchivedNotification archived = new ArchivedNotification();
+        archived.setId(notification.getId());
+        archived.setUserId(notification.getUserId());
+        archived.setTargetRole(notification.getTargetRole());
+        archived.setTitle(notification.getTitle());
+        archived.setMessage(notification.getMessage());
+        archived.setType(notification.getType());
+        archived.setReferenceId(notification.getReferenceId());
+        archived.setRead(notification.isRead());
+        archived.setCreatedAt(notification.getCreatedAt());
+        archived.setData(notification.getData());
+        archived.setArchivedAt(archivedAt);
+        return archived;
+    }
+}
@@ -2,18 +2,23 @@ package com.ecommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @Data
 @Document(collection = "bank_loans")
+@CompoundIndex(name = "status_bankName_amounts",
+        def = "{'status': 1, 'bankName': 1, 'principalAmount': 1, 'outstandingAmount': 1, 'totalInterestPayable': 1}")
+@CompoundIndex(name = "status_id", def = "{'status': 1, '_id': -1}")
 public class BankLoan {
     @Id
     private String id;
     private String bankName;
     private String loanNumber;
+    @Indexed(unique = true, sparse = true)
     private String bankSerialNumber;
 
     private Double principalAmount;
@@ -21,11 +26,12 @@ public class BankLoan {
     private Integer tenureMonths;
     private LocalDateTime startDate;
     private LocalDateTime maturityDate;
+    @Indexed
     private String status;
 
     private List<String> pledgedGoldItemIds;
 
-    private List<Map<String, Object>> goldItemsDetails;
+    private List<PledgedGoldItem> goldItemsDetails;
 
     private List<String> customerLoanIds;
     private List<String> customerSerialNumbers;
@@ -37,8 +43,9 @@ public class BankLoan {
     private Double amountPaidSoFar;
     private Double outstandingAmount;
     private LocalDateTime lastPaymentDate;
+    private LocalDateTime collateralRevaluedAt;
 
-    private List<Map<String, Object>> individualGoldCalculations;
+    private List<GoldAllocation> individualGoldCalculations;
 
     private Boolean isBulkLoan = true;
     private LocalDateTime createdAt;
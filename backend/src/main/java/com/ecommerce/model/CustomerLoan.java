@@ -2,6 +2,8 @@ package com.ecommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -9,6 +11,7 @@ import java.util.Map;
 
 @Data
 @Document(collection = "customer_loans")
+@CompoundIndex(name = "status_id", def = "{'status': 1, '_id': -1}")
 public class CustomerLoan {
     @Id
     private String id;
@@ -23,11 +26,14 @@ public class CustomerLoan {
     private Integer tenureMonths;
     private LocalDateTime startDate;
     private LocalDateTime maturityDate;
+    @Indexed
     private String status;
 
+    private LocalDateTime requestedAt;
     private String approvedBy;
     private LocalDateTime approvalDate;
     private String rejectionReason;
+    private LocalDateTime rejectedAt;
     private String reviewedBy;
 
     private List<String> goldItemIds;
@@ -42,27 +48,16 @@ public class CustomerLoan {
     private Double outstandingAmount;
     private LocalDateTime lastPaymentDate;
     private LocalDateTime lastInterestCalculationDate;
+    private LocalDateTime collateralRevaluedAt;
     private Boolean smsNotifications = true;
 
     private Map<String, String> formattedStartDate;
     private Map<String, String> formattedMaturityDate;
 
-    private List<InterestAccrual> interestAccruals;
-
     private Boolean isBulkLoan = false;
     private String bulkReferenceId;
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
-    @Data
-    public static class InterestAccrual {
-        private LocalDateTime date;
-        private Double openingBalance;
-        private Double interestRate;
-        private Double interestAmount;
-        private Double closingBalance;
-        private String period;
-        private Map<String, String> formattedDate;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "dashboard_counters")
+public class DashboardCounters {
+    public static final String GLOBAL_ID = "global";
+
+    @Id
+    private String id = GLOBAL_ID;
+
+    private Double totalInvestment = 0.0;
+    private Double totalReceivableInterest = 0.0;
+    private Long activeCustomerLoans = 0L;
+    private Long pendingApprovalLoans = 0L;
+
+    private Double totalPayableInterest = 0.0;
+    private Double totalBankLoans = 0.0;
+    private Long activeBankLoans = 0L;
+
+    private Double totalGoldWeightPledged = 0.0;
+    private Long pledgedGoldItems = 0L;
+
+    private Long version = 0L;
+    private Long pendingWrites = 0L;
+    private LocalDateTime lastReconciledAt;
+    private LocalDateTime updatedAt;
+}
@@ -2,15 +2,24 @@ package com.ecommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "dashboard_summaries")
+@CompoundIndex(name = "granularity_summaryDate", def = "{'granularity': 1, 'summaryDate': 1}")
 public class DashboardSummary {
+    public static final String GRANULARITY_RAW = "RAW";
+    public static final String GRANULARITY_DAILY = "DAILY";
+    public static final String GRANULARITY_MONTHLY = "MONTHLY";
+
     @Id
     private String id;
+    @Indexed
     private LocalDateTime summaryDate;
+    private String granularity;
 
     private Double totalInvestment;
     private Double totalReceivableInterest;
@@ -0,0 +1,19 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+
+@Data
+public class GoldAllocation {
+    private String goldItemId;
+    private String itemType;
+    private double weightInGrams;
+    private String purity;
+    private double estimatedValue;
+    private double proportion;
+    private double allocatedPrincipal;
+    private double allocatedInterest;
+    private double paidPrincipal;
+    private double remainingPrincipal;
+    private String customerLoanId;
+    private String customerSerialNumber;
+}
@@ -2,6 +2,7 @@ package com.ecommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +18,7 @@ public class GoldItem {
     private String purity;
     private String description;
     private Double estimatedValue;
+    @Indexed
     private String status;
     private String imageUrl;
     private String serialNumber;
@@ -27,7 +29,15 @@ public class GoldItem {
     private Double stoneWeight;
     private String stoneType;
     private String bankLoanId;
+    private String bankSerialNumber;
     private String customerLoanId;
+    private Double appraisedValue;
+    private LocalDateTime valuedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // Latest rate-based appraisal when there is one, otherwise the value recorded at intake
+    public Double collateralValue() {
+        return appraisedValue != null ? appraisedValue : estimatedValue;
+    }
 }
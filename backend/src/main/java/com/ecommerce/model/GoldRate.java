@@ -0,0 +1,20 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "gold_rates")
+@CompoundIndex(name = "purity_effectiveAt", def = "{'purity': 1, 'effectiveAt': -1}")
+public class GoldRate {
+    @Id
+    private String id;
+    private String purity;
+    private double pricePerGram;
+    private String source;
+    private LocalDateTime effectiveAt;
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "loan_monthly_rollups")
+public class LoanMonthlyRollup {
+    @Id
+    private String id;
+
+    private Double disbursedPrincipal = 0.0;
+    private Double repayments = 0.0;
+    private Double interestCollected = 0.0;
+
+    private Long requestedLoans = 0L;
+    private Long activatedLoans = 0L;
+    private Long closedLoans = 0L;
+    private Long rejectedLoans = 0L;
+
+    private LocalDateTime updatedAt;
+}
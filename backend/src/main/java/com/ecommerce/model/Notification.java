@@ -2,16 +2,23 @@ package com.ecommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.Map;
 
 @Data
 @Document(collection = "notifications")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_createdAt", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "targetRole_createdAt", def = "{'targetRole': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Notification {
     @Id
     private String id;
     private String userId;
+    private String targetRole;
     private String title;
     private String message;
     private String type;
@@ -19,4 +26,8 @@ public class Notification {
     private boolean isRead = false;
     private LocalDateTime createdAt = LocalDateTime.now();
     private Map<String, Object> data;
+
+    public boolean isBroadcast() {
+        return targetRole != null;
+    }
 }
@@ -0,0 +1,15 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "notification_counters")
+public class NotificationCounter {
+    @Id
+    private String id;
+    private Long value = 0L;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Document(collection = "notification_receipts")
+public class NotificationReceipt {
+    @Id
+    private String userId;
+    private LocalDateTime readAllBefore;
+    private Set<String> readIds = new HashSet<>();
+    private LocalDateTime updatedAt;
+
+    public boolean hasRead(Notification notification) {
+        if (notification.isRead()) {
+            return true;
+        }
+        if (readAllBefore != null && notification.getCreatedAt() != null
+                && !notification.getCreatedAt().isAfter(readAllBefore)) {
+            return true;
+        }
+        return readIds != null && readIds.contains(notification.getId());
+    }
+}
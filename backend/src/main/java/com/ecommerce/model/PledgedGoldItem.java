@@ -0,0 +1,34 @@
+package com.ecommerce.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PledgedGoldItem {
+    private String id;
+    private String itemType;
+    private double weightInGrams;
+    private String purity;
+    private double estimatedValue;
+    private String serialNumber;
+    private String customerId;
+    private String customerLoanId;
+    private String imageUrl;
+    private List<String> billAttachments;
+
+    public static PledgedGoldItem from(GoldItem item) {
+        PledgedGoldItem pledged = new PledgedGoldItem();
+        pledged.setId(item.getId());
+        pledged.setItemType(item.getItemType());
+        pledged.setWeightInGrams(item.getWeightInGrams() != null ? item.getWeightInGrams() : 0.0);
+        pledged.setPurity(item.getPurity());
+        pledged.setEstimatedValue(item.getEstimatedValue() != null ? item.getEstimatedValue() : 0.0);
+        pledged.setSerialNumber(item.getSerialNumber());
+        pledged.setCustomerId(item.getCustomerId());
+        pledged.setCustomerLoanId(item.getCustomerLoanId());
+        pledged.setImageUrl(item.getImageUrl());
+        pledged.setBillAttachments(item.getBillAttachments());
+        return pledged;
+    }
+}
@@ -2,12 +2,19 @@ package com.ecommerce.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "sms_notifications")
+@CompoundIndex(name = "status_scheduledTime", def = "{'status': 1, 'scheduledTime': 1}")
 public class smsNotification {
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_DEAD_LETTER = "DEAD_LETTER";
+
     @Id
     private String id;
     private String phoneNumber;
@@ -18,4 +25,8 @@ public class smsNotification {
     private LocalDateTime scheduledTime;
     private LocalDateTime sentTime;
     private Integer retryCount = 0;
+    private String gateway;
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+    private String lastError;
 }
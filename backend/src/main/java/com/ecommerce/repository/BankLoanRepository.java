@@ -22,9 +22,6 @@ public interface BankLoanRepository extends MongoRepository<BankLoan, String> {
     @Query("{ 'customerLoanIds': ?0 }")
     List<BankLoan> findByCustomerLoanId(String customerLoanId);
 
-    @Query(value = "{ 'status': 'ACTIVE' }", fields = "{ 'outstandingAmount': 1 }")
-    List<BankLoan> findAllActiveOutstandingAmounts();
-
     @Query("{ $or: [ " +
             "{ 'bankSerialNumber': { $regex: ?0, $options: 'i' } }, " +
             "{ 'bankName': { $regex: ?0, $options: 'i' } }, " +
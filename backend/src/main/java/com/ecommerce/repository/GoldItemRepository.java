@@ -6,7 +6,7 @@ import org.springframework.data.mongodb.repository.Query;
 import java.util.List;
 import java.util.Optional;
 
-public interface GoldItemRepository extends MongoRepository<GoldItem, String> {
+public interface GoldItemRepository extends MongoRepository<GoldItem, String>, GoldItemRepositoryCustom {
     List<GoldItem> findByCustomerId(String customerId);
     List<GoldItem> findByStatus(String status);
     List<GoldItem> findByCustomerIdAndStatus(String customerId, String status);
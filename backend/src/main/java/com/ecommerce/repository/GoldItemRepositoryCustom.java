@@ -0,0 +1,26 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.GoldItem;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface GoldItemRepositoryCustom {
+
+    long markPledged(List<String> goldItemIds, LocalDateTime now);
+
+    long assignCustomerLoan(List<String> goldItemIds, String customerLoanId, LocalDateTime now);
+
+    List<GoldItem> pledgePendingItems(List<String> goldItemIds, LocalDateTime now);
+
+    List<GoldItem> releaseFromCustomerLoan(List<String> goldItemIds, LocalDateTime now);
+
+    long releaseFromBankLoan(List<String> goldItemIds, LocalDateTime now);
+
+    long claimForBankLoan(List<GoldItem> observedItems, String bankLoanId, String bankSerialNumber, LocalDateTime now);
+
+    long reassignBankClaim(String fromBankLoanId, BankLoan target, LocalDateTime now);
+
+    long releaseBankClaim(String bankLoanId, LocalDateTime now);
+}
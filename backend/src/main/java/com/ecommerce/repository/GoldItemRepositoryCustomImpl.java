@@ -0,0 +1,106 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.GoldItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class GoldItemRepositoryCustomImpl implements GoldItemRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long markPledged(List<String> goldItemIds, LocalDateTime now) {
+        if (goldItemIds == null || goldItemIds.isEmpty()) return 0;
+        return updateAll(where("_id").in(goldItemIds),
+                new Update().set("status", "PLEDGED").set("updatedAt", now));
+    }
+
+    @Override
+    public long assignCustomerLoan(List<String> goldItemIds, String customerLoanId, LocalDateTime now) {
+        if (goldItemIds == null || goldItemIds.isEmpty()) return 0;
+        return updateAll(where("_id").in(goldItemIds),
+                new Update().set("customerLoanId", customerLoanId).set("updatedAt", now));
+    }
+
+    @Override
+    public List<GoldItem> pledgePendingItems(List<String> goldItemIds, LocalDateTime now) {
+        if (goldItemIds == null || goldItemIds.isEmpty()) return Collections.emptyList();
+        Criteria pending = where("_id").in(goldItemIds).and("status").is("PENDING");
+        List<GoldItem> items = findForCounters(pending);
+        if (!items.isEmpty()) {
+            updateAll(pending, new Update().set("status", "PLEDGED").set("updatedAt", now));
+        }
+        return items;
+    }
+
+    @Override
+    public List<GoldItem> releaseFromCustomerLoan(List<String> goldItemIds, LocalDateTime now) {
+        if (goldItemIds == null || goldItemIds.isEmpty()) return Collections.emptyList();
+        List<GoldItem> pledged = findForCounters(
+                where("_id").in(goldItemIds).and("status").in("PLEDGED", "PLEDGED_TO_BANK"));
+        updateAll(where("_id").in(goldItemIds),
+                new Update().set("status", "AVAILABLE").unset("customerLoanId").set("updatedAt", now));
+        return pledged;
+    }
+
+    @Override
+    public long releaseFromBankLoan(List<String> goldItemIds, LocalDateTime now) {
+        if (goldItemIds == null || goldItemIds.isEmpty()) return 0;
+        return updateAll(where("_id").in(goldItemIds),
+                new Update().set("status", "PLEDGED").unset("bankLoanId").unset("bankSerialNumber").set("updatedAt", now));
+    }
+
+    @Override
+    public long claimForBankLoan(List<GoldItem> observedItems, String bankLoanId, String bankSerialNumber,
+                                 LocalDateTime now) {
+        if (observedItems == null || observedItems.isEmpty()) return 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GoldItem.class);
+        for (GoldItem item : observedItems) {
+            bulk.updateOne(
+                    new Query(where("_id").is(item.getId())
+                            .and("status").is(item.getStatus())
+                            .and("bankLoanId").is(item.getBankLoanId())),
+                    new Update()
+                            .set("status", "PLEDGED_TO_BANK")
+                            .set("bankLoanId", bankLoanId)
+                            .set("bankSerialNumber", bankSerialNumber)
+                            .set("updatedAt", now));
+        }
+        return bulk.execute().getMatchedCount();
+    }
+
+    @Override
+    public long reassignBankClaim(String fromBankLoanId, BankLoan target, LocalDateTime now) {
+        if (target.getPledgedGoldItemIds() == null || target.getPledgedGoldItemIds().isEmpty()) return 0;
+        return updateAll(where("bankLoanId").is(fromBankLoanId).and("_id").in(target.getPledgedGoldItemIds()),
+                new Update().set("bankLoanId", target.getId()).set("updatedAt", now));
+    }
+
+    @Override
+    public long releaseBankClaim(String bankLoanId, LocalDateTime now) {
+        return updateAll(where("bankLoanId").is(bankLoanId).and("status").is("PLEDGED_TO_BANK"),
+                new Update().set("status", "PLEDGED").unset("bankLoanId").unset("bankSerialNumber").set("updatedAt", now));
+    }
+
+    private List<GoldItem> findForCounters(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("status", "weightInGrams");
+        return mongoTemplate.find(query, GoldItem.class);
+    }
+
+    private long updateAll(Criteria criteria, Update update) {
+        return mongoTemplate.updateMulti(new Query(criteria), update, GoldItem.class).getModifiedCount();
+    }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.repository;
+
+public interface NotificationRepositoryCustom {
+
+    long markAllReadForUser(String userId);
+}
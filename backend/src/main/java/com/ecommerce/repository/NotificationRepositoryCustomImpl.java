@@ -0,0 +1,23 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class NotificationRepositoryCustomImpl implements NotificationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long markAllReadForUser(String userId) {
+        return mongoTemplate.updateMulti(
+                new Query(where("userId").is(userId).and("isRead").is(false)),
+                new Update().set("isRead", true),
+                Notification.class).getModifiedCount();
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.InterestAccrual;
+import com.ecommerce.model.CustomerLoan;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+public class AccrualScheduleService {
+
+    private static final String LEGACY_ACCRUALS_FIELD = "interestAccruals";
+
+    private final MongoTemplate mongoTemplate;
+    private final InterestCalculationService interestCalculationService;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AccrualScheduleService(MongoTemplate mongoTemplate,
+                                  InterestCalculationService interestCalculationService,
+                                  @Value("${accrual.schedule.cache.max-size:256}") int maxSize,
+                                  @Value("${accrual.schedule.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.interestCalculationService = interestCalculationService;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AccrualScheduleService.this.maxSize;
+            }
+        };
+    }
+
+    public List<InterestAccrual> getSchedule(String loanId, Integer fromPeriod, Integer toPeriod) {
+        return slice(schedule(loadLoan(loanId, null)), fromPeriod, toPeriod);
+    }
+
+    public List<InterestAccrual> getScheduleForCustomer(String customerId, String loanId,
+                                                        Integer fromPeriod, Integer toPeriod) {
+        return slice(schedule(loadLoan(loanId, customerId)), fromPeriod, toPeriod);
+    }
+
+    // A cached schedule is replayed; otherwise periods are generated as they are written and never held as a list
+    public Stream<InterestAccrual> streamSchedule(String loanId) {
+        CustomerLoan loan = loadLoan(loanId, null);
+        List<InterestAccrual> cached = cached(loan);
+        return cached != null ? cached.stream() : interestCalculationService.streamAccrualSchedule(loan);
+    }
+
+    public void invalidate(String loanId) {
+        synchronized (entries) {
+            entries.remove(loanId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropEmbeddedAccruals() {
+        long migrated = mongoTemplate.updateMulti(
+                new Query(where(LEGACY_ACCRUALS_FIELD).exists(true)),
+                new Update().unset(LEGACY_ACCRUALS_FIELD),
+                CustomerLoan.class).getModifiedCount();
+        if (migrated > 0) {
+            log.info("Removed embedded interest accruals from {} customer loans", migrated);
+        }
+    }
+
+    private List<InterestAccrual> schedule(CustomerLoan loan) {
+        List<InterestAccrual> cached = cached(loan);
+        if (cached != null) {
+            return cached;
+        }
+        List<InterestAccrual> schedule = interestCalculationService.generateAccrualSchedule(loan);
+        synchronized (entries) {
+            entries.put(loan.getId(), new Entry(fingerprint(loan), schedule,
+                    System.currentTimeMillis() + ttlMillis));
+        }
+        return schedule;
+    }
+
+    private List<InterestAccrual> cached(CustomerLoan loan) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(loan.getId());
+        }
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()
+                && entry.fingerprint == fingerprint(loan)) {
+            hits.incrementAndGet();
+            return entry.schedule;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private CustomerLoan loadLoan(String loanId, String customerId) {
+        Query query = new Query(where("_id").is(loanId));
+        if (customerId != null) {
+            query.addCriteria(where("customerId").is(customerId));
+        }
+        query.fields().include("principalAmount", "interestRate", "interestType", "monthlyInterestRate",
+                "startDate", "maturityDate");
+        CustomerLoan loan = mongoTemplate.findOne(query, CustomerLoan.class);
+        if (loan == null) {
+            throw new RuntimeException("Loan not found");
+        }
+        return loan;
+    }
+
+    private static int fingerprint(CustomerLoan loan) {
+        return Objects.hash(loan.getPrincipalAmount(), loan.getInterestRate(), loan.getInterestType(),
+                loan.getMonthlyInterestRate(), loan.getStartDate(), loan.getMaturityDate());
+    }
+
+    private static List<InterestAccrual> slice(List<InterestAccrual> schedule, Integer fromPeriod, Integer toPeriod) {
+        int from = fromPeriod != null ? Math.max(1, fromPeriod) : 1;
+        int to = toPeriod != null ? Math.min(schedule.size(), toPeriod) : schedule.size();
+        if (from > to) {
+            return List.of();
+        }
+        return schedule.subList(from - 1, to);
+    }
+
+    private static class Entry {
+        private final int fingerprint;
+        private final List<InterestAccrual> schedule;
+        private final long expiresAt;
+
+        Entry(int fingerprint, List<InterestAccrual> schedule, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.schedule = schedule;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
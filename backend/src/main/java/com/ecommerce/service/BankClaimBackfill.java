@@ -0,0 +1,79 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.GoldItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+public class BankClaimBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private volatile boolean completed;
+
+    public BankClaimBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Items pledged before claims were recorded on the gold item only carry the status; link them to the
+    // active bank loan that lists them so the orphaned-claim takeover can tell them apart from a stale claim
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        LocalDateTime now = LocalDateTime.now();
+        Query loans = new Query(where("status").is("ACTIVE").and("pledgedGoldItemIds.0").exists(true));
+        loans.fields().include("bankSerialNumber", "pledgedGoldItemIds");
+
+        long linked = 0;
+        BulkOperations bulk = null;
+        int pending = 0;
+        try (Stream<BankLoan> stream = mongoTemplate.stream(loans, BankLoan.class)) {
+            for (BankLoan loan : (Iterable<BankLoan>) stream::iterator) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GoldItem.class);
+                }
+                bulk.updateMulti(new Query(where("_id").in(loan.getPledgedGoldItemIds())
+                                .and("status").is("PLEDGED_TO_BANK")
+                                .and("bankLoanId").is(null)),
+                        new Update().set("bankLoanId", loan.getId())
+                                .set("bankSerialNumber", loan.getBankSerialNumber())
+                                .set("updatedAt", now));
+                if (++pending == BATCH_SIZE) {
+                    linked += bulk.execute().getModifiedCount();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulk != null) {
+            linked += bulk.execute().getModifiedCount();
+        }
+
+        long unlinked = mongoTemplate.count(
+                new Query(where("status").is("PLEDGED_TO_BANK").and("bankLoanId").is(null)), GoldItem.class);
+        if (linked > 0) {
+            log.info("Linked {} bank-pledged gold items to their bank loans", linked);
+        }
+        if (unlinked > 0) {
+            log.warn("{} gold items are pledged to a bank but no active bank loan lists them; they stay locked", unlinked);
+        }
+        completed = true;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.BankExposureSummary;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+@RequiredArgsConstructor
+public class BankExposureService {
+
+    private static final String COVERING_INDEX = "status_bankName_amounts";
+
+    private final MongoTemplate mongoTemplate;
+
+    // The projection keeps the pipeline on fields of BankLoan's status_bankName_amounts index, so the
+    // group is fed from index keys without fetching any loan document. The hint stops the planner from
+    // picking the single-field status index, which would fetch every active loan.
+    public BankExposureSummary getSummary() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(where("status").is("ACTIVE")),
+                project("bankName", "principalAmount", "outstandingAmount", "totalInterestPayable").andExclude("_id"),
+                group("bankName")
+                        .sum("principalAmount").as("principal")
+                        .sum("outstandingAmount").as("outstanding")
+                        .sum("totalInterestPayable").as("interest")
+                        .count().as("count"),
+                sort(Sort.by(Sort.Direction.DESC, "outstanding"))
+        ).withOptions(AggregationOptions.builder().hint(COVERING_INDEX).build());
+
+        List<Document> rows = mongoTemplate.aggregate(aggregation, "bank_loans", Document.class)
+                .getMappedResults();
+
+        List<BankExposureSummary.BankExposure> banks = new ArrayList<>(rows.size());
+        double principal = 0;
+        double outstanding = 0;
+        double interest = 0;
+        long loans = 0;
+        for (Document row : rows) {
+            BankExposureSummary.BankExposure bank = BankExposureSummary.BankExposure.builder()
+                    .bankName(row.getString("_id"))
+                    .principal(number(row, "principal"))
+                    .outstanding(number(row, "outstanding"))
+                    .interestPayable(number(row, "interest"))
+                    .activeLoans(count(row))
+                    .build();
+            banks.add(bank);
+            principal += bank.getPrincipal();
+            outstanding += bank.getOutstanding();
+            interest += bank.getInterestPayable();
+            loans += bank.getActiveLoans();
+        }
+
+        return BankExposureSummary.builder()
+                .totalPrincipal(principal)
+                .totalOutstanding(outstanding)
+                .totalInterestPayable(interest)
+                .activeLoans(loans)
+                .banks(banks)
+                .build();
+    }
+
+    private static double number(Document row, String field) {
+        Object value = row.get(field);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static long count(Document row) {
+        Object value = row.get("count");
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.GoldAllocation;
+import com.ecommerce.utils.MoneyMath;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+public class BankLoanAllocationMigration {
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final AtomicLong migrated = new AtomicLong();
+    private volatile boolean completed;
+
+    public BankLoanAllocationMigration(MongoTemplate mongoTemplate,
+                                       @Value("${bank.allocation.migration.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${bank.allocation.migration.initial-delay-ms:30000}",
+            fixedDelayString = "${bank.allocation.migration.delay-ms:2000}")
+    public void migrateNextBatch() {
+        if (completed) return;
+
+        // Reading goes through the typed converters, which still understand the long map keys;
+        // writing the same values back stores them in the compact form
+        List<BankLoan> loans = mongoTemplate.find(new Query(legacyCriteria()).limit(batchSize), BankLoan.class);
+        if (loans.isEmpty()) {
+            completed = true;
+            if (migrated.get() > 0) {
+                log.info("Bank loan allocation migration completed: {} loans rewritten", migrated.get());
+            }
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BankLoan.class);
+        for (BankLoan loan : loans) {
+            Update update = new Update();
+            if (loan.getIndividualGoldCalculations() != null) {
+                reallocatePaidPrincipal(loan);
+                update.set("individualGoldCalculations", loan.getIndividualGoldCalculations());
+            }
+            if (loan.getGoldItemsDetails() != null) {
+                update.set("goldItemsDetails", loan.getGoldItemsDetails());
+            }
+            // A loan written since it was read is skipped here; if it is still legacy the next batch picks it up again
+            bulk.updateOne(new Query(where("_id").is(loan.getId()).and("updatedAt").is(loan.getUpdatedAt())), update);
+        }
+        migrated.addAndGet(bulk.execute().getModifiedCount());
+    }
+
+    // Legacy entries carry per-item paid amounts accumulated in floating point; split the loan's recorded
+    // total again so they sum exactly to amountPaidSoFar
+    private static void reallocatePaidPrincipal(BankLoan loan) {
+        List<GoldAllocation> allocations = loan.getIndividualGoldCalculations();
+        if (allocations.isEmpty()) return;
+        long[] allocated = new long[allocations.size()];
+        for (int i = 0; i < allocated.length; i++) {
+            allocated[i] = MoneyMath.toPaisa(allocations.get(i).getAllocatedPrincipal());
+        }
+        long[] paid = new long[allocated.length];
+        MoneyMath.allocate(MoneyMath.toPaisa(loan.getAmountPaidSoFar()), allocated, paid);
+        for (int i = 0; i < allocated.length; i++) {
+            allocations.get(i).setPaidPrincipal(MoneyMath.toRupees(paid[i]));
+            allocations.get(i).setRemainingPrincipal(MoneyMath.toRupees(allocated[i] - paid[i]));
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("completed", completed);
+        status.put("migrated", migrated.get());
+        status.put("remaining", completed ? 0 : mongoTemplate.count(new Query(legacyCriteria()), BankLoan.class));
+        return status;
+    }
+
+    private static Criteria legacyCriteria() {
+        return new Criteria().orOperator(
+                where("individualGoldCalculations.goldItemId").exists(true),
+                where("goldItemsDetails.itemType").exists(true));
+    }
+}
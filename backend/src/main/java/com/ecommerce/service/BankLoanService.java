@@ -1,141 +1,210 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.BankExposureSummary;
 import com.ecommerce.dto.BankLoanRequest;
+import com.ecommerce.dto.CursorPage;
 import com.ecommerce.model.BankLoan;
 import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.GoldAllocation;
 import com.ecommerce.model.GoldItem;
+import com.ecommerce.model.PledgedGoldItem;
 import com.ecommerce.repository.BankLoanRepository;
-import com.ecommerce.repository.CustomerLoanRepository;
 import com.ecommerce.repository.GoldItemRepository;
+import com.ecommerce.utils.MoneyMath;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @Service
 @RequiredArgsConstructor
 public class BankLoanService {
 
+    private static final Duration ORPHANED_CLAIM_AGE = Duration.ofMinutes(5);
+
     private final BankLoanRepository bankLoanRepository;
     private final GoldItemRepository goldItemRepository;
-    private final CustomerLoanRepository customerLoanRepository;
+    private final DashboardCounterService dashboardCounterService;
+    private final KeysetPageService keysetPageService;
+    private final GoldItemEnricher goldItemEnricher;
+    private final LoanToValueMonitor loanToValueMonitor;
+    private final BankExposureService bankExposureService;
+    private final BankClaimBackfill bankClaimBackfill;
 
     @Transactional
     public BankLoan createBankLoan(BankLoanRequest request) {
-        if (request.getBankSerialNumber() != null) {
-            Optional<BankLoan> existingLoan = bankLoanRepository
-                    .findByBankSerialNumber(request.getBankSerialNumber());
-            if (existingLoan.isPresent()) {
-                throw new RuntimeException("Bank serial number already exists: " + request.getBankSerialNumber());
-            }
-        } else {
+        if (request.getBankSerialNumber() == null) {
             throw new RuntimeException("Bank serial number is required");
         }
+        Optional<BankLoan> existingLoan = bankLoanRepository.findByBankSerialNumber(request.getBankSerialNumber());
+        if (existingLoan.isPresent()) {
+            return samePledgeOrThrow(existingLoan.get(), request);
+        }
 
+        LocalDateTime now = LocalDateTime.now();
         BankLoan loan = new BankLoan();
+        loan.setId(new ObjectId().toHexString());
         loan.setBankName(request.getBankName());
         loan.setBankSerialNumber(request.getBankSerialNumber());
         loan.setLoanNumber(generateBankLoanNumber());
         loan.setPrincipalAmount(request.getPrincipalAmount());
         loan.setInterestRate(request.getInterestRate());
         loan.setTenureMonths(request.getTenureMonths());
-        loan.setStartDate(LocalDateTime.now());
-        loan.setMaturityDate(LocalDateTime.now().plusMonths(request.getTenureMonths()));
+        loan.setStartDate(now);
+        loan.setMaturityDate(now.plusMonths(request.getTenureMonths()));
         loan.setStatus("ACTIVE");
         loan.setBankGoldImages(request.getBankGoldImages());
         loan.setIsBulkLoan(true);
-        loan.setCreatedAt(LocalDateTime.now());
-        loan.setUpdatedAt(LocalDateTime.now());
+        loan.setCreatedAt(now);
+        loan.setUpdatedAt(now);
 
-        double totalInterest = request.getPrincipalAmount() * (request.getInterestRate() / 100) * request.getTenureMonths();
-        loan.setTotalInterestPayable(totalInterest);
+        long principalPaisa = MoneyMath.toPaisa(request.getPrincipalAmount());
+        long totalInterestPaisa = MoneyMath.percentOf(principalPaisa, request.getInterestRate()) * request.getTenureMonths();
+        loan.setTotalInterestPayable(MoneyMath.toRupees(totalInterestPaisa));
         loan.setInterestPaidSoFar(0.0);
         loan.setAmountPaidSoFar(0.0);
         loan.setOutstandingAmount(request.getPrincipalAmount());
 
+        boolean claimed = false;
         if (request.getGoldItemIds() != null && !request.getGoldItemIds().isEmpty()) {
-            List<GoldItem> goldItems = goldItemRepository.findAllById(request.getGoldItemIds());
+            List<String> goldItemIds = request.getGoldItemIds().stream().distinct().collect(Collectors.toList());
+            List<GoldItem> goldItems = goldItemRepository.findAllById(goldItemIds);
+            if (goldItems.size() != goldItemIds.size()) {
+                throw new RuntimeException("One or more gold items were not found");
+            }
+
+            GoldItemEnricher.LoanReferences refs = goldItemEnricher.resolve(goldItems);
+            for (GoldItem item : goldItems) {
+                if (!isClaimable(item, request.getBankSerialNumber(), refs, now)) {
+                    throw new RuntimeException("Gold item " + item.getId() + " is not available for bank pledge");
+                }
+            }
 
             Set<String> customerLoanIds = new HashSet<>();
             Set<String> customerSerialNumbers = new HashSet<>();
-            List<Map<String, Object>> individualCalculations = new ArrayList<>();
+            List<GoldAllocation> individualCalculations = new ArrayList<>(goldItems.size());
 
-            double totalGoldValue = goldItems.stream()
-                    .mapToDouble(item -> item.getEstimatedValue() != null ? item.getEstimatedValue() : 0)
-                    .sum();
+            long[] itemValues = new long[goldItems.size()];
+            long totalGoldValue = 0;
+            for (int i = 0; i < itemValues.length; i++) {
+                itemValues[i] = MoneyMath.toPaisa(goldItems.get(i).getEstimatedValue());
+                totalGoldValue += itemValues[i];
+            }
+            long[] allocatedPrincipal = new long[itemValues.length];
+            MoneyMath.allocate(principalPaisa, itemValues, allocatedPrincipal);
 
-            for (GoldItem item : goldItems) {
-                if (!"PLEDGED".equals(item.getStatus())) {
-                    throw new RuntimeException("Gold item " + item.getId() + " is not available for bank pledge");
-                }
+            for (int i = 0; i < goldItems.size(); i++) {
+                GoldItem item = goldItems.get(i);
+                String customerSerialNumber = refs.customerLoan(item.getCustomerLoanId())
+                        .map(CustomerLoan::getCustomerSerialNumber)
+                        .orElse(null);
 
                 if (item.getCustomerLoanId() != null) {
                     customerLoanIds.add(item.getCustomerLoanId());
-
-                    customerLoanRepository.findById(item.getCustomerLoanId())
-                            .ifPresent(customerLoan -> {
-                                customerSerialNumbers.add(customerLoan.getCustomerSerialNumber());
-                            });
+                    if (refs.customerLoan(item.getCustomerLoanId()).isPresent()) {
+                        customerSerialNumbers.add(customerSerialNumber);
+                    }
                 }
 
-                Map<String, Object> individualCalc = new HashMap<>();
-                individualCalc.put("goldItemId", item.getId());
-                individualCalc.put("itemType", item.getItemType());
-                individualCalc.put("weightInGrams", item.getWeightInGrams());
-                individualCalc.put("purity", item.getPurity());
-                individualCalc.put("estimatedValue", item.getEstimatedValue());
-
-                double proportion = totalGoldValue > 0 ?
-                        (item.getEstimatedValue() / totalGoldValue) : 0;
-
-                double individualPrincipal = request.getPrincipalAmount() * proportion;
-                double individualInterest = individualPrincipal * (request.getInterestRate() / 100) * request.getTenureMonths();
-
-                individualCalc.put("proportion", proportion);
-                individualCalc.put("allocatedPrincipal", individualPrincipal);
-                individualCalc.put("allocatedInterest", individualInterest);
-                individualCalc.put("customerLoanId", item.getCustomerLoanId());
-                individualCalc.put("customerSerialNumber", getCustomerSerialNumber(item.getCustomerLoanId()));
-
-                individualCalculations.add(individualCalc);
+                long individualInterest = MoneyMath.percentOf(allocatedPrincipal[i], request.getInterestRate())
+                        * request.getTenureMonths();
+
+                GoldAllocation allocation = new GoldAllocation();
+                allocation.setGoldItemId(item.getId());
+                allocation.setItemType(item.getItemType());
+                allocation.setWeightInGrams(item.getWeightInGrams() != null ? item.getWeightInGrams() : 0.0);
+                allocation.setPurity(item.getPurity());
+                allocation.setEstimatedValue(MoneyMath.toRupees(itemValues[i]));
+                allocation.setProportion(totalGoldValue > 0 ? (double) itemValues[i] / totalGoldValue : 0);
+                allocation.setAllocatedPrincipal(MoneyMath.toRupees(allocatedPrincipal[i]));
+                allocation.setAllocatedInterest(MoneyMath.toRupees(individualInterest));
+                allocation.setRemainingPrincipal(MoneyMath.toRupees(allocatedPrincipal[i]));
+                allocation.setCustomerLoanId(item.getCustomerLoanId());
+                allocation.setCustomerSerialNumber(customerSerialNumber);
+
+                individualCalculations.add(allocation);
             }
 
-            List<Map<String, Object>> goldItemsDetails = goldItems.stream()
-                    .map(item -> {
-                        Map<String, Object> details = new HashMap<>();
-                        details.put("id", item.getId());
-                        details.put("itemType", item.getItemType());
-                        details.put("weightInGrams", item.getWeightInGrams());
-                        details.put("purity", item.getPurity());
-                        details.put("estimatedValue", item.getEstimatedValue());
-                        details.put("serialNumber", item.getSerialNumber());
-                        details.put("customerId", item.getCustomerId());
-                        details.put("customerLoanId", item.getCustomerLoanId());
-                        details.put("imageUrl", item.getImageUrl());
-                        details.put("billAttachments", item.getBillAttachments());
-                        return details;
-                    })
+            List<PledgedGoldItem> goldItemsDetails = goldItems.stream()
+                    .map(PledgedGoldItem::from)
                     .collect(Collectors.toList());
 
-            loan.setPledgedGoldItemIds(request.getGoldItemIds());
+            loan.setPledgedGoldItemIds(goldItemIds);
             loan.setGoldItemsDetails(goldItemsDetails);
             loan.setCustomerLoanIds(new ArrayList<>(customerLoanIds));
             loan.setCustomerSerialNumbers(new ArrayList<>(customerSerialNumbers));
             loan.setIndividualGoldCalculations(individualCalculations);
 
-            for (GoldItem item : goldItems) {
-                item.setStatus("PLEDGED_TO_BANK");
-                item.setBankLoanId(loan.getId());
-                item.setUpdatedAt(LocalDateTime.now());
-                goldItemRepository.save(item);
+            long matched = goldItemRepository.claimForBankLoan(goldItems, loan.getId(), request.getBankSerialNumber(), now);
+            claimed = true;
+            if (matched < goldItems.size()) {
+                goldItemRepository.releaseBankClaim(loan.getId(), now);
+                throw new RuntimeException("One or more gold items were pledged concurrently; please retry");
+            }
+        }
+
+        BankLoan savedLoan;
+        dashboardCounterService.beginWrite();
+        try {
+            savedLoan = bankLoanRepository.insert(loan);
+        } catch (DuplicateKeyException e) {
+            dashboardCounterService.abortWrite();
+            BankLoan winner = bankLoanRepository.findByBankSerialNumber(request.getBankSerialNumber())
+                    .orElseThrow(() -> e);
+            goldItemRepository.reassignBankClaim(loan.getId(), winner, now);
+            goldItemRepository.releaseBankClaim(loan.getId(), now);
+            return samePledgeOrThrow(winner, request);
+        } catch (RuntimeException e) {
+            dashboardCounterService.abortWrite();
+            if (claimed) {
+                goldItemRepository.releaseBankClaim(loan.getId(), now);
             }
+            throw e;
+        }
+        dashboardCounterService.recordBankLoanCreated(savedLoan);
+        loanToValueMonitor.bankLoanChanged(savedLoan);
+        return savedLoan;
+    }
+
+    // A claim left behind by an attempt that never inserted its bank loan can be taken over by a retry
+    // of the same serial immediately, or by anyone once it has gone stale. Items without a bankLoanId were
+    // pledged before claims were recorded and are never treated as orphaned.
+    private boolean isClaimable(GoldItem item, String bankSerialNumber, GoldItemEnricher.LoanReferences refs,
+                                LocalDateTime now) {
+        if ("PLEDGED".equals(item.getStatus())) {
+            return item.getBankLoanId() == null;
+        }
+        if (!"PLEDGED_TO_BANK".equals(item.getStatus()) || item.getBankLoanId() == null
+                || refs.bankLoan(item.getBankLoanId()).isPresent()) {
+            return false;
         }
+        if (bankSerialNumber.equals(item.getBankSerialNumber())) {
+            return true;
+        }
+        return bankClaimBackfill.isCompleted()
+                && item.getUpdatedAt() != null && item.getUpdatedAt().isBefore(now.minus(ORPHANED_CLAIM_AGE));
+    }
 
-        return bankLoanRepository.save(loan);
+    private BankLoan samePledgeOrThrow(BankLoan existing, BankLoanRequest request) {
+        Set<String> existingItems = existing.getPledgedGoldItemIds() != null
+                ? new HashSet<>(existing.getPledgedGoldItemIds()) : Set.of();
+        Set<String> requestedItems = request.getGoldItemIds() != null
+                ? new HashSet<>(request.getGoldItemIds()) : Set.of();
+        if (existingItems.equals(requestedItems)
+                && Objects.equals(existing.getPrincipalAmount(), request.getPrincipalAmount())) {
+            return existing;
+        }
+        throw new RuntimeException("Bank serial number already exists: " + request.getBankSerialNumber());
     }
 
     @Transactional
@@ -147,45 +216,68 @@ public class BankLoanService {
             throw new RuntimeException("Loan is not active");
         }
 
-        loan.setAmountPaidSoFar(loan.getAmountPaidSoFar() + amount);
-        loan.setOutstandingAmount(loan.getPrincipalAmount() - loan.getAmountPaidSoFar());
+        long amountPaisa = MoneyMath.toPaisa(amount);
+        long paidPaisa = MoneyMath.toPaisa(loan.getAmountPaidSoFar()) + amountPaisa;
+        long principalPaisa = MoneyMath.toPaisa(loan.getPrincipalAmount());
+        long outstandingPaisa = principalPaisa - paidPaisa;
+        loan.setAmountPaidSoFar(MoneyMath.toRupees(paidPaisa));
+        loan.setOutstandingAmount(MoneyMath.toRupees(outstandingPaisa));
         loan.setUpdatedAt(LocalDateTime.now());
 
-        double interestPaid = amount * (loan.getInterestRate() / 100);
-        loan.setInterestPaidSoFar(loan.getInterestPaidSoFar() + interestPaid);
+        long interestPaidPaisa = MoneyMath.percentOf(amountPaisa, loan.getInterestRate());
+        loan.setInterestPaidSoFar(MoneyMath.toRupees(MoneyMath.toPaisa(loan.getInterestPaidSoFar()) + interestPaidPaisa));
         loan.setLastPaymentDate(LocalDateTime.now());
 
-        if (loan.getIndividualGoldCalculations() != null) {
-            double paymentProportion = amount / loan.getPrincipalAmount();
-            for (Map<String, Object> goldCalc : loan.getIndividualGoldCalculations()) {
-                double allocatedPrincipal = (double) goldCalc.get("allocatedPrincipal");
-                double paidPrincipal = allocatedPrincipal * paymentProportion;
-                goldCalc.put("paidPrincipal", paidPrincipal);
-                goldCalc.put("remainingPrincipal", allocatedPrincipal - paidPrincipal);
+        List<GoldAllocation> allocations = loan.getIndividualGoldCalculations();
+        if (allocations != null && !allocations.isEmpty()) {
+            long[] allocated = new long[allocations.size()];
+            for (int i = 0; i < allocated.length; i++) {
+                allocated[i] = MoneyMath.toPaisa(allocations.get(i).getAllocatedPrincipal());
+            }
+            // Split the running total rather than each payment so per-item amounts always sum to amountPaidSoFar
+            long[] paid = new long[allocated.length];
+            MoneyMath.allocate(paidPaisa, allocated, paid);
+            for (int i = 0; i < allocated.length; i++) {
+                GoldAllocation allocation = allocations.get(i);
+                allocation.setPaidPrincipal(MoneyMath.toRupees(paid[i]));
+                allocation.setRemainingPrincipal(MoneyMath.toRupees(allocated[i] - paid[i]));
             }
         }
 
-        if (loan.getOutstandingAmount() <= 0) {
+        boolean closed = outstandingPaisa <= 0;
+        BankLoan savedLoan;
+        if (closed) {
             loan.setStatus("CLOSED");
-            if (loan.getPledgedGoldItemIds() != null) {
-                for (String itemId : loan.getPledgedGoldItemIds()) {
-                    goldItemRepository.findById(itemId).ifPresent(item -> {
-                        item.setStatus("PLEDGED");
-                        item.setBankLoanId(null);
-                        item.setUpdatedAt(LocalDateTime.now());
-                        goldItemRepository.save(item);
-                    });
-                }
+            dashboardCounterService.beginWrite();
+            try {
+                goldItemRepository.releaseFromBankLoan(loan.getPledgedGoldItemIds(), LocalDateTime.now());
+                savedLoan = bankLoanRepository.save(loan);
+            } catch (RuntimeException e) {
+                dashboardCounterService.abortWrite();
+                throw e;
             }
+        } else {
+            savedLoan = bankLoanRepository.save(loan);
         }
-
-        return bankLoanRepository.save(loan);
+        if (closed) {
+            dashboardCounterService.recordBankLoanClosed(savedLoan);
+        }
+        loanToValueMonitor.bankLoanChanged(savedLoan);
+        return savedLoan;
     }
 
     public List<BankLoan> getAllActiveBankLoans() {
         return bankLoanRepository.findByStatus("ACTIVE");
     }
 
+    public CursorPage<BankLoan> getActiveBankLoansPage(String cursor, Integer limit) {
+        return keysetPageService.page(where("status").is("ACTIVE"), cursor, limit, BankLoan.class, BankLoan::getId);
+    }
+
+    public Stream<BankLoan> streamActiveBankLoans() {
+        return keysetPageService.stream(where("status").is("ACTIVE"), BankLoan.class);
+    }
+
     public BankLoan getBankLoanById(String id) {
         return bankLoanRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Bank loan not found"));
@@ -222,36 +314,24 @@ public class BankLoanService {
     public List<Map<String, Object>> getAvailableGoldItemsForBank() {
         List<GoldItem> availableItems = goldItemRepository.findByStatus("PLEDGED");
 
-        return availableItems.stream()
-                .map(item -> {
-                    Map<String, Object> itemMap = new HashMap<>();
-                    itemMap.put("id", item.getId());
-                    itemMap.put("itemType", item.getItemType());
-                    itemMap.put("weightInGrams", item.getWeightInGrams());
-                    itemMap.put("purity", item.getPurity());
-                    itemMap.put("estimatedValue", item.getEstimatedValue());
-                    itemMap.put("serialNumber", item.getSerialNumber());
-                    itemMap.put("customerId", item.getCustomerId());
-                    itemMap.put("customerLoanId", item.getCustomerLoanId());
-
-                    if (item.getCustomerLoanId() != null) {
-                        customerLoanRepository.findById(item.getCustomerLoanId())
-                                .ifPresent(loan -> {
-                                    itemMap.put("customerSerialNumber", loan.getCustomerSerialNumber());
-                                    itemMap.put("customerLoanNumber", loan.getLoanNumber());
-                                });
-                    }
-
-                    return itemMap;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private String getCustomerSerialNumber(String customerLoanId) {
-        if (customerLoanId == null) return null;
-        return customerLoanRepository.findById(customerLoanId)
-                .map(CustomerLoan::getCustomerSerialNumber)
-                .orElse(null);
+        return goldItemEnricher.enrich(availableItems, (item, refs) -> {
+            Map<String, Object> itemMap = new HashMap<>();
+            itemMap.put("id", item.getId());
+            itemMap.put("itemType", item.getItemType());
+            itemMap.put("weightInGrams", item.getWeightInGrams());
+            itemMap.put("purity", item.getPurity());
+            itemMap.put("estimatedValue", item.getEstimatedValue());
+            itemMap.put("serialNumber", item.getSerialNumber());
+            itemMap.put("customerId", item.getCustomerId());
+            itemMap.put("customerLoanId", item.getCustomerLoanId());
+
+            refs.customerLoan(item.getCustomerLoanId()).ifPresent(loan -> {
+                itemMap.put("customerSerialNumber", loan.getCustomerSerialNumber());
+                itemMap.put("customerLoanNumber", loan.getLoanNumber());
+            });
+
+            return itemMap;
+        });
     }
 
     private String generateBankLoanNumber() {
@@ -259,25 +339,20 @@ public class BankLoanService {
                 "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 
+    public BankExposureSummary getExposureSummary() {
+        return bankExposureService.getSummary();
+    }
+
     public Double getTotalPayableInterest() {
-        List<BankLoan> activeLoans = bankLoanRepository.findByStatus("ACTIVE");
-        return activeLoans.stream()
-                .mapToDouble(BankLoan::getTotalInterestPayable)
-                .sum();
+        return bankExposureService.getSummary().getTotalInterestPayable();
     }
 
     public Double getTotalBankLoans() {
-        List<BankLoan> activeLoans = bankLoanRepository.findByStatus("ACTIVE");
-        return activeLoans.stream()
-                .mapToDouble(BankLoan::getPrincipalAmount)
-                .sum();
+        return bankExposureService.getSummary().getTotalPrincipal();
     }
 
     public Double getTotalOutstandingAmount() {
-        List<BankLoan> activeLoans = bankLoanRepository.findByStatus("ACTIVE");
-        return activeLoans.stream()
-                .mapToDouble(BankLoan::getOutstandingAmount)
-                .sum();
+        return bankExposureService.getSummary().getTotalOutstanding();
     }
 
     public List<BankLoan> searchLoans(String searchTerm) {
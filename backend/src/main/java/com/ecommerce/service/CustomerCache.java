@@ -0,0 +1,160 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CustomerSummary;
+import com.ecommerce.model.Customer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+public class CustomerCache {
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    // One token per key being loaded; invalidate() drops it so a load that raced the change is not cached
+    private final Map<String, Object> loading = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CustomerCache(MongoTemplate mongoTemplate,
+                         @Value("${customer.cache.max-size:10000}") int maxSize,
+                         @Value("${customer.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CustomerCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<CustomerSummary> get(String customerId) {
+        if (customerId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(getAll(Set.of(customerId)).get(customerId));
+    }
+
+    public Map<String, CustomerSummary> getAll(Collection<String> customerIds) {
+        Map<String, CustomerSummary> result = new HashMap<>();
+        Map<String, Object> missing = new HashMap<>();
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            for (String id : customerIds) {
+                if (id == null) continue;
+                Entry entry = entries.get(id);
+                if (entry != null && entry.expiresAt > now) {
+                    result.put(id, entry.summary);
+                    hits.incrementAndGet();
+                } else {
+                    if (entry != null) {
+                        entries.remove(id);
+                        evictions.incrementAndGet();
+                    }
+                    Object token = new Object();
+                    loading.put(id, token);
+                    missing.put(id, token);
+                    misses.incrementAndGet();
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, CustomerSummary> loaded = load(missing.keySet());
+            long expiresAt = System.currentTimeMillis() + ttlMillis;
+            synchronized (entries) {
+                missing.forEach((id, token) -> {
+                    if (!loading.remove(id, token)) {
+                        return;
+                    }
+                    CustomerSummary summary = loaded.get(id);
+                    if (summary != null) {
+                        entries.put(id, new Entry(summary, expiresAt));
+                    }
+                });
+            }
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    public void invalidate(String customerId) {
+        if (customerId == null) return;
+        synchronized (entries) {
+            entries.remove(customerId);
+            loading.remove(customerId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            loading.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("loadQueries", loads.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private Map<String, CustomerSummary> load(Set<String> customerIds) {
+        loads.incrementAndGet();
+        Query query = new Query(where("_id").in(customerIds));
+        query.fields().include("fullName", "phoneNumber");
+
+        Map<String, CustomerSummary> loaded = new HashMap<>();
+        for (Customer customer : mongoTemplate.find(query, Customer.class)) {
+            loaded.put(customer.getId(),
+                    new CustomerSummary(customer.getId(), customer.getFullName(), customer.getPhoneNumber()));
+        }
+        return loaded;
+    }
+
+    private static class Entry {
+        private final CustomerSummary summary;
+        private final long expiresAt;
+
+        Entry(CustomerSummary summary, long expiresAt) {
+            this.summary = summary;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
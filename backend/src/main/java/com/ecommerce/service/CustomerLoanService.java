@@ -1,14 +1,14 @@
 package com.ecommerce.service;
 
+import com.ecommerce.constants.PermissionConstants;
+import com.ecommerce.dto.CursorPage;
 import com.ecommerce.dto.CustomerLoanRequest;
-import com.ecommerce.model.Customer;
+import com.ecommerce.dto.CustomerSummary;
 import com.ecommerce.model.CustomerLoan;
 import com.ecommerce.model.GoldItem;
-import com.ecommerce.model.User;
 import com.ecommerce.repository.CustomerLoanRepository;
-import com.ecommerce.repository.CustomerRepository;
 import com.ecommerce.repository.GoldItemRepository;
-import com.ecommerce.repository.UserRepository;
+import com.ecommerce.utils.MoneyMath;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,10 +17,14 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @Slf4j
 @Service
@@ -28,56 +32,26 @@ import java.util.UUID;
 public class CustomerLoanService {
     private final CustomerLoanRepository customerLoanRepository;
     private final GoldItemRepository goldItemRepository;
-    private final CustomerRepository customerRepository;
-    private final SmsService smsService;
-    private final NotificationService notificationService;
-    private final UserRepository userRepository;
+    private final CustomerCache customerCache;
+    private final NotificationDispatcher notificationDispatcher;
+    private final DashboardCounterService dashboardCounterService;
+    private final LoanRollupService loanRollupService;
+    private final KeysetPageService keysetPageService;
+    private final InterestCalculationService interestCalculationService;
+    private final LoanToValueMonitor loanToValueMonitor;
 
     private String getCustomerName(String customerId) {
-        return customerRepository.findById(customerId)
-                .map(Customer::getFullName)
+        return customerCache.get(customerId)
+                .map(CustomerSummary::getFullName)
                 .orElse(customerId);
     }
 
     private void notifyAllAdmins(String title, String message, String type, String referenceId) {
-        List<User> admins = userRepository.findByRole("ADMIN");
-        for (User admin : admins) {
-            notificationService.createNotification(
-                    admin.getId(),
-                    title,
-                    message,
-                    type,
-                    referenceId
-            );
-        }
+        notifyAllAdmins(title, message, type, referenceId, null);
     }
 
     private void notifyAllAdmins(String title, String message, String type, String referenceId, Map<String, Object> data) {
-        List<User> admins = userRepository.findByRole("ADMIN");
-        for (User admin : admins) {
-            notificationService.createNotification(
-                    admin.getId(),
-                    title,
-                    message,
-                    type,
-                    referenceId,
-                    data
-            );
-        }
-    }
-
-    private double calculateCompoundInterest(double principal, double annualRate, int tenureMonths) {
-        double monthlyRate = annualRate / 12 / 100;
-        double monthlyPrincipal = principal / tenureMonths;
-        double totalInterest = 0.0;
-        double remainingPrincipal = principal;
-
-        for (int month = 1; month <= tenureMonths; month++) {
-            double interestForMonth = remainingPrincipal * monthlyRate;
-            totalInterest += interestForMonth;
-            remainingPrincipal -= monthlyPrincipal;
-        }
-        return totalInterest;
+        notificationDispatcher.notifyRole(PermissionConstants.ROLE_ADMIN, title, message, type, referenceId, data);
     }
 
     @Transactional
@@ -105,7 +79,7 @@ public class CustomerLoanService {
         loan.setStatus("ACTIVE");
         loan.setGoldItemIds(request.getGoldItemIds());
 
-        double totalInterest = calculateCompoundInterest(
+        double totalInterest = interestCalculationService.calculateReducingBalanceInterest(
                 request.getPrincipalAmount(),
                 request.getInterestRate(),
                 request.getTenureMonths()
@@ -119,12 +93,23 @@ public class CustomerLoanService {
         loan.setSmsNotifications(true);
         loan.setInterestType("COMPOUND");
 
-        for (GoldItem item : goldItems) {
-            item.setStatus("PLEDGED");
-            goldItemRepository.save(item);
+        CustomerLoan savedLoan;
+        loanRollupService.beginWrite();
+        try {
+            dashboardCounterService.beginWrite();
+            try {
+                goldItemRepository.markPledged(request.getGoldItemIds(), now);
+                savedLoan = customerLoanRepository.save(loan);
+            } catch (RuntimeException e) {
+                dashboardCounterService.abortWrite();
+                throw e;
+            }
+            dashboardCounterService.recordCustomerLoanActivated(savedLoan, goldItems, false);
+            loanRollupService.recordLoanActivated(savedLoan, now);
+        } finally {
+            loanRollupService.endWrite();
         }
-
-        CustomerLoan savedLoan = customerLoanRepository.save(loan);
+        loanToValueMonitor.customerLoanChanged(savedLoan);
         String customerName = getCustomerName(request.getCustomerId());
 
         Map<String, Object> data = new HashMap<>();
@@ -144,7 +129,7 @@ public class CustomerLoanService {
 
     @Transactional
     public CustomerLoan createLoanFromCustomerRequest(String customerId, com.ecommerce.dto.CustomerLoanRequestDTO request) {
-        List<String> goldItemIds = new java.util.ArrayList<>();
+        List<GoldItem> newItems = new ArrayList<>();
 
         if (request.getGoldItems() != null) {
             for (com.ecommerce.dto.GoldItemDTO itemDTO : request.getGoldItems()) {
@@ -162,11 +147,15 @@ public class CustomerLoanService {
                 item.setCreatedAt(LocalDateTime.now());
                 item.setUpdatedAt(LocalDateTime.now());
 
-                GoldItem savedItem = goldItemRepository.save(item);
-                goldItemIds.add(savedItem.getId());
+                newItems.add(item);
             }
         }
 
+        List<String> goldItemIds = new ArrayList<>();
+        for (GoldItem savedItem : goldItemRepository.saveAll(newItems)) {
+            goldItemIds.add(savedItem.getId());
+        }
+
         CustomerLoan loan = new CustomerLoan();
         loan.setCustomerId(customerId);
         loan.setLoanNumber(generateLoanNumber());
@@ -186,22 +175,32 @@ public class CustomerLoanService {
         loan.setSmsNotifications(true);
         loan.setCreatedAt(LocalDateTime.now());
         loan.setUpdatedAt(LocalDateTime.now());
-
-        CustomerLoan savedLoan = customerLoanRepository.save(loan);
-
-        for (String itemId : goldItemIds) {
-            goldItemRepository.findById(itemId).ifPresent(item -> {
-                item.setCustomerLoanId(savedLoan.getId());
-                goldItemRepository.save(item);
-            });
+        loan.setRequestedAt(loan.getCreatedAt());
+
+        CustomerLoan savedLoan;
+        loanRollupService.beginWrite();
+        try {
+            dashboardCounterService.beginWrite();
+            try {
+                savedLoan = customerLoanRepository.save(loan);
+            } catch (RuntimeException e) {
+                dashboardCounterService.abortWrite();
+                throw e;
+            }
+            dashboardCounterService.recordLoanRequested();
+            loanRollupService.recordLoanRequested(savedLoan.getRequestedAt());
+        } finally {
+            loanRollupService.endWrite();
         }
 
+        goldItemRepository.assignCustomerLoan(goldItemIds, savedLoan.getId(), LocalDateTime.now());
+
         String customerName = getCustomerName(customerId);
 
         Map<String, Object> customerData = new HashMap<>();
         customerData.put("loanNumber", savedLoan.getLoanNumber());
 
-        notificationService.createNotification(
+        notificationDispatcher.notifyUser(
                 customerId,
                 "Loan Request Submitted",
                 "Your loan request " + savedLoan.getLoanNumber() + " has been submitted securely. Pending administrator review.",
@@ -245,7 +244,7 @@ public class CustomerLoanService {
         loan.setStartDate(now);
         loan.setMaturityDate(now.plusMonths(loan.getTenureMonths()));
 
-        double totalInterest = calculateCompoundInterest(
+        double totalInterest = interestCalculationService.calculateReducingBalanceInterest(
                 loan.getPrincipalAmount(),
                 loan.getInterestRate(),
                 loan.getTenureMonths()
@@ -254,25 +253,30 @@ public class CustomerLoanService {
         loan.setInterestType("COMPOUND");
         loan.setLastPaymentDate(now);
 
-        if (loan.getGoldItemIds() != null) {
-            for (String itemId : loan.getGoldItemIds()) {
-                goldItemRepository.findById(itemId).ifPresent(item -> {
-                    if ("PENDING".equals(item.getStatus())) {
-                        item.setStatus("PLEDGED");
-                        item.setUpdatedAt(now);
-                        goldItemRepository.save(item);
-                    }
-                });
+        List<GoldItem> pledgedItems;
+        CustomerLoan updatedLoan;
+        loanRollupService.beginWrite();
+        try {
+            dashboardCounterService.beginWrite();
+            try {
+                pledgedItems = goldItemRepository.pledgePendingItems(loan.getGoldItemIds(), now);
+                updatedLoan = customerLoanRepository.save(loan);
+            } catch (RuntimeException e) {
+                dashboardCounterService.abortWrite();
+                throw e;
             }
+            dashboardCounterService.recordCustomerLoanActivated(updatedLoan, pledgedItems, true);
+            loanRollupService.recordLoanActivated(updatedLoan, now);
+        } finally {
+            loanRollupService.endWrite();
         }
-
-        CustomerLoan updatedLoan = customerLoanRepository.save(loan);
+        loanToValueMonitor.customerLoanChanged(updatedLoan);
         String customerName = getCustomerName(updatedLoan.getCustomerId());
 
         Map<String, Object> customerData = new HashMap<>();
         customerData.put("loanNumber", updatedLoan.getLoanNumber());
 
-        notificationService.createNotification(
+        notificationDispatcher.notifyUser(
                 updatedLoan.getCustomerId(),
                 "Loan Approved",
                 "Your loan request " + updatedLoan.getLoanNumber() + " has been approved and is now ACTIVE.",
@@ -305,7 +309,22 @@ public class CustomerLoanService {
 
         loan.setStatus("REJECTED");
         loan.setRejectionReason(reason);
-        CustomerLoan updatedLoan = customerLoanRepository.save(loan);
+        loan.setRejectedAt(LocalDateTime.now());
+        CustomerLoan updatedLoan;
+        loanRollupService.beginWrite();
+        try {
+            dashboardCounterService.beginWrite();
+            try {
+                updatedLoan = customerLoanRepository.save(loan);
+            } catch (RuntimeException e) {
+                dashboardCounterService.abortWrite();
+                throw e;
+            }
+            dashboardCounterService.recordLoanRejected();
+            loanRollupService.recordLoanRejected(updatedLoan.getRejectedAt());
+        } finally {
+            loanRollupService.endWrite();
+        }
 
         releaseGoldItems(updatedLoan.getGoldItemIds());
 
@@ -315,7 +334,7 @@ public class CustomerLoanService {
         customerData.put("loanNumber", updatedLoan.getLoanNumber());
         customerData.put("reason", reason);
 
-        notificationService.createNotification(
+        notificationDispatcher.notifyUser(
                 updatedLoan.getCustomerId(),
                 "Loan Rejected",
                 "Your loan request " + updatedLoan.getLoanNumber() + " was rejected. Reason: " + reason,
@@ -367,31 +386,51 @@ public class CustomerLoanService {
         if (daysBetween < 0) {
             throw new RuntimeException("Last payment date is in the future");
         }
-        double dailyRate = loan.getInterestRate() / 100 / 365.0;
-
-        double accruedInterest = loan.getOutstandingAmount() * dailyRate * daysBetween;
+        long amountPaisa = MoneyMath.toPaisa(amount);
+        long outstandingPaisa = MoneyMath.toPaisa(loan.getOutstandingAmount());
+        long accruedPaisa = MoneyMath.interest(outstandingPaisa, loan.getInterestRate(), daysBetween, 365);
 
-        if (amount < accruedInterest - 1e-9) {
+        if (amountPaisa < accruedPaisa) {
             throw new RuntimeException(String.format(
                     "Payment amount (%.2f) is less than accrued interest since last payment (%.2f). " +
-                            "Please pay at least the accrued interest.", amount, accruedInterest));
+                            "Please pay at least the accrued interest.", amount, MoneyMath.toRupees(accruedPaisa)));
         }
 
-        double interestPortion = accruedInterest;
-        double principalPortion = amount - accruedInterest;
+        long principalPaisa = amountPaisa - accruedPaisa;
+        outstandingPaisa -= principalPaisa;
+        double interestPortion = MoneyMath.toRupees(accruedPaisa);
+        double principalPortion = MoneyMath.toRupees(principalPaisa);
 
-        loan.setInterestPaidSoFar(loan.getInterestPaidSoFar() + interestPortion);
-        loan.setAmountPaidSoFar(loan.getAmountPaidSoFar() + amount);
-        loan.setOutstandingAmount(loan.getOutstandingAmount() - principalPortion);
+        loan.setInterestPaidSoFar(MoneyMath.toRupees(MoneyMath.toPaisa(loan.getInterestPaidSoFar()) + accruedPaisa));
+        loan.setAmountPaidSoFar(MoneyMath.toRupees(MoneyMath.toPaisa(loan.getAmountPaidSoFar()) + amountPaisa));
+        loan.setOutstandingAmount(MoneyMath.toRupees(Math.max(0L, outstandingPaisa)));
         loan.setLastPaymentDate(now);
 
-        if (loan.getOutstandingAmount() <= 1e-9) {
-            loan.setStatus("CLOSED");
-            loan.setOutstandingAmount(0.0);
-            releaseGoldItems(loan.getGoldItemIds());
+        List<GoldItem> releasedItems = null;
+        CustomerLoan updatedLoan;
+        loanRollupService.beginWrite();
+        try {
+            if (outstandingPaisa <= 0) {
+                loan.setStatus("CLOSED");
+                dashboardCounterService.beginWrite();
+                try {
+                    releasedItems = releaseGoldItems(loan.getGoldItemIds());
+                    updatedLoan = customerLoanRepository.save(loan);
+                } catch (RuntimeException e) {
+                    dashboardCounterService.abortWrite();
+                    throw e;
+                }
+            } else {
+                updatedLoan = customerLoanRepository.save(loan);
+            }
+            if (releasedItems != null) {
+                dashboardCounterService.recordCustomerLoanClosed(updatedLoan, releasedItems);
+            }
+            loanRollupService.recordRepayment(amount, interestPortion, releasedItems != null, now);
+        } finally {
+            loanRollupService.endWrite();
         }
-
-        CustomerLoan updatedLoan = customerLoanRepository.save(loan);
+        loanToValueMonitor.customerLoanChanged(updatedLoan);
 
         sendPaymentSms(updatedLoan, amount, interestPortion, principalPortion);
         return updatedLoan;
@@ -401,6 +440,14 @@ public class CustomerLoanService {
         return customerLoanRepository.findByStatus("ACTIVE");
     }
 
+    public CursorPage<CustomerLoan> getActiveLoansPage(String cursor, Integer limit) {
+        return keysetPageService.page(where("status").is("ACTIVE"), cursor, limit, CustomerLoan.class, CustomerLoan::getId);
+    }
+
+    public Stream<CustomerLoan> streamActiveLoans() {
+        return keysetPageService.stream(where("status").is("ACTIVE"), CustomerLoan.class);
+    }
+
     public List<CustomerLoan> getCustomerLoans(String customerId) {
         return customerLoanRepository.findByCustomerId(customerId);
     }
@@ -433,15 +480,8 @@ public class CustomerLoanService {
                 "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 
-    private void releaseGoldItems(List<String> goldItemIds) {
-        if (goldItemIds == null) return;
-        for (String itemId : goldItemIds) {
-            goldItemRepository.findById(itemId).ifPresent(item -> {
-                item.setStatus("AVAILABLE");
-                item.setCustomerLoanId(null);
-                goldItemRepository.save(item);
-            });
-        }
+    private List<GoldItem> releaseGoldItems(List<String> goldItemIds) {
+        return goldItemRepository.releaseFromCustomerLoan(goldItemIds, LocalDateTime.now());
     }
     public List<CustomerLoan> searchLoans(String searchTerm) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
@@ -462,7 +502,7 @@ public class CustomerLoanService {
                 loan.getPrincipalAmount(), loan.getLoanNumber(),
                 loan.getMaturityDate().toLocalDate().toString()
         );
-        smsService.sendSms(phoneNumber, message, "LOAN_CREATION", loan.getId());
+        notificationDispatcher.sendSms(phoneNumber, message, "LOAN_CREATION", loan.getId());
     }
 
     private void sendPaymentSms(CustomerLoan loan, Double amount, Double interestPortion, Double principalPortion) {
@@ -471,6 +511,6 @@ public class CustomerLoanService {
                 "Payment of NPR %.2f received for loan %s. Interest: %.2f, Principal: %.2f. Outstanding: NPR %.2f",
                 amount, loan.getLoanNumber(), interestPortion, principalPortion, loan.getOutstandingAmount()
         );
-        smsService.sendSms(phoneNumber, message, "PAYMENT_RECEIVED", loan.getId());
+        notificationDispatcher.sendSms(phoneNumber, message, "PAYMENT_RECEIVED", loan.getId());
     }
 }
\ No newline at end of file
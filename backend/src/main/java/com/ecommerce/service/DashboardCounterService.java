@@ -0,0 +1,197 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.DashboardTotals;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.DashboardCounters;
+import com.ecommerce.model.GoldItem;
+import com.ecommerce.repository.CustomerLoanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardCounterService {
+
+    private static final int RECONCILE_ATTEMPTS = 5;
+    private static final long RECONCILE_RETRY_MILLIS = 200;
+    private static final Duration ABANDONED_WRITE_AGE = Duration.ofMinutes(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final DashboardQueryService dashboardQueryService;
+    private final CustomerLoanRepository customerLoanRepository;
+
+    public DashboardCounters getCounters() {
+        DashboardCounters counters = mongoTemplate.findById(DashboardCounters.GLOBAL_ID, DashboardCounters.class);
+        if (counters == null || counters.getLastReconciledAt() == null) {
+            return reconcile();
+        }
+        return counters;
+    }
+
+    // Called before the source write that a record* call will later count. The pending write bumps the
+    // version and blocks reconcile until it is recorded or aborted, so a recount can never include the
+    // write and then have its increment added on top
+    public void beginWrite() {
+        apply(new Update().inc("pendingWrites", 1));
+    }
+
+    public void abortWrite() {
+        apply(new Update().inc("pendingWrites", -1));
+    }
+
+    public void recordLoanRequested() {
+        complete(new Update().inc("pendingApprovalLoans", 1));
+    }
+
+    public void recordLoanRejected() {
+        complete(new Update().inc("pendingApprovalLoans", -1));
+    }
+
+    public void recordCustomerLoanActivated(CustomerLoan loan, List<GoldItem> pledgedItems, boolean fromPendingApproval) {
+        Update update = new Update()
+                .inc("totalInvestment", value(loan.getPrincipalAmount()))
+                .inc("totalReceivableInterest", value(loan.getTotalInterestReceivable()))
+                .inc("activeCustomerLoans", 1)
+                .inc("totalGoldWeightPledged", totalWeight(pledgedItems))
+                .inc("pledgedGoldItems", pledgedItems.size());
+        if (fromPendingApproval) {
+            update.inc("pendingApprovalLoans", -1);
+        }
+        complete(update);
+    }
+
+    public void recordCustomerLoanClosed(CustomerLoan loan, List<GoldItem> releasedItems) {
+        complete(new Update()
+                .inc("totalInvestment", -value(loan.getPrincipalAmount()))
+                .inc("totalReceivableInterest", -value(loan.getTotalInterestReceivable()))
+                .inc("activeCustomerLoans", -1)
+                .inc("totalGoldWeightPledged", -totalWeight(releasedItems))
+                .inc("pledgedGoldItems", -releasedItems.size()));
+    }
+
+    public void recordBankLoanCreated(BankLoan loan) {
+        complete(new Update()
+                .inc("totalBankLoans", value(loan.getPrincipalAmount()))
+                .inc("totalPayableInterest", value(loan.getTotalInterestPayable()))
+                .inc("activeBankLoans", 1));
+    }
+
+    public void recordBankLoanClosed(BankLoan loan) {
+        complete(new Update()
+                .inc("totalBankLoans", -value(loan.getPrincipalAmount()))
+                .inc("totalPayableInterest", -value(loan.getTotalInterestPayable()))
+                .inc("activeBankLoans", -1));
+    }
+
+    // Every begin, record and abort bumps the version, so the recount is only written back if no write was
+    // pending when the counters were read and nothing landed before the $set; otherwise it is retried.
+    // A write left pending for longer than ABANDONED_WRITE_AGE without any counter activity is assumed lost.
+    @Scheduled(cron = "${dashboard.counters.reconcile-cron:0 15 2 * * *}")
+    public DashboardCounters reconcile() {
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            if (attempt > 1) {
+                try {
+                    Thread.sleep(RECONCILE_RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            DashboardCounters previous = mongoTemplate.findAndModify(
+                    new Query(where("_id").is(DashboardCounters.GLOBAL_ID)),
+                    new Update().setOnInsert("version", 0L),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    DashboardCounters.class);
+            if (hasPendingWrites(previous)) {
+                log.debug("Dashboard counter writes pending during reconcile attempt {}, waiting", attempt);
+                continue;
+            }
+
+            DashboardTotals totals = dashboardQueryService.getTotals();
+            Long pendingApprovalLoans = customerLoanRepository.countByStatus("PENDING_APPROVAL");
+            LocalDateTime now = LocalDateTime.now();
+
+            Update update = new Update()
+                    .set("totalInvestment", totals.getTotalInvestment())
+                    .set("totalReceivableInterest", totals.getTotalReceivableInterest())
+                    .set("activeCustomerLoans", totals.getActiveCustomerLoans())
+                    .set("pendingApprovalLoans", pendingApprovalLoans != null ? pendingApprovalLoans : 0L)
+                    .set("totalPayableInterest", totals.getTotalPayableInterest())
+                    .set("totalBankLoans", totals.getTotalBankLoans())
+                    .set("activeBankLoans", totals.getActiveBankLoans())
+                    .set("totalGoldWeightPledged", totals.getTotalGoldWeightPledged())
+                    .set("pledgedGoldItems", totals.getPledgedGoldItems())
+                    .set("pendingWrites", 0L)
+                    .set("lastReconciledAt", now)
+                    .set("updatedAt", now)
+                    .inc("version", 1);
+            if (mongoTemplate.updateFirst(versionGuard(previous.getVersion()), update, DashboardCounters.class).getMatchedCount() == 0) {
+                log.debug("Dashboard counters changed during reconcile attempt {}, recounting", attempt);
+                continue;
+            }
+
+            if (previous.getLastReconciledAt() != null) {
+                log.info("Dashboard counters reconciled, drift: investment {}, receivable interest {}, payable interest {}, bank loans {}",
+                        totals.getTotalInvestment() - value(previous.getTotalInvestment()),
+                        totals.getTotalReceivableInterest() - value(previous.getTotalReceivableInterest()),
+                        totals.getTotalPayableInterest() - value(previous.getTotalPayableInterest()),
+                        totals.getTotalBankLoans() - value(previous.getTotalBankLoans()));
+            }
+            return mongoTemplate.findById(DashboardCounters.GLOBAL_ID, DashboardCounters.class);
+        }
+        log.warn("Dashboard counters kept changing during reconcile; leaving them for the next run");
+        return mongoTemplate.findById(DashboardCounters.GLOBAL_ID, DashboardCounters.class);
+    }
+
+    private static boolean hasPendingWrites(DashboardCounters counters) {
+        if (counters.getPendingWrites() == null || counters.getPendingWrites() <= 0) return false;
+        LocalDateTime lastWrite = counters.getUpdatedAt();
+        if (lastWrite != null && lastWrite.isBefore(LocalDateTime.now().minus(ABANDONED_WRITE_AGE))) {
+            log.warn("Dashboard counters report {} pending writes with no activity since {}; treating them as abandoned",
+                    counters.getPendingWrites(), lastWrite);
+            return false;
+        }
+        return true;
+    }
+
+    private static Query versionGuard(Long version) {
+        Criteria observed = version == null || version == 0
+                ? new Criteria().orOperator(where("version").is(0L), where("version").exists(false))
+                : where("version").is(version);
+        return new Query(new Criteria().andOperator(where("_id").is(DashboardCounters.GLOBAL_ID), observed));
+    }
+
+    private void complete(Update update) {
+        apply(update.inc("pendingWrites", -1));
+    }
+
+    private void apply(Update update) {
+        update.set("updatedAt", LocalDateTime.now()).inc("version", 1);
+        mongoTemplate.upsert(new Query(where("_id").is(DashboardCounters.GLOBAL_ID)), update, DashboardCounters.class);
+    }
+
+    private static double totalWeight(List<GoldItem> items) {
+        return items.stream()
+                .mapToDouble(item -> value(item.getWeightInGrams()))
+                .sum();
+    }
+
+    private static double value(Double amount) {
+        return amount != null ? amount : 0.0;
+    }
+}
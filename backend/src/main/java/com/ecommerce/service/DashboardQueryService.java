@@ -0,0 +1,98 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.DashboardTotals;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.addFields;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+@RequiredArgsConstructor
+public class DashboardQueryService {
+
+    private static final String SOURCE_CUSTOMER_LOANS = "CUSTOMER_LOANS";
+    private static final String SOURCE_BANK_LOANS = "BANK_LOANS";
+    private static final String SOURCE_GOLD_ITEMS = "GOLD_ITEMS";
+
+    private final MongoTemplate mongoTemplate;
+
+    public DashboardTotals getTotals() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(where("status").is("ACTIVE")),
+                group()
+                        .sum("principalAmount").as("principal")
+                        .sum("totalInterestReceivable").as("interest")
+                        .count().as("count"),
+                addFields().addFieldWithValue("source", SOURCE_CUSTOMER_LOANS).build(),
+                UnionWithOperation.unionWith("bank_loans").pipeline(bankLoanTotals()),
+                UnionWithOperation.unionWith("gold_items").pipeline(pledgedGoldTotals())
+        );
+
+        List<Document> rows = mongoTemplate.aggregate(aggregation, "customer_loans", Document.class)
+                .getMappedResults();
+
+        DashboardTotals.DashboardTotalsBuilder builder = DashboardTotals.builder();
+        for (Document row : rows) {
+            switch (row.getString("source")) {
+                case SOURCE_CUSTOMER_LOANS:
+                    builder.totalInvestment(number(row, "principal"))
+                            .totalReceivableInterest(number(row, "interest"))
+                            .activeCustomerLoans(count(row));
+                    break;
+                case SOURCE_BANK_LOANS:
+                    builder.totalBankLoans(number(row, "principal"))
+                            .totalPayableInterest(number(row, "interest"))
+                            .activeBankLoans(count(row));
+                    break;
+                case SOURCE_GOLD_ITEMS:
+                    builder.totalGoldWeightPledged(number(row, "weight"))
+                            .pledgedGoldItems(count(row));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return builder.build();
+    }
+
+    private List<AggregationOperation> bankLoanTotals() {
+        return List.of(
+                match(where("status").is("ACTIVE")),
+                group()
+                        .sum("principalAmount").as("principal")
+                        .sum("totalInterestPayable").as("interest")
+                        .count().as("count"),
+                addFields().addFieldWithValue("source", SOURCE_BANK_LOANS).build()
+        );
+    }
+
+    private List<AggregationOperation> pledgedGoldTotals() {
+        return List.of(
+                match(where("status").in("PLEDGED", "PLEDGED_TO_BANK")),
+                group()
+                        .sum("weightInGrams").as("weight")
+                        .count().as("count"),
+                addFields().addFieldWithValue("source", SOURCE_GOLD_ITEMS).build()
+        );
+    }
+
+    private static double number(Document row, String field) {
+        Object value = row.get(field);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static long count(Document row) {
+        Object value = row.get("count");
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -1,36 +1,41 @@
 package com.ecommerce.service;
 
 import com.ecommerce.dto.DashboardResponse;
+import com.ecommerce.model.DashboardCounters;
 import com.ecommerce.model.DashboardSummary;
+import com.ecommerce.model.LoanMonthlyRollup;
 import com.ecommerce.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class DashboardService {
-    private final CustomerLoanService customerLoanService;
-    private final BankLoanService bankLoanService;
+    private final DashboardCounterService dashboardCounterService;
     private final CustomerRepository customerRepository;
-    private final GoldItemRepository goldItemRepository;
-    private final DashboardSummaryRepository dashboardSummaryRepository;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final LoanRollupService loanRollupService;
+
+    private static final int TREND_MONTHS = 6;
+    private static final int DISTRIBUTION_MONTHS = 12;
 
     public DashboardResponse getDashboardMetrics() {
-        Double totalInvestment = customerLoanService.getTotalInvestment();
-        Double totalReceivableInterest = customerLoanService.getTotalReceivableInterest();
-        Double totalPayableInterest = bankLoanService.getTotalPayableInterest();
-        Double totalBankLoans = bankLoanService.getTotalBankLoans();
-        Long activeCustomerLoans = (long) customerLoanService.getAllActiveLoans().size();
-        Long activeBankLoans = (long) bankLoanService.getAllActiveBankLoans().size();
+        DashboardCounters counters = dashboardCounterService.getCounters();
+        Double totalInvestment = counters.getTotalInvestment();
+        Double totalReceivableInterest = counters.getTotalReceivableInterest();
+        Double totalPayableInterest = counters.getTotalPayableInterest();
+        Double totalBankLoans = counters.getTotalBankLoans();
+        Long activeCustomerLoans = counters.getActiveCustomerLoans();
+        Long activeBankLoans = counters.getActiveBankLoans();
         long totalCustomers = customerRepository.count();
 
-        Double totalGoldWeight = goldItemRepository.findAll().stream()
-                .filter(item -> "PLEDGED".equals(item.getStatus()) || "PLEDGED_TO_BANK".equals(item.getStatus()))
-                .mapToDouble(item -> item.getWeightInGrams())
-                .sum();
+        Double totalGoldWeight = counters.getTotalGoldWeightPledged();
         Double netProfit = totalReceivableInterest - totalPayableInterest;
 
         Map<String, Object> monthlyTrend = generateMonthlyTrend();
@@ -51,29 +56,33 @@ public class DashboardService {
                 .build();
     }
     public DashboardSummary saveDashboardSnapshot() {
-        DashboardResponse metrics = getDashboardMetrics();
-
-        DashboardSummary summary = new DashboardSummary();
-        summary.setSummaryDate(LocalDateTime.now());
-        summary.setTotalInvestment(metrics.getTotalInvestment());
-        summary.setTotalReceivableInterest(metrics.getTotalReceivableInterest());
-        summary.setTotalPayableInterest(metrics.getTotalPayableInterest());
-        summary.setTotalBankLoans(metrics.getTotalBankLoans());
-        summary.setLastUpdated(LocalDateTime.now());
-
-        return dashboardSummaryRepository.save(summary);
+        return dashboardSnapshotService.takeSnapshot();
     }
 
     private Map<String, Object> generateMonthlyTrend() {
+        List<LoanMonthlyRollup> months = loanRollupService.getRecentMonths(TREND_MONTHS);
+
         Map<String, Object> trend = new HashMap<>();
-        trend.put("labels", new String[]{"Jan","Feb","Mar", "Apr", "May", "Jun"});
-        trend.put("data", new Double[]{150000.0, 175000.0, 200000.0, 225000.0, 250000.0, 275000.0});
+        trend.put("labels", months.stream()
+                .map(month -> YearMonth.parse(month.getId()).getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH))
+                .toArray(String[]::new));
+        trend.put("data", months.stream().map(LoanMonthlyRollup::getDisbursedPrincipal).toArray(Double[]::new));
+        trend.put("repayments", months.stream().map(LoanMonthlyRollup::getRepayments).toArray(Double[]::new));
+        trend.put("interestCollected", months.stream().map(LoanMonthlyRollup::getInterestCollected).toArray(Double[]::new));
         return trend;
     }
     private Map<String, Object> generateStatusDistribution() {
+        List<LoanMonthlyRollup> months = loanRollupService.getRecentMonths(DISTRIBUTION_MONTHS);
+
         Map<String, Object> distribution = new HashMap<>();
-        distribution.put("labels", new String[]{"Active", "Closed", "Defaulted"});
-        distribution.put("data", new Integer[]{45, 30, 5});
+        distribution.put("labels", new String[]{"Activated", "Closed", "Rejected", "Requested"});
+        distribution.put("period", "Last " + DISTRIBUTION_MONTHS + " months");
+        distribution.put("data", new Long[]{
+                months.stream().mapToLong(LoanMonthlyRollup::getActivatedLoans).sum(),
+                months.stream().mapToLong(LoanMonthlyRollup::getClosedLoans).sum(),
+                months.stream().mapToLong(LoanMonthlyRollup::getRejectedLoans).sum(),
+                months.stream().mapToLong(LoanMonthlyRollup::getRequestedLoans).sum()
+        });
         return distribution;
     }
 }
@@ -0,0 +1,174 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.DashboardCounters;
+import com.ecommerce.model.DashboardSummary;
+import com.ecommerce.repository.DashboardSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardSnapshotService {
+
+    private static final DateTimeFormatter DAY_KEY = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter MONTH_KEY = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final int DOWNSAMPLE_BATCH_SIZE = 1000;
+
+    private final DashboardCounterService dashboardCounterService;
+    private final DashboardSummaryRepository dashboardSummaryRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${dashboard.snapshot.raw-retention-days:7}")
+    private int rawRetentionDays;
+
+    @Value("${dashboard.snapshot.daily-retention-days:365}")
+    private int dailyRetentionDays;
+
+    @Scheduled(cron = "${dashboard.snapshot.cron:0 0 * * * *}")
+    public void captureScheduledSnapshot() {
+        takeSnapshot();
+    }
+
+    public DashboardSummary takeSnapshot() {
+        DashboardCounters counters = dashboardCounterService.getCounters();
+        LocalDateTime now = LocalDateTime.now();
+
+        DashboardSummary summary = new DashboardSummary();
+        summary.setSummaryDate(now);
+        summary.setGranularity(DashboardSummary.GRANULARITY_RAW);
+        summary.setTotalInvestment(counters.getTotalInvestment());
+        summary.setTotalReceivableInterest(counters.getTotalReceivableInterest());
+        summary.setTotalPayableInterest(counters.getTotalPayableInterest());
+        summary.setTotalBankLoans(counters.getTotalBankLoans());
+        summary.setActiveCustomerLoans(Math.toIntExact(counters.getActiveCustomerLoans()));
+        summary.setActiveBankLoans(Math.toIntExact(counters.getActiveBankLoans()));
+        summary.setTotalGoldWeightPledged(counters.getTotalGoldWeightPledged());
+        summary.setLastUpdated(now);
+
+        return dashboardSummaryRepository.save(summary);
+    }
+
+    public List<DashboardSummary> getHistory(LocalDateTime from, LocalDateTime to, String resolution) {
+        String target = resolution != null ? resolution.toUpperCase() : autoResolution(from, to);
+
+        List<DashboardSummary> points = new ArrayList<>();
+        points.addAll(dashboardSummaryRepository.findByGranularityAndSummaryDateBetweenOrderBySummaryDateAsc(
+                DashboardSummary.GRANULARITY_MONTHLY, from, to));
+        points.addAll(dashboardSummaryRepository.findByGranularityAndSummaryDateBetweenOrderBySummaryDateAsc(
+                DashboardSummary.GRANULARITY_DAILY, max(from, dailyCutoff().minusMonths(1)), to));
+        points.addAll(dashboardSummaryRepository.findByGranularityAndSummaryDateBetweenOrderBySummaryDateAsc(
+                DashboardSummary.GRANULARITY_RAW, max(from, rawCutoff().minusDays(1)), to));
+
+        switch (target) {
+            case DashboardSummary.GRANULARITY_MONTHLY:
+                return lastPerBucket(points, point -> point.getSummaryDate().format(MONTH_KEY));
+            case DashboardSummary.GRANULARITY_DAILY:
+                return lastPerBucket(points, point -> point.getSummaryDate().format(DAY_KEY));
+            default:
+                return lastPerBucket(points, point -> point.getSummaryDate().toString());
+        }
+    }
+
+    @Scheduled(cron = "${dashboard.snapshot.downsample-cron:0 30 3 * * *}")
+    public void downsample() {
+        mongoTemplate.updateMulti(
+                new Query(where("granularity").exists(false)),
+                new Update().set("granularity", DashboardSummary.GRANULARITY_RAW),
+                DashboardSummary.class);
+
+        int days = rollUp(DashboardSummary.GRANULARITY_RAW, DashboardSummary.GRANULARITY_DAILY, rawCutoff(),
+                point -> point.getSummaryDate().toLocalDate().atStartOfDay(),
+                bucket -> "DAILY-" + bucket.format(DAY_KEY));
+        int months = rollUp(DashboardSummary.GRANULARITY_DAILY, DashboardSummary.GRANULARITY_MONTHLY, dailyCutoff(),
+                point -> YearMonth.from(point.getSummaryDate()).atDay(1).atStartOfDay(),
+                bucket -> "MONTHLY-" + bucket.format(MONTH_KEY));
+
+        log.info("Dashboard snapshots downsampled into {} daily and {} monthly points", days, months);
+    }
+
+    private int rollUp(String sourceGranularity, String targetGranularity, LocalDateTime cutoff,
+                       Function<DashboardSummary, LocalDateTime> bucketOf,
+                       Function<LocalDateTime, String> idOf) {
+        int written = 0;
+        while (true) {
+            Query query = new Query(where("granularity").is(sourceGranularity).and("summaryDate").lt(cutoff))
+                    .with(Sort.by(Sort.Direction.ASC, "summaryDate"))
+                    .limit(DOWNSAMPLE_BATCH_SIZE);
+            List<DashboardSummary> batch = mongoTemplate.find(query, DashboardSummary.class);
+            if (batch.isEmpty()) {
+                return written;
+            }
+
+            Map<LocalDateTime, DashboardSummary> closing = new LinkedHashMap<>();
+            for (DashboardSummary point : batch) {
+                closing.put(bucketOf.apply(point), point);
+            }
+
+            List<DashboardSummary> rolledUp = new ArrayList<>();
+            closing.forEach((bucket, point) -> {
+                point.setId(idOf.apply(bucket));
+                point.setGranularity(targetGranularity);
+                rolledUp.add(point);
+            });
+            dashboardSummaryRepository.saveAll(rolledUp);
+
+            LocalDateTime lastSeen = batch.get(batch.size() - 1).getSummaryDate();
+            mongoTemplate.remove(new Query(where("granularity").is(sourceGranularity)
+                    .and("summaryDate").lte(lastSeen)), DashboardSummary.class);
+            written += rolledUp.size();
+        }
+    }
+
+    private String autoResolution(LocalDateTime from, LocalDateTime to) {
+        Duration span = Duration.between(from, to);
+        if (span.compareTo(Duration.ofDays(2)) <= 0) {
+            return DashboardSummary.GRANULARITY_RAW;
+        }
+        if (span.compareTo(Duration.ofDays(90)) <= 0) {
+            return DashboardSummary.GRANULARITY_DAILY;
+        }
+        return DashboardSummary.GRANULARITY_MONTHLY;
+    }
+
+    private List<DashboardSummary> lastPerBucket(List<DashboardSummary> points, Function<DashboardSummary, String> bucketOf) {
+        points.sort((a, b) -> a.getSummaryDate().compareTo(b.getSummaryDate()));
+        Map<String, DashboardSummary> buckets = new LinkedHashMap<>();
+        for (DashboardSummary point : points) {
+            buckets.put(bucketOf.apply(point), point);
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    private LocalDateTime rawCutoff() {
+        return LocalDate.now().minusDays(rawRetentionDays).atStartOfDay();
+    }
+
+    private LocalDateTime dailyCutoff() {
+        return YearMonth.from(LocalDate.now().minusDays(dailyRetentionDays)).atDay(1).atStartOfDay();
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.GoldRateRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gold.rate.source", havingValue = "file")
+public class FileGoldRateSource implements GoldRateSource {
+
+    private final Path file;
+    private long lastModified = -1;
+
+    public FileGoldRateSource(@Value("${gold.rate.file:gold-rates.properties}") String file) {
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    // Expects lines such as "24K=13250.50"; the file is only re-read after it changes
+    @Override
+    public synchronized List<GoldRateRequest> fetch() {
+        try {
+            if (!Files.exists(file)) return List.of();
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified == lastModified) return List.of();
+
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            }
+            List<GoldRateRequest> rates = new ArrayList<>();
+            for (String purity : properties.stringPropertyNames()) {
+                rates.add(new GoldRateRequest(purity.trim(), Double.parseDouble(properties.getProperty(purity).trim())));
+            }
+            lastModified = modified;
+            return rates;
+        } catch (IOException | NumberFormatException e) {
+            log.error("Failed to read gold rates from {}: {}", file, e.getMessage());
+            return List.of();
+        }
+    }
+}
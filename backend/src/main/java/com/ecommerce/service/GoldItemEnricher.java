@@ -0,0 +1,119 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CustomerSummary;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.GoldItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+@RequiredArgsConstructor
+public class GoldItemEnricher {
+
+    private final MongoTemplate mongoTemplate;
+    private final CustomerCache customerCache;
+
+    public LoanReferences resolve(Collection<GoldItem> items) {
+        Set<String> customerIds = new HashSet<>();
+        Set<String> customerLoanIds = new HashSet<>();
+        Set<String> bankLoanIds = new HashSet<>();
+        for (GoldItem item : items) {
+            if (item.getCustomerId() != null) customerIds.add(item.getCustomerId());
+            if (item.getCustomerLoanId() != null) customerLoanIds.add(item.getCustomerLoanId());
+            if (item.getBankLoanId() != null) bankLoanIds.add(item.getBankLoanId());
+        }
+
+        return new LoanReferences(
+                customerCache.getAll(customerIds),
+                findByIds(customerLoanIds, CustomerLoan.class, CustomerLoan::getId, "loanNumber", "customerSerialNumber"),
+                findByIds(bankLoanIds, BankLoan.class, BankLoan::getId, "bankSerialNumber", "loanNumber")
+        );
+    }
+
+    public <R> List<R> enrich(List<GoldItem> items, BiFunction<GoldItem, LoanReferences, R> mapper) {
+        LoanReferences references = resolve(items);
+        return items.stream()
+                .map(item -> mapper.apply(item, references))
+                .collect(Collectors.toList());
+    }
+
+    public <R> Stream<R> enrichInBatches(Stream<GoldItem> items, int batchSize,
+                                         BiFunction<GoldItem, LoanReferences, R> mapper) {
+        Iterator<GoldItem> source = items.iterator();
+        Iterator<List<GoldItem>> batches = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public List<GoldItem> next() {
+                List<GoldItem> batch = new ArrayList<>(batchSize);
+                while (source.hasNext() && batch.size() < batchSize) {
+                    batch.add(source.next());
+                }
+                return batch;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+                .flatMap(batch -> enrich(batch, mapper).stream())
+                .onClose(items::close);
+    }
+
+    private <T> Map<String, T> findByIds(Set<String> ids, Class<T> type, Function<T, String> idOf, String... fields) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Query query = new Query(where("_id").in(ids));
+        query.fields().include(fields);
+        return mongoTemplate.find(query, type).stream()
+                .collect(Collectors.toMap(idOf, Function.identity(), (a, b) -> a));
+    }
+
+    public static class LoanReferences {
+        private final Map<String, CustomerSummary> customers;
+        private final Map<String, CustomerLoan> customerLoans;
+        private final Map<String, BankLoan> bankLoans;
+
+        LoanReferences(Map<String, CustomerSummary> customers, Map<String, CustomerLoan> customerLoans,
+                       Map<String, BankLoan> bankLoans) {
+            this.customers = customers;
+            this.customerLoans = customerLoans;
+            this.bankLoans = bankLoans;
+        }
+
+        public Optional<CustomerSummary> customer(String id) {
+            return id == null ? Optional.empty() : Optional.ofNullable(customers.get(id));
+        }
+
+        public Optional<CustomerLoan> customerLoan(String id) {
+            return id == null ? Optional.empty() : Optional.ofNullable(customerLoans.get(id));
+        }
+
+        public Optional<BankLoan> bankLoan(String id) {
+            return id == null ? Optional.empty() : Optional.ofNullable(bankLoans.get(id));
+        }
+    }
+}
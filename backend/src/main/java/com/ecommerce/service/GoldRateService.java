@@ -0,0 +1,151 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.GoldRateRequest;
+import com.ecommerce.dto.GoldRatesUpdatedEvent;
+import com.ecommerce.model.GoldRate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GoldRateService {
+
+    private static final String FINE_GOLD = "24K";
+    private static final Pattern KARAT = Pattern.compile("(?<![\\d.])(\\d{1,2}(?:\\.\\d+)?)\\s*(?:K|KT|CT|CARAT)");
+    private static final Pattern NUMBER = Pattern.compile("(\\d*\\.?\\d+)\\s*(%)?");
+
+    private final MongoTemplate mongoTemplate;
+    private final GoldRateSource goldRateSource;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, GoldRate> currentRates = new ConcurrentHashMap<>();
+    private final Map<String, Double> finenessCache = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLatestRates() {
+        Aggregation latest = Aggregation.newAggregation(
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "effectiveAt")),
+                Aggregation.group("purity").first("$$ROOT").as("rate"),
+                Aggregation.replaceRoot("rate"));
+        for (GoldRate rate : mongoTemplate.aggregate(latest, GoldRate.class, GoldRate.class)) {
+            currentRates.put(rate.getPurity(), rate);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gold.rate.poll-ms:60000}", initialDelayString = "${gold.rate.poll-ms:60000}")
+    public void pollSource() {
+        List<GoldRateRequest> rates = goldRateSource.fetch();
+        if (!rates.isEmpty()) {
+            ingest(rates, goldRateSource.getName());
+        }
+    }
+
+    public List<GoldRate> ingest(List<GoldRateRequest> requests, String source) {
+        LocalDateTime now = LocalDateTime.now();
+        List<GoldRate> changed = new ArrayList<>();
+        for (GoldRateRequest request : requests) {
+            String purity = normalizePurity(request.getPurity());
+            if (purity == null) {
+                throw new RuntimeException("Unrecognised purity: " + request.getPurity());
+            }
+            GoldRate current = currentRates.get(purity);
+            if (current != null && current.getPricePerGram() == request.getPricePerGram()) {
+                continue;
+            }
+            GoldRate rate = new GoldRate();
+            rate.setPurity(purity);
+            rate.setPricePerGram(request.getPricePerGram());
+            rate.setSource(source);
+            rate.setEffectiveAt(now);
+            changed.add(rate);
+        }
+        if (changed.isEmpty()) {
+            return changed;
+        }
+
+        mongoTemplate.insertAll(changed);
+        Set<String> purities = new HashSet<>();
+        for (GoldRate rate : changed) {
+            currentRates.put(rate.getPurity(), rate);
+            purities.add(rate.getPurity());
+        }
+        log.info("Gold rates updated from {}: {}", source, purities);
+        eventPublisher.publishEvent(new GoldRatesUpdatedEvent(purities));
+        return changed;
+    }
+
+    public Map<String, GoldRate> getCurrentRates() {
+        return new TreeMap<>(currentRates);
+    }
+
+    public List<GoldRate> getHistory(String purity, int limit) {
+        Query query = new Query(where("purity").is(normalizePurity(purity)))
+                .with(Sort.by(Sort.Direction.DESC, "effectiveAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, GoldRate.class);
+    }
+
+    // A quoted rate for the item's purity wins; otherwise the 24K rate is scaled by fineness
+    public double pricePerGram(String purity) {
+        String key = normalizePurity(purity);
+        if (key == null) return Double.NaN;
+        GoldRate quoted = currentRates.get(key);
+        if (quoted != null) return quoted.getPricePerGram();
+        GoldRate fine = currentRates.get(FINE_GOLD);
+        if (fine == null) return Double.NaN;
+        return fine.getPricePerGram() * fineness(purity);
+    }
+
+    public String normalizePurity(String purity) {
+        double fineness = fineness(purity);
+        if (Double.isNaN(fineness)) return null;
+        return Math.round(fineness * 24) + "K";
+    }
+
+    public double fineness(String purity) {
+        if (purity == null) return Double.NaN;
+        return finenessCache.computeIfAbsent(purity, GoldRateService::parseFineness);
+    }
+
+    // Bare numbers are read by range only where that is unambiguous: below 1 is a fraction (0.916), 8 to 24 is
+    // karat and 333 to 1000 is millesimal fineness (916). Anything else, e.g. "1" or "100", needs a K or % suffix.
+    static double parseFineness(String purity) {
+        String value = purity.trim().toUpperCase();
+        Matcher karat = KARAT.matcher(value);
+        if (karat.find()) {
+            double k = Double.parseDouble(karat.group(1));
+            return k > 0 && k <= 24 ? k / 24 : Double.NaN;
+        }
+        Matcher number = NUMBER.matcher(value);
+        if (!number.find()) return Double.NaN;
+        double n = Double.parseDouble(number.group(1));
+        if (number.group(2) != null) return n > 0 && n <= 100 ? n / 100 : Double.NaN;
+        if (n > 0 && n < 1) return n;
+        if (n >= 8 && n <= 24) return n / 24;
+        if (n >= 333 && n <= 1000) return n / 1000;
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.GoldRateRequest;
+
+import java.util.List;
+
+public interface GoldRateSource {
+
+    String getName();
+
+    List<GoldRateRequest> fetch();
+}
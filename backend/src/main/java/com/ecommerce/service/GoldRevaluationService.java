@@ -0,0 +1,199 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CollateralRevaluedEvent;
+import com.ecommerce.dto.GoldRatesUpdatedEvent;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.GoldItem;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+public class GoldRevaluationService {
+
+    private static final List<String> VALUED_STATUSES = List.of("PENDING", "PLEDGED", "PLEDGED_TO_BANK");
+
+    private final MongoTemplate mongoTemplate;
+    private final GoldRateService goldRateService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public GoldRevaluationService(MongoTemplate mongoTemplate,
+                                  GoldRateService goldRateService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${gold.revaluation.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.goldRateService = goldRateService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "gold-revaluation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onRatesUpdated(GoldRatesUpdatedEvent event) {
+        requestRevaluation();
+    }
+
+    // Ticks that arrive while a pass is queued collapse into it; one arriving mid-pass queues exactly one more
+    public boolean requestRevaluation() {
+        if (!queued.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            queued.set(false);
+            running.set(true);
+            try {
+                revalue();
+            } catch (Exception e) {
+                log.error("Gold revaluation failed: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>(lastRun);
+        status.put("running", running.get());
+        status.put("queued", queued.get());
+        return status;
+    }
+
+    void revalue() {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Double> priceByPurity = new HashMap<>();
+        Set<String> customerLoanIds = new HashSet<>();
+        Set<String> bankLoanIds = new HashSet<>();
+        Map<String, Double> itemValues = new HashMap<>();
+        List<String> unlinkedBankItems = new ArrayList<>();
+        long scanned = 0;
+
+        Query query = new Query(where("status").in(VALUED_STATUSES));
+        query.fields().include("status", "purity", "weightInGrams", "netWeight", "appraisedValue",
+                "customerLoanId", "bankLoanId");
+        query.cursorBatchSize(batchSize);
+
+        BulkOperations bulk = null;
+        int pending = 0;
+        try (Stream<GoldItem> items = mongoTemplate.stream(query, GoldItem.class)) {
+            for (GoldItem item : (Iterable<GoldItem>) items::iterator) {
+                scanned++;
+                double price = priceByPurity.computeIfAbsent(String.valueOf(item.getPurity()),
+                        purity -> goldRateService.pricePerGram(item.getPurity()));
+                double weight = weightOf(item);
+                if (Double.isNaN(price) || weight <= 0) continue;
+
+                double value = Math.round(weight * price * 100) / 100.0;
+                if (item.getAppraisedValue() != null && Math.abs(item.getAppraisedValue() - value) < 0.005) continue;
+
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GoldItem.class);
+                }
+                bulk.updateOne(new Query(where("_id").is(item.getId())),
+                        new Update().set("appraisedValue", value).set("valuedAt", now));
+                itemValues.put(item.getId(), value);
+                if (item.getCustomerLoanId() != null) customerLoanIds.add(item.getCustomerLoanId());
+                if (item.getBankLoanId() != null) {
+                    bankLoanIds.add(item.getBankLoanId());
+                } else if ("PLEDGED_TO_BANK".equals(item.getStatus())) {
+                    unlinkedBankItems.add(item.getId());
+                }
+                if (++pending == batchSize) {
+                    bulk.execute();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulk != null) {
+            bulk.execute();
+        }
+
+        bankLoanIds.addAll(bankLoansListing(unlinkedBankItems));
+        flag(customerLoanIds, CustomerLoan.class, now);
+        flag(bankLoanIds, BankLoan.class, now);
+        if (!itemValues.isEmpty()) {
+            eventPublisher.publishEvent(new CollateralRevaluedEvent(customerLoanIds, bankLoanIds, itemValues));
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("completedAt", LocalDateTime.now());
+        run.put("itemsScanned", scanned);
+        run.put("itemsRevalued", itemValues.size());
+        run.put("customerLoansFlagged", customerLoanIds.size());
+        run.put("bankLoansFlagged", bankLoanIds.size());
+        run.put("durationMillis", elapsed);
+        lastRun = run;
+        log.info("Gold revaluation scanned {} items, revalued {}, flagged {} customer and {} bank loans in {} ms",
+                scanned, itemValues.size(), customerLoanIds.size(), bankLoanIds.size(), elapsed);
+    }
+
+    // Items pledged before claims were recorded on the gold item have no bankLoanId; find their loan by its item list
+    private Set<String> bankLoansListing(List<String> itemIds) {
+        Set<String> loanIds = new HashSet<>();
+        for (int from = 0; from < itemIds.size(); from += batchSize) {
+            List<String> chunk = itemIds.subList(from, Math.min(itemIds.size(), from + batchSize));
+            Query query = new Query(where("pledgedGoldItemIds").in(chunk).and("status").is("ACTIVE"));
+            query.fields().include("_id");
+            for (BankLoan loan : mongoTemplate.find(query, BankLoan.class)) {
+                loanIds.add(loan.getId());
+            }
+        }
+        return loanIds;
+    }
+
+    private void flag(Set<String> loanIds, Class<?> type, LocalDateTime now) {
+        List<String> ids = new ArrayList<>(loanIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            mongoTemplate.updateMulti(new Query(where("_id").in(chunk)),
+                    new Update().set("collateralRevaluedAt", now), type);
+        }
+    }
+
+    private static double weightOf(GoldItem item) {
+        if (item.getNetWeight() != null && item.getNetWeight() > 0) return item.getNetWeight();
+        return item.getWeightInGrams() != null ? item.getWeightInGrams() : 0.0;
+    }
+}
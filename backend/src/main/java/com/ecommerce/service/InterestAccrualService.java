@@ -0,0 +1,197 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.AccrualCheckpoint;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.utils.MoneyMath;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+public class InterestAccrualService {
+
+    private final MongoTemplate mongoTemplate;
+    private final InterestCalculationService interestCalculationService;
+    private final ForkJoinPool pool;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public InterestAccrualService(MongoTemplate mongoTemplate,
+                                  InterestCalculationService interestCalculationService,
+                                  @Value("${interest.accrual.parallelism:0}") int parallelism,
+                                  @Value("${interest.accrual.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.interestCalculationService = interestCalculationService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "interest-accrual");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = batchSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    @Scheduled(cron = "${interest.accrual.cron:0 30 1 * * *}")
+    public void runNightly() {
+        run(LocalDate.now());
+    }
+
+    public AccrualCheckpoint run(LocalDate runDate) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Interest accrual is already running");
+        }
+        try {
+            return accrue(runDate);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Starts today's run in the background and returns the id of the checkpoint it writes
+    public String runInBackground() {
+        LocalDate today = LocalDate.now();
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Interest accrual is already running");
+        }
+        executor.execute(() -> {
+            try {
+                accrue(today);
+            } catch (Exception e) {
+                log.error("Interest accrual for {} failed: {}", today, e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return today.toString();
+    }
+
+    public AccrualCheckpoint getLatestCheckpoint() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        return mongoTemplate.findOne(query, AccrualCheckpoint.class);
+    }
+
+    private AccrualCheckpoint accrue(LocalDate runDate) {
+        AccrualCheckpoint checkpoint = mongoTemplate.findById(runDate.toString(), AccrualCheckpoint.class);
+        if (checkpoint != null && AccrualCheckpoint.STATUS_COMPLETED.equals(checkpoint.getStatus())) {
+            log.info("Interest accrual for {} already completed", runDate);
+            return checkpoint;
+        }
+        if (checkpoint == null) {
+            checkpoint = new AccrualCheckpoint();
+            checkpoint.setId(runDate.toString());
+            checkpoint.setAsOf(runDate.atStartOfDay());
+            checkpoint.setStartedAt(LocalDateTime.now());
+            checkpoint.setStatus(AccrualCheckpoint.STATUS_RUNNING);
+            mongoTemplate.save(checkpoint);
+        } else {
+            log.info("Resuming interest accrual for {} after loan {}", runDate, checkpoint.getLastProcessedId());
+        }
+
+        LocalDateTime asOf = checkpoint.getAsOf();
+        long started = System.currentTimeMillis();
+        long processedThisRun = 0;
+
+        try (Stream<CustomerLoan> loans = mongoTemplate.stream(activeLoansAfter(checkpoint.getLastProcessedId()), CustomerLoan.class)) {
+            Iterator<CustomerLoan> iterator = loans.iterator();
+            List<CustomerLoan> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize || !iterator.hasNext()) {
+                    writeBatch(batch, asOf);
+                    processedThisRun += batch.size();
+                    checkpoint = advance(checkpoint, batch.get(batch.size() - 1).getId(), batch.size(),
+                            System.currentTimeMillis() - started);
+                    started = System.currentTimeMillis();
+                    batch.clear();
+                }
+            }
+        }
+
+        checkpoint.setStatus(AccrualCheckpoint.STATUS_COMPLETED);
+        checkpoint.setCompletedAt(LocalDateTime.now());
+        mongoTemplate.save(checkpoint);
+        log.info("Interest accrual for {} completed: {} loans this run, {} total, {} loans/sec",
+                runDate, processedThisRun, checkpoint.getProcessedLoans(), String.format("%.1f", checkpoint.getLoansPerSecond()));
+        return checkpoint;
+    }
+
+    private void writeBatch(List<CustomerLoan> batch, LocalDateTime asOf) {
+        long[] accruals;
+        try {
+            accruals = pool.submit(() -> batch.parallelStream()
+                    .mapToLong(loan -> interestCalculationService.interestSinceLastPaymentPaisa(loan, asOf))
+                    .toArray()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interest accrual interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Interest accrual failed: " + e.getCause().getMessage());
+        }
+
+        // A repayment or closure since the read changes what is owed, so those loans keep their own figures
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CustomerLoan.class);
+        for (int i = 0; i < batch.size(); i++) {
+            CustomerLoan loan = batch.get(i);
+            Query unchanged = new Query(where("_id").is(loan.getId())
+                    .and("status").is(loan.getStatus())
+                    .and("lastPaymentDate").is(loan.getLastPaymentDate()));
+            bulk.updateOne(unchanged, new Update()
+                    .set("accruedInterest", MoneyMath.toRupees(accruals[i]))
+                    .set("lastInterestCalculationDate", asOf));
+        }
+        bulk.execute();
+    }
+
+    private AccrualCheckpoint advance(AccrualCheckpoint checkpoint, String lastId, int count, long batchMillis) {
+        long processed = checkpoint.getProcessedLoans() + count;
+        long elapsed = checkpoint.getElapsedMillis() + batchMillis;
+        checkpoint.setLastProcessedId(lastId);
+        checkpoint.setProcessedLoans(processed);
+        checkpoint.setElapsedMillis(elapsed);
+        checkpoint.setLoansPerSecond(elapsed > 0 ? processed * 1000.0 / elapsed : 0.0);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        return mongoTemplate.save(checkpoint);
+    }
+
+    private static Query activeLoansAfter(String lastProcessedId) {
+        Criteria criteria = where("status").is("ACTIVE");
+        if (lastProcessedId != null) {
+            criteria.and("_id").gt(new ObjectId(lastProcessedId));
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include("status", "outstandingAmount", "interestRate", "lastPaymentDate", "startDate");
+        query.cursorBatchSize(1000);
+        return query;
+    }
+}
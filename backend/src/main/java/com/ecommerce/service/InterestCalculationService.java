@@ -1,24 +1,37 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.InterestAccrual;
 import com.ecommerce.model.CustomerLoan;
-import com.ecommerce.model.CustomerLoan.InterestAccrual;
 import com.ecommerce.utils.DateUtil;
+import com.ecommerce.utils.MoneyMath;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
+@RequiredArgsConstructor
 public class InterestCalculationService {
 
+    private final RateFactorTables rateFactorTables;
+
     public double calculateCompoundInterest(double principal, double annualRate, int tenureMonths) {
-        double rate = annualRate / 100;
-        double time = tenureMonths / 12.0;
-        int frequency = 12;
+        return principal * (rateFactorTables.monthlyFactor(annualRate, tenureMonths) - 1);
+    }
 
-        double amount = principal * Math.pow(1 + (rate / frequency), frequency * time);
-        return amount - principal;
+    // Equal principal instalments on a reducing balance: sum of P*r*(n-k)/n for k in [0, n) = P*r*(n+1)/2
+    public double calculateReducingBalanceInterest(double principal, double annualRate, int tenureMonths) {
+        if (tenureMonths <= 0) return 0.0;
+        double monthlyRate = annualRate / 12 / 100;
+        return principal * monthlyRate * (tenureMonths + 1) / 2.0;
     }
 
     public double calculateSimpleInterest(double principal, double monthlyRate, int tenureMonths) {
@@ -34,25 +47,73 @@ public class InterestCalculationService {
         long totalDays = DateUtil.getDaysBetween(loan.getStartDate(), loan.getMaturityDate());
 
         if ("COMPOUND".equals(loan.getInterestType())) {
-            double annualRate = loan.getInterestRate();
-            int frequency = 12;
-            double timeInYears = daysElapsed / 365.0;
-
-            double amount = loan.getPrincipalAmount() *
-                    Math.pow(1 + (annualRate / 100 / frequency), frequency * timeInYears);
-            return amount - loan.getPrincipalAmount();
+            return loan.getPrincipalAmount() *
+                    (rateFactorTables.dailyFactor(loan.getInterestRate(), daysElapsed) - 1);
         } else {
             double totalInterest = loan.getTotalInterestReceivable();
             return totalInterest * daysElapsed / totalDays;
         }
     }
 
+    public double calculateInterestSinceLastPayment(CustomerLoan loan, LocalDateTime asOfDate) {
+        return MoneyMath.toRupees(interestSinceLastPaymentPaisa(loan, asOfDate));
+    }
+
+    public long interestSinceLastPaymentPaisa(CustomerLoan loan, LocalDateTime asOfDate) {
+        LocalDateTime from = loan.getLastPaymentDate() != null ? loan.getLastPaymentDate() : loan.getStartDate();
+        if (from == null || loan.getOutstandingAmount() == null || loan.getInterestRate() == null) {
+            return 0L;
+        }
+        long days = Math.max(0, ChronoUnit.DAYS.between(from, asOfDate));
+        return MoneyMath.interest(MoneyMath.toPaisa(loan.getOutstandingAmount()), loan.getInterestRate(), days, 365);
+    }
+
+    // Forward accrual on an outstanding balance with the same day conventions as calculateAccruedInterest
+    // (compound) and interestSinceLastPaymentPaisa (simple, actual/365)
+    public double projectInterest(double balance, double annualRate, String interestType, long days) {
+        if (balance == 0 || days <= 0) return 0.0;
+        if ("COMPOUND".equals(interestType)) {
+            return balance * (rateFactorTables.dailyFactor(annualRate, days) - 1);
+        }
+        return balance * (annualRate / 100) * days / 365;
+    }
+
     public List<InterestAccrual> generateAccrualSchedule(CustomerLoan loan) {
-        List<InterestAccrual> schedule = new ArrayList<>();
-        LocalDateTime currentDate = loan.getStartDate();
-        double balance = loan.getPrincipalAmount();
+        try (Stream<InterestAccrual> schedule = streamAccrualSchedule(loan)) {
+            return schedule.toList();
+        }
+    }
+
+    public Stream<InterestAccrual> streamAccrualSchedule(CustomerLoan loan) {
+        if (loan.getStartDate() == null || loan.getMaturityDate() == null || loan.getPrincipalAmount() == null) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new AccrualIterator(loan), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private class AccrualIterator implements Iterator<InterestAccrual> {
+        private final CustomerLoan loan;
+        private LocalDateTime currentDate;
+        private double balance;
+        private int periodNumber;
+
+        AccrualIterator(CustomerLoan loan) {
+            this.loan = loan;
+            this.currentDate = loan.getStartDate();
+            this.balance = loan.getPrincipalAmount();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return currentDate.isBefore(loan.getMaturityDate());
+        }
 
-        while (currentDate.isBefore(loan.getMaturityDate())) {
+        @Override
+        public InterestAccrual next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
             LocalDateTime nextDate = currentDate.plusMonths(1);
             if (nextDate.isAfter(loan.getMaturityDate())) {
                 nextDate = loan.getMaturityDate();
@@ -61,16 +122,13 @@ public class InterestCalculationService {
             long daysInPeriod = DateUtil.getDaysBetween(currentDate, nextDate);
 
             InterestAccrual accrual = new InterestAccrual();
+            accrual.setPeriodNumber(++periodNumber);
             accrual.setDate(currentDate);
             accrual.setOpeningBalance(balance);
             accrual.setFormattedDate(DateUtil.getFormattedDates(currentDate));
 
             if ("COMPOUND".equals(loan.getInterestType())) {
-                double annualRate = loan.getInterestRate() / 100;
-                int frequency = 12;
-                double timeInYears = daysInPeriod / 365.0;
-
-                double interest = balance * (Math.pow(1 + annualRate / frequency, frequency * timeInYears) - 1);
+                double interest = balance * (rateFactorTables.dailyFactor(loan.getInterestRate(), daysInPeriod) - 1);
                 accrual.setInterestAmount(interest);
                 balance += interest;
             } else {
@@ -85,10 +143,8 @@ public class InterestCalculationService {
             accrual.setPeriod("MONTH");
             accrual.setInterestRate(loan.getInterestRate());
 
-            schedule.add(accrual);
             currentDate = nextDate;
+            return accrual;
         }
-
-        return schedule;
     }
-}
\ No newline at end of file
+}
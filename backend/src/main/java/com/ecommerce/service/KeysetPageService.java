@@ -0,0 +1,111 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CursorPage;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class KeysetPageService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public <T> CursorPage<T> page(Criteria filter, String cursor, Integer limit, Class<T> type, Function<T, String> idOf) {
+        int pageSize = clamp(limit);
+
+        Criteria criteria = filter != null ? filter : new Criteria();
+        if (cursor != null && !cursor.isBlank()) {
+            criteria = new Criteria().andOperator(criteria, idBefore(decodeCursor(cursor)));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "_id"))
+                .limit(pageSize + 1);
+        List<T> items = mongoTemplate.find(query, type);
+
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? encodeCursor(idOf.apply(items.get(items.size() - 1))) : null;
+        return new CursorPage<>(items, nextCursor, hasMore, pageSize);
+    }
+
+    public <T> Stream<T> stream(Criteria filter, Class<T> type) {
+        Query query = new Query(filter != null ? filter : new Criteria())
+                .with(Sort.by(Sort.Direction.DESC, "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, type);
+    }
+
+    // Case-insensitive substring match on any of the fields, or null when there is nothing to search for
+    public static Criteria matching(String query, String... fields) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        Pattern pattern = Pattern.compile(Pattern.quote(query.trim()), Pattern.CASE_INSENSITIVE);
+        return new Criteria().orOperator(Arrays.stream(fields)
+                .map(field -> Criteria.where(field).regex(pattern))
+                .toArray(Criteria[]::new));
+    }
+
+    public static Criteria idIn(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return null;
+        }
+        return Criteria.where("_id").in(ids.stream().map(KeysetPageService::idKey).toList());
+    }
+
+    public static Criteria allOf(Criteria... filters) {
+        List<Criteria> present = Arrays.stream(filters).filter(Objects::nonNull).toList();
+        if (present.isEmpty()) {
+            return null;
+        }
+        return present.size() == 1 ? present.get(0) : new Criteria().andOperator(present);
+    }
+
+    private static Criteria idBefore(String id) {
+        return Criteria.where("_id").lt(idKey(id));
+    }
+
+    private static Object idKey(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static int clamp(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+    }
+}
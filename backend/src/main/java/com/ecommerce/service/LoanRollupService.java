@@ -0,0 +1,196 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.LoanMonthlyRollup;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanRollupService {
+
+    private static final DateTimeFormatter MONTH_KEY = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final String ROLLUP_COLLECTION = "loan_monthly_rollups";
+    private static final String REBUILD_COLLECTION = ROLLUP_COLLECTION + "_rebuild";
+
+    private final MongoTemplate mongoTemplate;
+
+    // Held shared from a loan write until its rollup increment is applied, and exclusively by the rebuild,
+    // so the rebuild never reads a loan whose increment is still to come
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public void beginWrite() {
+        rebuildLock.readLock().lock();
+    }
+
+    public void endWrite() {
+        rebuildLock.readLock().unlock();
+    }
+
+    public void recordLoanRequested(LocalDateTime at) {
+        apply(at, new Update().inc("requestedLoans", 1));
+    }
+
+    public void recordLoanRejected(LocalDateTime at) {
+        apply(at, new Update().inc("rejectedLoans", 1));
+    }
+
+    public void recordLoanActivated(CustomerLoan loan, LocalDateTime at) {
+        apply(at, new Update()
+                .inc("disbursedPrincipal", loan.getPrincipalAmount() != null ? loan.getPrincipalAmount() : 0.0)
+                .inc("activatedLoans", 1));
+    }
+
+    public void recordRepayment(double amount, double interestPortion, boolean closed, LocalDateTime at) {
+        Update update = new Update()
+                .inc("repayments", amount)
+                .inc("interestCollected", interestPortion);
+        if (closed) {
+            update.inc("closedLoans", 1);
+        }
+        apply(at, update);
+    }
+
+    public List<LoanMonthlyRollup> getRecentMonths(int months) {
+        YearMonth current = YearMonth.now();
+        List<String> keys = new ArrayList<>();
+        for (int i = months - 1; i >= 0; i--) {
+            keys.add(current.minusMonths(i).format(MONTH_KEY));
+        }
+
+        Map<String, LoanMonthlyRollup> stored = mongoTemplate
+                .find(new Query(where("_id").in(keys)), LoanMonthlyRollup.class)
+                .stream()
+                .collect(Collectors.toMap(LoanMonthlyRollup::getId, Function.identity()));
+
+        return keys.stream()
+                .map(key -> stored.computeIfAbsent(key, missing -> {
+                    LoanMonthlyRollup empty = new LoanMonthlyRollup();
+                    empty.setId(missing);
+                    return empty;
+                }))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (mongoTemplate.estimatedCount(LoanMonthlyRollup.class) == 0
+                && mongoTemplate.estimatedCount(CustomerLoan.class) > 0) {
+            backfill();
+        }
+    }
+
+    // The rollup is rebuilt beside the live collection and swapped in with one rename, so the charts keep
+    // reading the old months until the new ones are complete. Loan writes wait for the rebuild to finish.
+    // Each count is bucketed by the date the incremental path records it at. Repayments are approximate:
+    // loans only keep running totals, so a loan's whole amount paid lands in the month of its last payment.
+    public long backfill() {
+        rebuildLock.writeLock().lock();
+        try {
+            return rebuild();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private long rebuild() {
+        mongoTemplate.dropCollection(REBUILD_COLLECTION);
+
+        mergeMonthly(where("status").in("ACTIVE", "CLOSED"), "startDate",
+                group("month").sum("principalAmount").as("disbursedPrincipal").count().as("activatedLoans"));
+
+        mergeMonthly(where("lastPaymentDate").ne(null).and("amountPaidSoFar").gt(0), "lastPaymentDate",
+                group("month").sum("amountPaidSoFar").as("repayments").sum("interestPaidSoFar").as("interestCollected"));
+
+        mergeMonthly(where("status").is("CLOSED").and("lastPaymentDate").ne(null), "lastPaymentDate",
+                group("month").count().as("closedLoans"));
+
+        // Loans saved before requestedAt and rejectedAt existed only had createdAt set on customer requests
+        mergeMonthly(new Criteria().orOperator(where("requestedAt").ne(null), where("createdAt").ne(null)),
+                ConditionalOperators.ifNull("requestedAt").thenValueOf("createdAt"),
+                group("month").count().as("requestedLoans"));
+
+        mergeMonthly(where("status").is("REJECTED").orOperator(where("rejectedAt").ne(null), where("createdAt").ne(null)),
+                ConditionalOperators.ifNull("rejectedAt").thenValueOf("createdAt"),
+                group("month").count().as("rejectedLoans"));
+
+        if (!mongoTemplate.collectionExists(REBUILD_COLLECTION)) {
+            log.info("No customer loans to backfill monthly rollups from");
+            return 0;
+        }
+        mongoTemplate.getCollection(REBUILD_COLLECTION).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), ROLLUP_COLLECTION),
+                new RenameCollectionOptions().dropTarget(true));
+
+        long months = mongoTemplate.count(new Query(), LoanMonthlyRollup.class);
+        log.info("Backfilled {} monthly loan rollups from customer_loans", months);
+        return months;
+    }
+
+    private void mergeMonthly(Criteria filter, String dateField, GroupOperation group) {
+        mergeMonthly(filter, DateOperators.DateToString.dateOf(dateField), group);
+    }
+
+    private void mergeMonthly(Criteria filter, AggregationExpression date, GroupOperation group) {
+        mergeMonthly(filter, DateOperators.DateToString.dateOf(date), group);
+    }
+
+    private void mergeMonthly(Criteria filter, DateOperators.DateToString.FormatBuilder date, GroupOperation group) {
+        ProjectionOperation toMonth = project("principalAmount", "amountPaidSoFar", "interestPaidSoFar")
+                .and(date
+                        .toString("%Y-%m")
+                        .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId())))
+                .as("month");
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(filter),
+                toMonth,
+                group,
+                MergeOperation.builder()
+                        .intoCollection(REBUILD_COLLECTION)
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.mergeDocuments())
+                        .whenNotMatched(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                        .build()
+        );
+        mongoTemplate.aggregate(aggregation, "customer_loans", LoanMonthlyRollup.class);
+    }
+
+    private void apply(LocalDateTime at, Update update) {
+        update.set("updatedAt", LocalDateTime.now());
+        mongoTemplate.upsert(new Query(where("_id").is(at.format(MONTH_KEY))), update, LoanMonthlyRollup.class);
+    }
+}
@@ -0,0 +1,443 @@
+package com.ecommerce.service;
+
+import com.ecommerce.constants.PermissionConstants;
+import com.ecommerce.dto.CollateralRevaluedEvent;
+import com.ecommerce.dto.LoanToValue;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.GoldItem;
+import com.ecommerce.utils.MoneyMath;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Keeps every active loan's collateral total in memory, keyed both by loan and by pledged item, so a
+// repayment or a price tick only re-evaluates the loans it actually touches
+@Slf4j
+@Service
+public class LoanToValueMonitor {
+
+    private static final String CUSTOMER = "CUSTOMER";
+    private static final String BANK = "BANK";
+    private static final int VALUE_BATCH = 1000;
+
+    private enum Level { OK, WARNING, BREACH }
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationDispatcher notificationDispatcher;
+    private final double warningRatio;
+    private final double breachRatio;
+
+    private final Object lock = new Object();
+    private Map<String, Exposure> customerLoans = new HashMap<>();
+    private Map<String, Exposure> bankLoans = new HashMap<>();
+    private Map<String, Collateral> collateral = new HashMap<>();
+    private List<Runnable> journal;
+    private volatile LocalDateTime rebuiltAt;
+
+    public LoanToValueMonitor(MongoTemplate mongoTemplate,
+                              NotificationDispatcher notificationDispatcher,
+                              @Value("${ltv.warning-ratio:0.70}") double warningRatio,
+                              @Value("${ltv.breach-ratio:0.80}") double breachRatio) {
+        this.mongoTemplate = mongoTemplate;
+        this.notificationDispatcher = notificationDispatcher;
+        this.warningRatio = warningRatio;
+        this.breachRatio = breachRatio;
+    }
+
+    // Levels found while rebuilding are taken as already known, so a restart does not re-send every alert.
+    // Changes that arrive while the snapshot is read are journaled and replayed onto it before the swap.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (lock) {
+            if (journal != null) {
+                log.info("LTV index rebuild already in progress");
+                return;
+            }
+            journal = new ArrayList<>();
+        }
+        try {
+            rebuildIndex();
+        } finally {
+            synchronized (lock) {
+                journal = null;
+            }
+        }
+    }
+
+    private void rebuildIndex() {
+        long started = System.currentTimeMillis();
+        Map<String, Exposure> customers = new HashMap<>();
+        Map<String, Exposure> banks = new HashMap<>();
+        Map<String, Collateral> items = new HashMap<>();
+
+        Query customerQuery = new Query(where("status").is("ACTIVE"));
+        customerQuery.fields().include("customerId", "loanNumber", "outstandingAmount", "goldItemIds");
+        try (Stream<CustomerLoan> loans = mongoTemplate.stream(customerQuery, CustomerLoan.class)) {
+            loans.forEach(loan -> {
+                Exposure exposure = new Exposure(CUSTOMER, loan.getId(), loan.getLoanNumber(), loan.getCustomerId(),
+                        loan.getGoldItemIds(), loan.getOutstandingAmount());
+                customers.put(exposure.loanId, exposure);
+                link(items, exposure);
+            });
+        }
+
+        Query bankQuery = new Query(where("status").is("ACTIVE"));
+        bankQuery.fields().include("bankName", "loanNumber", "outstandingAmount", "pledgedGoldItemIds");
+        try (Stream<BankLoan> loans = mongoTemplate.stream(bankQuery, BankLoan.class)) {
+            loans.forEach(loan -> {
+                Exposure exposure = new Exposure(BANK, loan.getId(), loan.getLoanNumber(), loan.getBankName(),
+                        loan.getPledgedGoldItemIds(), loan.getOutstandingAmount());
+                banks.put(exposure.loanId, exposure);
+                link(items, exposure);
+            });
+        }
+
+        Map<String, Long> values = fetchValues(items.keySet());
+        for (Map.Entry<String, Collateral> entry : items.entrySet()) {
+            Collateral item = entry.getValue();
+            item.valuePaisa = values.getOrDefault(entry.getKey(), 0L);
+            if (item.customerLoan != null) item.customerLoan.collateralPaisa += item.valuePaisa;
+            if (item.bankLoan != null) item.bankLoan.collateralPaisa += item.valuePaisa;
+        }
+        customers.values().forEach(exposure -> exposure.level = levelOf(exposure));
+        banks.values().forEach(exposure -> exposure.level = levelOf(exposure));
+
+        int replayed;
+        synchronized (lock) {
+            customerLoans = customers;
+            bankLoans = banks;
+            collateral = items;
+            // The live index already alerted on these changes, so replaying them stays silent
+            replayed = journal.size();
+            journal.forEach(Runnable::run);
+            journal = null;
+            rebuiltAt = LocalDateTime.now();
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} LTV changes made during the rebuild", replayed);
+        }
+        log.info("LTV index rebuilt with {} customer loans, {} bank loans and {} items in {} ms",
+                customers.size(), banks.size(), items.size(), System.currentTimeMillis() - started);
+    }
+
+    public void customerLoanChanged(CustomerLoan loan) {
+        loanChanged(new Exposure(CUSTOMER, loan.getId(), loan.getLoanNumber(), loan.getCustomerId(),
+                loan.getGoldItemIds(), loan.getOutstandingAmount()), loan.getStatus());
+    }
+
+    public void bankLoanChanged(BankLoan loan) {
+        loanChanged(new Exposure(BANK, loan.getId(), loan.getLoanNumber(), loan.getBankName(),
+                loan.getPledgedGoldItemIds(), loan.getOutstandingAmount()), loan.getStatus());
+    }
+
+    public void itemChanged(GoldItem item) {
+        valuesChanged(Map.of(item.getId(), item.collateralValue() != null ? item.collateralValue() : 0.0));
+    }
+
+    @EventListener
+    public void onCollateralRevalued(CollateralRevaluedEvent event) {
+        if (event.getItemValues() == null || event.getItemValues().isEmpty()) return;
+        valuesChanged(Map.copyOf(event.getItemValues()));
+    }
+
+    private void valuesChanged(Map<String, Double> itemValues) {
+        List<LoanToValue> alerts;
+        synchronized (lock) {
+            if (journal != null) journal.add(() -> applyValues(itemValues));
+            alerts = applyValues(itemValues);
+        }
+        alerts.forEach(this::sendAlert);
+    }
+
+    private List<LoanToValue> applyValues(Map<String, Double> itemValues) {
+        List<LoanToValue> alerts = new ArrayList<>();
+        Set<Exposure> touched = new HashSet<>();
+        for (Map.Entry<String, Double> entry : itemValues.entrySet()) {
+            Collateral item = collateral.get(entry.getKey());
+            if (item == null) continue;
+            long delta = MoneyMath.toPaisa(entry.getValue()) - item.valuePaisa;
+            if (delta == 0) continue;
+            item.valuePaisa += delta;
+            if (item.customerLoan != null) {
+                item.customerLoan.collateralPaisa += delta;
+                touched.add(item.customerLoan);
+            }
+            if (item.bankLoan != null) {
+                item.bankLoan.collateralPaisa += delta;
+                touched.add(item.bankLoan);
+            }
+        }
+        for (Exposure exposure : touched) {
+            LoanToValue alert = evaluate(exposure);
+            if (alert != null) alerts.add(alert);
+        }
+        return alerts;
+    }
+
+    public List<LoanToValue> getAtRiskLoans() {
+        List<LoanToValue> atRisk = new ArrayList<>();
+        synchronized (lock) {
+            for (Exposure exposure : customerLoans.values()) {
+                if (exposure.level != Level.OK) atRisk.add(toView(exposure));
+            }
+            for (Exposure exposure : bankLoans.values()) {
+                if (exposure.level != Level.OK) atRisk.add(toView(exposure));
+            }
+        }
+        atRisk.sort(Comparator.comparing(LoanToValue::getRatio,
+                Comparator.nullsFirst(Comparator.<Double>reverseOrder())));
+        return atRisk;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        synchronized (lock) {
+            status.put("customerLoans", customerLoans.size());
+            status.put("bankLoans", bankLoans.size());
+            status.put("items", collateral.size());
+            status.put("warnings", count(Level.WARNING));
+            status.put("breaches", count(Level.BREACH));
+        }
+        status.put("warningRatio", warningRatio);
+        status.put("breachRatio", breachRatio);
+        status.put("rebuiltAt", rebuiltAt);
+        return status;
+    }
+
+    // Item values are only ever read outside the lock; if an item drops out of the index between the read
+    // and taking the lock, the loop reads the difference and tries again
+    private void loanChanged(Exposure update, String status) {
+        boolean active = "ACTIVE".equals(status);
+        Map<String, Long> values = new HashMap<>();
+        Exposure replay = update.copy();
+        LoanToValue alert;
+        while (true) {
+            Set<String> missing = active ? missingValues(update, values) : Set.of();
+            if (!missing.isEmpty()) {
+                values.putAll(fetchValues(missing));
+                missing.forEach(itemId -> values.putIfAbsent(itemId, 0L));
+            }
+            synchronized (lock) {
+                if (active && !missingValues(update, values).isEmpty()) {
+                    continue;
+                }
+                Map<String, Long> known = Map.copyOf(values);
+                if (journal != null) journal.add(() -> applyLoan(replay, active, known));
+                alert = applyLoan(update, active, known);
+                break;
+            }
+        }
+        if (alert != null) {
+            sendAlert(alert);
+        }
+    }
+
+    // Items another loan keeps tracked after this loan is relinked already have a value; during a rebuild
+    // the replay runs against the new index, so every item of the loan needs a value at hand
+    private Set<String> missingValues(Exposure update, Map<String, Long> values) {
+        synchronized (lock) {
+            if (journal == null && tracksSameItems(update)) {
+                return Set.of();
+            }
+            Exposure existing = (CUSTOMER.equals(update.type) ? customerLoans : bankLoans).get(update.loanId);
+            Set<String> missing = new HashSet<>();
+            for (String itemId : update.itemIds) {
+                Collateral item = journal == null ? collateral.get(itemId) : null;
+                boolean keptByOther = item != null
+                        && ((item.customerLoan != null && item.customerLoan != existing)
+                        || (item.bankLoan != null && item.bankLoan != existing));
+                if (!keptByOther && !values.containsKey(itemId)) {
+                    missing.add(itemId);
+                }
+            }
+            return missing;
+        }
+    }
+
+    private LoanToValue applyLoan(Exposure update, boolean active, Map<String, Long> values) {
+        Map<String, Exposure> loans = CUSTOMER.equals(update.type) ? customerLoans : bankLoans;
+        Exposure exposure = loans.get(update.loanId);
+        if (!active) {
+            if (exposure != null) {
+                unlink(exposure);
+                loans.remove(update.loanId);
+            }
+            return null;
+        }
+        if (exposure == null || !exposure.itemIds.equals(update.itemIds)) {
+            if (exposure != null) {
+                unlink(exposure);
+                update.level = exposure.level;
+            }
+            Set<String> untracked = new HashSet<>(update.itemIds);
+            untracked.removeAll(collateral.keySet());
+            link(collateral, update);
+            for (String itemId : update.itemIds) {
+                Collateral item = collateral.get(itemId);
+                if (untracked.contains(itemId)) {
+                    item.valuePaisa = values.getOrDefault(itemId, 0L);
+                }
+                update.collateralPaisa += item.valuePaisa;
+            }
+            loans.put(update.loanId, update);
+            exposure = update;
+        }
+        exposure.loanNumber = update.loanNumber;
+        exposure.outstandingPaisa = update.outstandingPaisa;
+        return evaluate(exposure);
+    }
+
+    private boolean tracksSameItems(Exposure update) {
+        synchronized (lock) {
+            Exposure exposure = (CUSTOMER.equals(update.type) ? customerLoans : bankLoans).get(update.loanId);
+            return exposure != null && exposure.itemIds.equals(update.itemIds);
+        }
+    }
+
+    // Only an escalation alerts; dropping back a level re-arms the alert for the next rise
+    private LoanToValue evaluate(Exposure exposure) {
+        Level previous = exposure.level;
+        exposure.level = levelOf(exposure);
+        return exposure.level.compareTo(previous) > 0 ? toView(exposure) : null;
+    }
+
+    private Level levelOf(Exposure exposure) {
+        if (exposure.outstandingPaisa <= 0) return Level.OK;
+        if (exposure.collateralPaisa <= 0) return Level.BREACH;
+        double ratio = (double) exposure.outstandingPaisa / exposure.collateralPaisa;
+        if (ratio >= breachRatio) return Level.BREACH;
+        if (ratio >= warningRatio) return Level.WARNING;
+        return Level.OK;
+    }
+
+    private void sendAlert(LoanToValue alert) {
+        boolean breach = Level.BREACH.name().equals(alert.getLevel());
+        String ratio = alert.getRatio() != null ? String.format("%.1f%%", alert.getRatio() * 100) : "uncovered";
+        String message = String.format("%s loan %s owes NPR %.2f against gold valued at NPR %.2f (LTV %s)",
+                BANK.equals(alert.getLoanType()) ? "Bank" : "Customer", alert.getLoanNumber(),
+                alert.getOutstandingAmount(), alert.getCollateralValue(), ratio);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("loanType", alert.getLoanType());
+        data.put("loanNumber", alert.getLoanNumber());
+        data.put("outstandingAmount", alert.getOutstandingAmount());
+        data.put("collateralValue", alert.getCollateralValue());
+        data.put("ratio", alert.getRatio());
+
+        notificationDispatcher.notifyRole(PermissionConstants.ROLE_ADMIN,
+                breach ? "Loan-to-Value Breach" : "Loan-to-Value Warning",
+                message, "LTV_" + alert.getLevel(), alert.getLoanId(), data);
+
+        if (breach && CUSTOMER.equals(alert.getLoanType()) && alert.getOwnerId() != null) {
+            notificationDispatcher.notifyUser(alert.getOwnerId(),
+                    "Loan Needs Attention",
+                    "Your loan " + alert.getLoanNumber() + " is no longer fully covered by your pledged gold at current rates. "
+                            + "Please make a part payment or contact us to add collateral.",
+                    "LTV_BREACH", alert.getLoanId(), data);
+        }
+    }
+
+    private Map<String, Long> fetchValues(Collection<String> itemIds) {
+        Map<String, Long> values = new HashMap<>();
+        List<String> ids = new ArrayList<>(itemIds);
+        for (int from = 0; from < ids.size(); from += VALUE_BATCH) {
+            Query query = new Query(where("_id").in(ids.subList(from, Math.min(ids.size(), from + VALUE_BATCH))));
+            query.fields().include("estimatedValue", "appraisedValue");
+            for (GoldItem item : mongoTemplate.find(query, GoldItem.class)) {
+                values.put(item.getId(), MoneyMath.toPaisa(item.collateralValue()));
+            }
+        }
+        return values;
+    }
+
+    private static void link(Map<String, Collateral> items, Exposure exposure) {
+        for (String itemId : exposure.itemIds) {
+            Collateral item = items.computeIfAbsent(itemId, id -> new Collateral());
+            if (CUSTOMER.equals(exposure.type)) {
+                item.customerLoan = exposure;
+            } else {
+                item.bankLoan = exposure;
+            }
+        }
+    }
+
+    private void unlink(Exposure exposure) {
+        for (String itemId : exposure.itemIds) {
+            Collateral item = collateral.get(itemId);
+            if (item == null) continue;
+            if (item.customerLoan == exposure) item.customerLoan = null;
+            if (item.bankLoan == exposure) item.bankLoan = null;
+            if (item.customerLoan == null && item.bankLoan == null) collateral.remove(itemId);
+        }
+    }
+
+    private long count(Level level) {
+        return Stream.concat(customerLoans.values().stream(), bankLoans.values().stream())
+                .filter(exposure -> exposure.level == level)
+                .count();
+    }
+
+    private static LoanToValue toView(Exposure exposure) {
+        return LoanToValue.builder()
+                .loanType(exposure.type)
+                .loanId(exposure.loanId)
+                .loanNumber(exposure.loanNumber)
+                .ownerId(exposure.ownerId)
+                .outstandingAmount(MoneyMath.toRupees(exposure.outstandingPaisa))
+                .collateralValue(MoneyMath.toRupees(exposure.collateralPaisa))
+                .ratio(exposure.collateralPaisa > 0 ? (double) exposure.outstandingPaisa / exposure.collateralPaisa : null)
+                .level(exposure.level.name())
+                .build();
+    }
+
+    private static final class Exposure {
+        final String type;
+        final String loanId;
+        final String ownerId;
+        final Set<String> itemIds;
+        String loanNumber;
+        long outstandingPaisa;
+        long collateralPaisa;
+        Level level = Level.OK;
+
+        Exposure(String type, String loanId, String loanNumber, String ownerId, List<String> itemIds, Double outstanding) {
+            this.type = type;
+            this.loanId = loanId;
+            this.loanNumber = loanNumber;
+            this.ownerId = ownerId;
+            this.itemIds = itemIds != null ? Set.copyOf(itemIds) : Set.of();
+            this.outstandingPaisa = MoneyMath.toPaisa(outstanding);
+        }
+
+        Exposure copy() {
+            Exposure copy = new Exposure(type, loanId, loanNumber, ownerId, List.copyOf(itemIds), null);
+            copy.outstandingPaisa = outstandingPaisa;
+            return copy;
+        }
+    }
+
+    private static final class Collateral {
+        long valuePaisa;
+        Exposure customerLoan;
+        Exposure bankLoan;
+    }
+}
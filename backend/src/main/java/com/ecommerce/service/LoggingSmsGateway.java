@@ -0,0 +1,21 @@
+package com.ecommerce.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sms.gateway", havingValue = "logging", matchIfMissing = true)
+public class LoggingSmsGateway implements SmsGateway {
+
+    @Override
+    public String getName() {
+        return "logging";
+    }
+
+    @Override
+    public void send(String phoneNumber, String message) {
+        log.info("SMS sent to: {}, Message: {}", phoneNumber, message);
+    }
+}
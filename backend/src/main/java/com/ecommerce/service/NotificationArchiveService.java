@@ -0,0 +1,145 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.ArchivedNotification;
+import com.ecommerce.model.Notification;
+import com.ecommerce.model.NotificationReceipt;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+public class NotificationArchiveService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final long readAgeDays;
+    private final long archiveRetentionDays;
+
+    public NotificationArchiveService(MongoTemplate mongoTemplate,
+                                      UserRepository userRepository,
+                                      NotificationService notificationService,
+                                      @Value("${notification.archive.read-age-days:30}") long readAgeDays,
+                                      @Value("${notification.archive.retention-days:365}") long archiveRetentionDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.readAgeDays = readAgeDays;
+        this.archiveRetentionDays = archiveRetentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureArchiveTtlIndex() {
+        try {
+            mongoTemplate.indexOps(ArchivedNotification.class).createIndex(new Index()
+                    .on("archivedAt", Sort.Direction.ASC)
+                    .named("archivedAt_ttl")
+                    .expire(Duration.ofDays(archiveRetentionDays)));
+        } catch (Exception e) {
+            log.warn("Could not create archive TTL index, keeping the existing one: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${notification.archive.cron:0 0 4 * * *}")
+    public long archiveReadNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(readAgeDays);
+
+        long direct = moveInBatches(where("userId").ne(null).and("isRead").is(true).and("createdAt").lt(cutoff));
+
+        long broadcasts = 0;
+        List<String> roles = mongoTemplate.findDistinct(
+                new Query(where("targetRole").ne(null)), "targetRole", Notification.class, String.class);
+        for (String role : roles) {
+            LocalDateTime readByEveryone = readByAllMembersBefore(role, cutoff);
+            if (readByEveryone != null) {
+                broadcasts += moveInBatches(where("targetRole").is(role).and("createdAt").lte(readByEveryone));
+            }
+        }
+
+        if (broadcasts > 0) {
+            notificationService.repairUnreadCounters();
+        }
+        if (direct + broadcasts > 0) {
+            log.info("Archived {} direct and {} broadcast notifications older than {}", direct, broadcasts, cutoff);
+        }
+        return direct + broadcasts;
+    }
+
+    private LocalDateTime readByAllMembersBefore(String role, LocalDateTime cutoff) {
+        List<String> memberIds = userRepository.findByRole(role).stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+        if (memberIds.isEmpty()) {
+            return cutoff;
+        }
+
+        List<NotificationReceipt> receipts = mongoTemplate.find(
+                new Query(where("_id").in(memberIds)), NotificationReceipt.class);
+        if (receipts.size() < memberIds.size()) {
+            return null;
+        }
+
+        LocalDateTime earliest = cutoff;
+        for (NotificationReceipt receipt : receipts) {
+            if (receipt.getReadAllBefore() == null) {
+                return null;
+            }
+            if (receipt.getReadAllBefore().isBefore(earliest)) {
+                earliest = receipt.getReadAllBefore();
+            }
+        }
+        return earliest;
+    }
+
+    private long moveInBatches(Criteria criteria) {
+        long moved = 0;
+        while (true) {
+            Query query = new Query(criteria)
+                    .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                    .limit(BATCH_SIZE);
+            List<Notification> batch = mongoTemplate.find(query, Notification.class);
+            if (batch.isEmpty()) {
+                return moved;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedNotification.class);
+            for (Notification notification : batch) {
+                bulk.replaceOne(new Query(where("_id").is(notification.getId())),
+                        ArchivedNotification.from(notification, now),
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulk.execute();
+
+            List<String> ids = batch.stream().map(Notification::getId).collect(Collectors.toList());
+            mongoTemplate.remove(new Query(where("_id").in(ids)), Notification.class);
+            moved += batch.size();
+
+            if (batch.size() < BATCH_SIZE) {
+                return moved;
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.NotificationEvent;
+import com.ecommerce.model.Notification;
+import com.ecommerce.model.smsNotification;
+import com.ecommerce.repository.NotificationRepository;
+import com.ecommerce.repository.SmsNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class NotificationDispatcher {
+
+    private final NotificationRepository notificationRepository;
+    private final SmsNotificationRepository smsNotificationRepository;
+    private final NotificationStreamService notificationStreamService;
+    private final UnreadCounterService unreadCounterService;
+
+    private final BlockingQueue<NotificationEvent> queue;
+    private final int capacity;
+    private final int workers;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final long shutdownTimeoutSeconds;
+    private final int writeAttempts;
+    private final long retryBackoffMillis;
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    public NotificationDispatcher(NotificationRepository notificationRepository,
+                                  SmsNotificationRepository smsNotificationRepository,
+                                  NotificationStreamService notificationStreamService,
+                                  UnreadCounterService unreadCounterService,
+                                  @Value("${notification.dispatch.queue-capacity:10000}") int capacity,
+                                  @Value("${notification.dispatch.workers:2}") int workers,
+                                  @Value("${notification.dispatch.batch-size:100}") int batchSize,
+                                  @Value("${notification.dispatch.offer-timeout-ms:50}") long offerTimeoutMillis,
+                                  @Value("${notification.dispatch.shutdown-timeout-seconds:10}") long shutdownTimeoutSeconds,
+                                  @Value("${notification.dispatch.write-attempts:3}") int writeAttempts,
+                                  @Value("${notification.dispatch.retry-backoff-ms:100}") long retryBackoffMillis) {
+        this.notificationRepository = notificationRepository;
+        this.smsNotificationRepository = smsNotificationRepository;
+        this.notificationStreamService = notificationStreamService;
+        this.unreadCounterService = unreadCounterService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        this.writeAttempts = Math.max(1, writeAttempts);
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::runWorker);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Notification workers did not stop within {}s", shutdownTimeoutSeconds);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        List<NotificationEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("Flushing {} queued notification events on shutdown", remaining.size());
+            write(remaining);
+        }
+    }
+
+    public void notifyUser(String userId, String title, String message, String type, String referenceId, Map<String, Object> data) {
+        publish(event(NotificationEvent.Channel.USER, userId, title, message, type, referenceId, data));
+    }
+
+    public void notifyRole(String role, String title, String message, String type, String referenceId, Map<String, Object> data) {
+        publish(event(NotificationEvent.Channel.ROLE, role, title, message, type, referenceId, data));
+    }
+
+    public void sendSms(String phoneNumber, String message, String type, String referenceId) {
+        publish(event(NotificationEvent.Channel.SMS, phoneNumber, null, message, type, referenceId, null));
+    }
+
+    public void publish(NotificationEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+            return;
+        }
+        enqueue(event);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", capacity);
+        stats.put("maxObservedDepth", maxDepth.get());
+        stats.put("workers", workers);
+        stats.put("published", published.get());
+        stats.put("persisted", persisted.get());
+        stats.put("batches", batches.get());
+        stats.put("callerRuns", callerRuns.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    private void enqueue(NotificationEvent event) {
+        published.incrementAndGet();
+        boolean accepted = false;
+        if (running) {
+            try {
+                accepted = queue.offer(event, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!accepted) {
+            callerRuns.incrementAndGet();
+            write(List.of(event));
+            return;
+        }
+        maxDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    private void runWorker() {
+        List<NotificationEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                NotificationEvent first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Notification worker failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<NotificationEvent> events) {
+        List<Notification> notifications = new ArrayList<>();
+        List<smsNotification> outbox = new ArrayList<>();
+        for (NotificationEvent event : events) {
+            if (event.getChannel() == NotificationEvent.Channel.SMS) {
+                outbox.add(toSms(event));
+            } else {
+                notifications.add(toNotification(event));
+            }
+        }
+
+        List<Notification> savedNotifications = persist(notifications, notificationRepository);
+        List<smsNotification> savedOutbox = persist(outbox, smsNotificationRepository);
+        persisted.addAndGet(savedNotifications.size() + savedOutbox.size());
+        batches.incrementAndGet();
+        if (savedNotifications.isEmpty()) {
+            return;
+        }
+        for (Notification notification : savedNotifications) {
+            if (notification.isBroadcast()) {
+                unreadCounterService.broadcastCreated(notification.getTargetRole());
+            } else {
+                unreadCounterService.directCreated(notification.getUserId());
+            }
+        }
+        notificationStreamService.publish(savedNotifications);
+    }
+
+    // Ids are assigned up front so a retry after a partially applied insert upserts instead of duplicating
+    private <T> List<T> persist(List<T> documents, MongoRepository<T, String> repository) {
+        if (documents.isEmpty()) {
+            return documents;
+        }
+        long backoff = retryBackoffMillis;
+        for (int attempt = 1; attempt <= writeAttempts; attempt++) {
+            try {
+                if (attempt == 1) {
+                    repository.insert(documents);
+                } else {
+                    repository.saveAll(documents);
+                }
+                return documents;
+            } catch (Exception e) {
+                log.warn("Persisting {} notification documents failed (attempt {}/{}): {}",
+                        documents.size(), attempt, writeAttempts, e.getMessage());
+            }
+            if (attempt < writeAttempts && !sleep(backoff)) {
+                break;
+            }
+            backoff *= 2;
+        }
+
+        // Last resort: one document at a time so a single bad event cannot sink the rest of the batch
+        List<T> saved = new ArrayList<>(documents.size());
+        for (T document : documents) {
+            try {
+                repository.save(document);
+                saved.add(document);
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.error("Dropping notification document after {} attempts: {}", writeAttempts, document, e);
+            }
+        }
+        return saved;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Notification toNotification(NotificationEvent event) {
+        Notification notification = new Notification();
+        notification.setId(new ObjectId().toHexString());
+        if (event.getChannel() == NotificationEvent.Channel.ROLE) {
+            notification.setTargetRole(event.getRecipient());
+        } else {
+            notification.setUserId(event.getRecipient());
+        }
+        notification.setTitle(event.getTitle());
+        notification.setMessage(event.getMessage());
+        notification.setType(event.getType());
+        notification.setReferenceId(event.getReferenceId());
+        notification.setData(event.getData());
+        notification.setCreatedAt(event.getOccurredAt());
+        return notification;
+    }
+
+    private static smsNotification toSms(NotificationEvent event) {
+        smsNotification sms = new smsNotification();
+        sms.setId(new ObjectId().toHexString());
+        sms.setPhoneNumber(event.getRecipient());
+        sms.setMessage(event.getMessage());
+        sms.setType(event.getType());
+        sms.setReferenceId(event.getReferenceId());
+        sms.setStatus(smsNotification.STATUS_PENDING);
+        sms.setScheduledTime(event.getOccurredAt());
+        return sms;
+    }
+
+    private static NotificationEvent event(NotificationEvent.Channel channel, String recipient, String title,
+                                           String message, String type, String referenceId, Map<String, Object> data) {
+        return NotificationEvent.builder()
+                .channel(channel)
+                .recipient(recipient)
+                .title(title)
+                .message(message)
+                .type(type)
+                .referenceId(referenceId)
+                .data(data)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -1,18 +1,58 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CursorPage;
 import com.ecommerce.model.Notification;
+import com.ecommerce.model.NotificationCounter;
+import com.ecommerce.model.NotificationReceipt;
+import com.ecommerce.model.User;
 import com.ecommerce.repository.NotificationRepository;
+import com.ecommerce.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final String LEGACY_ADMIN_BUCKET = "ADMIN";
+    private static final Comparator<Notification> FEED_ORDER = Comparator
+            .comparing(Notification::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Notification::getId, Comparator.reverseOrder());
+
     private final NotificationRepository notificationRepository;
+    private final MongoTemplate mongoTemplate;
+    private final NotificationStreamService notificationStreamService;
+    private final UnreadCounterService unreadCounterService;
+    private final UserRepository userRepository;
+
+    @Value("${notification.feed.max-age-days:90}")
+    private long feedMaxAgeDays;
 
     public Notification createNotification(String userId, String title, String message, String type, String referenceId) {
         return createNotification(userId, title, message, type, referenceId, null);
@@ -26,27 +66,225 @@ public class NotificationService {
         notification.setType(type);
         notification.setReferenceId(referenceId);
         notification.setData(data);
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        unreadCounterService.directCreated(userId);
+        notificationStreamService.publish(List.of(saved));
+        return saved;
+    }
+
+    public Notification createBroadcast(String role, String title, String message, String type, String referenceId, Map<String, Object> data) {
+        Notification notification = new Notification();
+        notification.setTargetRole(role);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setType(type);
+        notification.setReferenceId(referenceId);
+        notification.setData(data);
+        Notification saved = notificationRepository.save(notification);
+        unreadCounterService.broadcastCreated(role);
+        notificationStreamService.publish(List.of(saved));
+        return saved;
+    }
+
+    public CursorPage<Notification> getNotificationFeed(String userId, String role, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? KeysetPageService.DEFAULT_LIMIT : Math.min(limit, KeysetPageService.MAX_LIMIT);
+        LocalDateTime oldest = LocalDateTime.now().minusDays(feedMaxAgeDays);
+
+        Criteria before = where("createdAt").gte(oldest);
+        if (cursor != null && !cursor.isBlank()) {
+            before = feedCursorCriteria(cursor, oldest);
+        }
+
+        List<Notification> merged = new ArrayList<>(readBucket(where("userId").is(userId), before, pageSize + 1));
+        if (role != null) {
+            merged.addAll(readBucket(where("targetRole").is(role), before, pageSize + 1));
+            merged.sort(FEED_ORDER);
+        }
+
+        boolean hasMore = merged.size() > pageSize;
+        List<Notification> items = hasMore ? new ArrayList<>(merged.subList(0, pageSize)) : merged;
+
+        if (role != null) {
+            NotificationReceipt receipt = getReceipt(userId);
+            for (Notification notification : items) {
+                if (notification.isBroadcast()) {
+                    notification.setRead(receipt.hasRead(notification));
+                }
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Notification last = items.get(items.size() - 1);
+            nextCursor = KeysetPageService.encodeCursor(
+                    last.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli() + ":" + last.getId());
+        }
+        return new CursorPage<>(items, nextCursor, hasMore, pageSize);
+    }
+
+    public long getUnreadCount(String userId, String role) {
+        return unreadCounterService.getUnreadCount(userId, role);
+    }
+
+    private long countUnread(String userId, String role) {
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        if (role == null) {
+            return count;
+        }
+
+        NotificationReceipt receipt = getReceipt(userId);
+        Criteria broadcastUnread = where("targetRole").is(role).and("isRead").is(false);
+        if (receipt.getReadAllBefore() != null) {
+            broadcastUnread.and("createdAt").gt(receipt.getReadAllBefore());
+        }
+        if (!receipt.getReadIds().isEmpty()) {
+            broadcastUnread.and("_id").nin(receipt.getReadIds());
+        }
+        return count + mongoTemplate.count(new Query(broadcastUnread), Notification.class);
+    }
+
+    // The conditional writes decide whether this call did the read, so a repeat or a racing call never decrements twice
+    public void markAsRead(String notificationId, String userId, String role) {
+        Notification notification = mongoTemplate.findById(notificationId, Notification.class);
+        if (notification == null) {
+            throw new RuntimeException("Notification not found");
+        }
+        if (notification.isBroadcast()) {
+            if (!notification.getTargetRole().equals(role)) {
+                throw new RuntimeException("Notification not found");
+            }
+            if (!notification.isRead() && markBroadcastRead(notification, userId)) {
+                unreadCounterService.broadcastRead(userId);
+                notificationStreamService.publishUnreadDelta(userId, -1);
+            }
+            return;
+        }
+        if (!userId.equals(notification.getUserId())) {
+            throw new RuntimeException("Notification not found");
+        }
+        long marked = mongoTemplate.updateFirst(
+                new Query(where("_id").is(notificationId).and("userId").is(userId).and("isRead").is(false)),
+                new Update().set("isRead", true),
+                Notification.class).getModifiedCount();
+        if (marked > 0) {
+            unreadCounterService.directRead(userId);
+            notificationStreamService.publishUnreadDelta(userId, -1);
+        }
+    }
+
+    private boolean markBroadcastRead(Notification notification, String userId) {
+        mongoTemplate.upsert(new Query(where("_id").is(userId)),
+                new Update().setOnInsert("readIds", new ArrayList<String>()),
+                NotificationReceipt.class);
+
+        Criteria unread = where("_id").is(userId).and("readIds").ne(notification.getId());
+        if (notification.getCreatedAt() != null) {
+            unread.orOperator(where("readAllBefore").is(null), where("readAllBefore").lt(notification.getCreatedAt()));
+        }
+        return mongoTemplate.updateFirst(new Query(unread),
+                new Update().addToSet("readIds", notification.getId()).set("updatedAt", LocalDateTime.now()),
+                NotificationReceipt.class).getModifiedCount() > 0;
+    }
+
+    public void markAllAsRead(String userId, String role) {
+        notificationRepository.markAllReadForUser(userId);
+
+        if (role != null) {
+            LocalDateTime now = LocalDateTime.now();
+            mongoTemplate.upsert(
+                    new Query(where("_id").is(userId)),
+                    new Update().set("readAllBefore", now).set("readIds", new ArrayList<String>()).set("updatedAt", now),
+                    NotificationReceipt.class);
+        }
+        unreadCounterService.allRead(userId, role);
+        notificationStreamService.publishUnreadCount(userId, 0);
+    }
+
+    @Scheduled(cron = "${notification.unread.repair-cron:0 45 2 * * *}")
+    public void repairUnreadCounters() {
+        unreadCounterService.flush();
+
+        Aggregation directUnread = Aggregation.newAggregation(
+                Aggregation.match(where("userId").ne(null).and("isRead").is(false)),
+                Aggregation.group("userId").count().as("count"));
+        Map<String, Long> direct = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(directUnread, Notification.class, Document.class).getMappedResults()) {
+            direct.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+        }
+        for (NotificationCounter counter : mongoTemplate.find(
+                new Query(where("_id").regex("^direct:")), NotificationCounter.class)) {
+            direct.putIfAbsent(counter.getId().substring("direct:".length()), 0L);
+        }
+        direct.forEach(unreadCounterService::resetDirect);
+
+        Aggregation broadcastTotals = Aggregation.newAggregation(
+                Aggregation.match(where("targetRole").ne(null)),
+                Aggregation.group("targetRole").count().as("count"));
+        int repairedUsers = 0;
+        for (Document row : mongoTemplate.aggregate(broadcastTotals, Notification.class, Document.class).getMappedResults()) {
+            String role = row.getString("_id");
+            long total = ((Number) row.get("count")).longValue();
+            unreadCounterService.resetBroadcastTotal(role, total);
+
+            for (User user : userRepository.findByRole(role)) {
+                long directCount = direct.getOrDefault(user.getId(), 0L);
+                long broadcastUnread = countUnread(user.getId(), role) - directCount;
+                unreadCounterService.resetBroadcastRead(user.getId(), total - broadcastUnread);
+                repairedUsers++;
+            }
+        }
+        unreadCounterService.flush();
+        log.info("Repaired unread counters for {} direct recipients and {} role members", direct.size(), repairedUsers);
     }
 
-    public List<Notification> getUserNotifications(String userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyAdminBucket() {
+        long migrated = mongoTemplate.updateMulti(
+                new Query(where("userId").is(LEGACY_ADMIN_BUCKET).and("targetRole").exists(false)),
+                new Update().set("targetRole", LEGACY_ADMIN_BUCKET).unset("userId"),
+                Notification.class).getModifiedCount();
+        if (migrated > 0) {
+            log.info("Converted {} legacy ADMIN-bucket notifications to role broadcasts", migrated);
+        }
+        if (migrated > 0 || !mongoTemplate.collectionExists(NotificationCounter.class)) {
+            repairUnreadCounters();
+        }
     }
 
-    public long getUnreadCount(String userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+    private NotificationReceipt getReceipt(String userId) {
+        NotificationReceipt receipt = mongoTemplate.findById(userId, NotificationReceipt.class);
+        if (receipt == null) {
+            receipt = new NotificationReceipt();
+            receipt.setUserId(userId);
+        }
+        if (receipt.getReadIds() == null) {
+            receipt.setReadIds(new HashSet<>());
+        }
+        return receipt;
     }
 
-    public void markAsRead(String notificationId) {
-        notificationRepository.findById(notificationId).ifPresent(notification -> {
-            notification.setRead(true);
-            notificationRepository.save(notification);
-        });
+    private List<Notification> readBucket(Criteria bucket, Criteria before, int limit) {
+        Query query = new Query(new Criteria().andOperator(bucket, before))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Notification.class);
     }
 
-    public void markAllAsRead(String userId) {
-        List<Notification> unreadNotifications = notificationRepository.findByUserIdAndIsReadFalse(userId);
-        unreadNotifications.forEach(n -> n.setRead(true));
-        notificationRepository.saveAll(unreadNotifications);
+    private static Criteria feedCursorCriteria(String cursor, LocalDateTime oldest) {
+        String[] parts = KeysetPageService.decodeCursor(cursor).split(":", 2);
+        LocalDateTime createdAt;
+        try {
+            createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[0])), ZoneOffset.UTC);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+        if (parts.length < 2 || !ObjectId.isValid(parts[1])) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+        return new Criteria().andOperator(
+                where("createdAt").gte(oldest),
+                new Criteria().orOperator(
+                        where("createdAt").lt(createdAt),
+                        where("createdAt").is(createdAt).and("_id").lt(new ObjectId(parts[1]))));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,228 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Notification;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class NotificationStreamService {
+
+    private final Map<String, Set<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<Connection>> connectionsByRole = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final long timeoutMillis;
+    private final int maxPendingPerConnection;
+
+    private final AtomicLong pushed = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+
+    public NotificationStreamService(@Value("${notification.sse.timeout-ms:1800000}") long timeoutMillis,
+                                     @Value("${notification.sse.max-pending:50}") int maxPendingPerConnection,
+                                     @Value("${notification.sse.sender-threads:2}") int senderThreads) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxPendingPerConnection = maxPendingPerConnection;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(String userId, String role, long unreadCount) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(userId, role, emitter);
+
+        attach(connectionsByUser, userId, connection);
+        if (role != null) {
+            attach(connectionsByRole, role, connection);
+        }
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        connection.unreadCount.set(unreadCount);
+        schedule(connection);
+        return emitter;
+    }
+
+    public void publish(Collection<Notification> notifications) {
+        for (Notification notification : notifications) {
+            Set<Connection> targets = notification.isBroadcast()
+                    ? connectionsByRole.get(notification.getTargetRole())
+                    : connectionsByUser.get(notification.getUserId());
+            if (targets == null) {
+                continue;
+            }
+            for (Connection connection : targets) {
+                connection.enqueue(notification, maxPendingPerConnection);
+                schedule(connection);
+            }
+        }
+    }
+
+    public void publishUnreadDelta(String userId, long delta) {
+        Set<Connection> targets = connectionsByUser.get(userId);
+        if (targets == null) return;
+        for (Connection connection : targets) {
+            connection.unreadDelta.addAndGet(delta);
+            schedule(connection);
+        }
+    }
+
+    public void publishUnreadCount(String userId, long unreadCount) {
+        Set<Connection> targets = connectionsByUser.get(userId);
+        if (targets == null) return;
+        for (Connection connection : targets) {
+            connection.unreadDelta.set(0);
+            connection.unreadCount.set(unreadCount);
+            schedule(connection);
+        }
+    }
+
+    // Only flags the connections; the pings go out on the sender pool so a stalled client cannot hold up the shared scheduler
+    @Scheduled(fixedRateString = "${notification.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Connection> connections : connectionsByUser.values()) {
+            for (Connection connection : connections) {
+                connection.heartbeat.set(true);
+                schedule(connection);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connectedUsers", connectionsByUser.size());
+        stats.put("connections", connectionsByUser.values().stream().mapToInt(Set::size).sum());
+        stats.put("pushed", pushed.get());
+        stats.put("resyncs", resyncs.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        connectionsByUser.values().forEach(connections -> connections.forEach(c -> c.emitter.complete()));
+    }
+
+    private void schedule(Connection connection) {
+        if (connection.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> flush(connection));
+        }
+    }
+
+    private void flush(Connection connection) {
+        connection.scheduled.set(false);
+        try {
+            synchronized (connection) {
+                if (connection.heartbeat.getAndSet(false)) {
+                    connection.emitter.send(SseEmitter.event().comment("ping"));
+                }
+                if (connection.overflowed.getAndSet(false)) {
+                    connection.pending.clear();
+                    connection.unreadDelta.set(0);
+                    connection.unreadCount.set(-1);
+                    connection.emitter.send(SseEmitter.event().name("resync").data(""));
+                    resyncs.incrementAndGet();
+                }
+
+                List<Notification> batch = new ArrayList<>();
+                Notification next;
+                while ((next = connection.pending.poll()) != null) {
+                    batch.add(next);
+                }
+                for (Notification notification : batch) {
+                    connection.emitter.send(SseEmitter.event()
+                            .name("notification")
+                            .id(notification.getId())
+                            .data(notification));
+                    pushed.incrementAndGet();
+                }
+
+                long count = connection.unreadCount.getAndSet(-1);
+                if (count >= 0) {
+                    connection.emitter.send(SseEmitter.event().name("unread-count").data(count));
+                }
+                long delta = connection.unreadDelta.getAndSet(0) + batch.size();
+                if (delta != 0 && count < 0) {
+                    connection.emitter.send(SseEmitter.event().name("unread-delta").data(delta));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping notification stream for user {}: {}", connection.userId, e.getMessage());
+            connection.emitter.completeWithError(e);
+            remove(connection);
+        }
+    }
+
+    private void remove(Connection connection) {
+        detach(connectionsByUser, connection.userId, connection);
+        if (connection.role != null) {
+            detach(connectionsByRole, connection.role, connection);
+        }
+    }
+
+    // Add and remove both run inside compute so an emptied set is never dropped after a new subscriber joined it
+    private static void attach(Map<String, Set<Connection>> connections, String key, Connection connection) {
+        connections.compute(key, (k, v) -> {
+            Set<Connection> set = v != null ? v : ConcurrentHashMap.newKeySet();
+            set.add(connection);
+            return set;
+        });
+    }
+
+    private static void detach(Map<String, Set<Connection>> connections, String key, Connection connection) {
+        connections.computeIfPresent(key, (k, v) -> {
+            v.remove(connection);
+            return v.isEmpty() ? null : v;
+        });
+    }
+
+    private static class Connection {
+        private final String userId;
+        private final String role;
+        private final SseEmitter emitter;
+        private final Queue<Notification> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicLong unreadCount = new AtomicLong(-1);
+        private final AtomicLong unreadDelta = new AtomicLong();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean heartbeat = new AtomicBoolean();
+
+        Connection(String userId, String role, SseEmitter emitter) {
+            this.userId = userId;
+            this.role = role;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Notification notification, int maxPending) {
+            if (pending.size() >= maxPending) {
+                overflowed.set(true);
+                return;
+            }
+            pending.add(notification);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.WhatIfResult;
+import com.ecommerce.dto.WhatIfScenario;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.GoldAllocation;
+import com.ecommerce.model.GoldItem;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+public class PortfolioSimulationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final InterestCalculationService interestCalculationService;
+    private final ForkJoinPool pool;
+    private final long snapshotTtlMillis;
+
+    private volatile Snapshot snapshot;
+
+    public PortfolioSimulationService(MongoTemplate mongoTemplate,
+                                      InterestCalculationService interestCalculationService,
+                                      @Value("${simulation.parallelism:0}") int parallelism,
+                                      @Value("${simulation.snapshot.ttl-seconds:300}") long snapshotTtlSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.interestCalculationService = interestCalculationService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.snapshotTtlMillis = snapshotTtlSeconds * 1000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public WhatIfResult simulate(WhatIfScenario scenario) {
+        return run(currentSnapshot(), scenario);
+    }
+
+    public List<WhatIfResult> simulateAll(List<WhatIfScenario> scenarios) {
+        Snapshot current = currentSnapshot();
+        List<WhatIfResult> results = new ArrayList<>(scenarios.size());
+        for (WhatIfScenario scenario : scenarios) {
+            results.add(run(current, scenario));
+        }
+        return results;
+    }
+
+    public Map<String, Object> refreshSnapshot() {
+        Snapshot refreshed = load();
+        snapshot = refreshed;
+        return describe(refreshed);
+    }
+
+    public Map<String, Object> getSnapshotInfo() {
+        Snapshot current = snapshot;
+        return current != null ? describe(current) : Map.of("loaded", false);
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null || current.expiresAt < System.currentTimeMillis()) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || current.expiresAt < System.currentTimeMillis()) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private WhatIfResult run(Snapshot s, WhatIfScenario scenario) {
+        long started = System.currentTimeMillis();
+        int horizon = scenario.getHorizonMonths() != null ? scenario.getHorizonMonths() : Integer.MAX_VALUE;
+        long horizonDays = scenario.getHorizonMonths() != null
+                ? ChronoUnit.DAYS.between(s.takenAt, s.takenAt.plusMonths(horizon)) : Long.MAX_VALUE;
+        double goldFactor = 1 + scenario.getGoldPriceChangePercent() / 100;
+
+        Totals totals;
+        try {
+            totals = pool.submit(() -> {
+                Totals customer = IntStream.range(0, s.customerCount).parallel()
+                        .collect(Totals::new, (t, i) -> t.addCustomerLoan(s, i, horizonDays, scenario, goldFactor), Totals::merge);
+                Totals bank = IntStream.range(0, s.bankCount).parallel()
+                        .collect(Totals::new, (t, i) -> t.addBankLoan(s, i, horizon, scenario, goldFactor), Totals::merge);
+                customer.merge(bank);
+                return customer;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Simulation interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Simulation failed: " + e.getCause().getMessage());
+        }
+
+        WhatIfResult.Projection baseline = totals.projection(false);
+        WhatIfResult.Projection projected = totals.projection(true);
+        return WhatIfResult.builder()
+                .scenario(scenario.getName())
+                .baseline(baseline)
+                .projected(projected)
+                .netMarginChange(projected.getNetMargin() - baseline.getNetMargin())
+                .customerLoans(s.customerCount)
+                .bankLoans(s.bankCount)
+                .earlyRepaidLoans(totals.earlyRepaid)
+                .snapshotTakenAt(s.takenAt)
+                .durationMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    private Snapshot load() {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Both sides value pledged gold at the item's current collateral value, not the figure stored at pledge time
+        Map<String, Double> goldByCustomerLoan = new HashMap<>();
+        Map<String, Double> goldByBankItem = new HashMap<>();
+        Query goldQuery = new Query(where("status").in("PLEDGED", "PLEDGED_TO_BANK"));
+        goldQuery.fields().include("customerLoanId", "status", "estimatedValue", "appraisedValue");
+        try (Stream<GoldItem> items = mongoTemplate.stream(goldQuery, GoldItem.class)) {
+            items.forEach(item -> {
+                double value = item.collateralValue() != null ? item.collateralValue() : 0.0;
+                if ("PLEDGED_TO_BANK".equals(item.getStatus())) {
+                    goldByBankItem.put(item.getId(), value);
+                }
+                if (item.getCustomerLoanId() != null) {
+                    goldByCustomerLoan.merge(item.getCustomerLoanId(), value, Double::sum);
+                }
+            });
+        }
+
+        Query customerQuery = new Query(where("status").is("ACTIVE"));
+        customerQuery.fields().include("outstandingAmount", "interestRate", "interestType", "maturityDate");
+        List<CustomerLoan> customerLoans;
+        try (Stream<CustomerLoan> loans = mongoTemplate.stream(customerQuery, CustomerLoan.class)) {
+            customerLoans = loans.toList();
+        }
+
+        Snapshot s = new Snapshot(customerLoans.size());
+        for (int i = 0; i < customerLoans.size(); i++) {
+            CustomerLoan loan = customerLoans.get(i);
+            s.customerOutstanding[i] = valueOf(loan.getOutstandingAmount());
+            s.customerRate[i] = valueOf(loan.getInterestRate());
+            s.customerInterestType[i] = loan.getInterestType();
+            s.customerRemainingDays[i] = remainingDays(now, loan.getMaturityDate());
+            s.customerGoldValue[i] = goldByCustomerLoan.getOrDefault(loan.getId(), 0.0);
+            s.customerDraw[i] = draw(loan.getId());
+        }
+
+        Query bankQuery = new Query(where("status").is("ACTIVE"));
+        bankQuery.fields().include("outstandingAmount", "interestRate", "maturityDate", "pledgedGoldItemIds",
+                "individualGoldCalculations");
+        List<BankLoan> bankLoans;
+        try (Stream<BankLoan> loans = mongoTemplate.stream(bankQuery, BankLoan.class)) {
+            bankLoans = loans.toList();
+        }
+        s.initBank(bankLoans.size());
+        for (int j = 0; j < bankLoans.size(); j++) {
+            BankLoan loan = bankLoans.get(j);
+            double outstanding = valueOf(loan.getOutstandingAmount());
+            s.bankRate[j] = valueOf(loan.getInterestRate());
+            s.bankRemainingMonths[j] = remainingMonths(now, loan.getMaturityDate());
+            s.bankOutstanding[j] = outstanding;
+
+            double allocated = 0;
+            if (loan.getIndividualGoldCalculations() != null) {
+                for (GoldAllocation allocation : loan.getIndividualGoldCalculations()) {
+                    allocated += allocation.getRemainingPrincipal();
+                }
+            }
+            double gold = 0;
+            if (loan.getPledgedGoldItemIds() != null) {
+                for (String itemId : loan.getPledgedGoldItemIds()) {
+                    gold += goldByBankItem.getOrDefault(itemId, 0.0);
+                }
+            }
+            s.bankPrincipal[j] = allocated > 0 ? allocated : outstanding;
+            s.bankGoldValue[j] = gold;
+        }
+
+        s.takenAt = now;
+        s.expiresAt = System.currentTimeMillis() + snapshotTtlMillis;
+        log.info("Loaded simulation snapshot of {} customer loans and {} bank loans in {} ms",
+                s.customerCount, s.bankCount, System.currentTimeMillis() - started);
+        return s;
+    }
+
+    private Map<String, Object> describe(Snapshot s) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("loaded", true);
+        info.put("customerLoans", s.customerCount);
+        info.put("bankLoans", s.bankCount);
+        info.put("takenAt", s.takenAt);
+        info.put("ttlSeconds", snapshotTtlMillis / 1000);
+        return info;
+    }
+
+    private static long remainingDays(LocalDateTime now, LocalDateTime maturity) {
+        if (maturity == null || !maturity.isAfter(now)) return 0;
+        return ChronoUnit.DAYS.between(now, maturity);
+    }
+
+    private static int remainingMonths(LocalDateTime now, LocalDateTime maturity) {
+        if (maturity == null || !maturity.isAfter(now)) return 0;
+        long months = ChronoUnit.MONTHS.between(now, maturity);
+        return (int) (now.plusMonths(months).isBefore(maturity) ? months + 1 : months);
+    }
+
+    // Stable per-loan value in [0, 1) so the same loans are picked for early repayment on every run
+    private static double draw(String id) {
+        long h = id != null ? id.hashCode() : 0;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static final class Snapshot {
+        private final int customerCount;
+        private final double[] customerOutstanding;
+        private final double[] customerRate;
+        private final String[] customerInterestType;
+        private final long[] customerRemainingDays;
+        private final double[] customerGoldValue;
+        private final double[] customerDraw;
+
+        private int bankCount;
+        private double[] bankOutstanding;
+        private double[] bankPrincipal;
+        private double[] bankRate;
+        private int[] bankRemainingMonths;
+        private double[] bankGoldValue;
+
+        private LocalDateTime takenAt;
+        private long expiresAt;
+
+        Snapshot(int customerCount) {
+            this.customerCount = customerCount;
+            this.customerOutstanding = new double[customerCount];
+            this.customerRate = new double[customerCount];
+            this.customerInterestType = new String[customerCount];
+            this.customerRemainingDays = new long[customerCount];
+            this.customerGoldValue = new double[customerCount];
+            this.customerDraw = new double[customerCount];
+        }
+
+        void initBank(int bankCount) {
+            this.bankCount = bankCount;
+            this.bankOutstanding = new double[bankCount];
+            this.bankPrincipal = new double[bankCount];
+            this.bankRate = new double[bankCount];
+            this.bankRemainingMonths = new int[bankCount];
+            this.bankGoldValue = new double[bankCount];
+        }
+    }
+
+    private final class Totals {
+        private double baseReceivable;
+        private double receivable;
+        private double basePayable;
+        private double payable;
+        private double baseCollateral;
+        private double collateral;
+        private double baseShortfall;
+        private double shortfall;
+        private long baseUnderCustomer;
+        private long underCustomer;
+        private long baseUnderBank;
+        private long underBank;
+        private long earlyRepaid;
+
+        void addCustomerLoan(Snapshot s, int i, long horizonDays, WhatIfScenario scenario, double goldFactor) {
+            double outstanding = s.customerOutstanding[i];
+            long days = Math.min(horizonDays, s.customerRemainingDays[i]);
+            double gold = s.customerGoldValue[i];
+
+            baseReceivable += interestCalculationService.projectInterest(
+                    outstanding, s.customerRate[i], s.customerInterestType[i], days);
+            baseCollateral += gold;
+            if (gold < outstanding) {
+                baseShortfall += outstanding - gold;
+                baseUnderCustomer++;
+            }
+
+            if (s.customerDraw[i] < scenario.getEarlyRepaymentShare()) {
+                earlyRepaid++;
+                return;
+            }
+            double shockedGold = gold * goldFactor;
+            receivable += interestCalculationService.projectInterest(
+                    outstanding, Math.max(0, s.customerRate[i] + scenario.getCustomerRateChange()),
+                    s.customerInterestType[i], days);
+            collateral += shockedGold;
+            if (shockedGold < outstanding) {
+                shortfall += outstanding - shockedGold;
+                underCustomer++;
+            }
+        }
+
+        void addBankLoan(Snapshot s, int j, int horizon, WhatIfScenario scenario, double goldFactor) {
+            int months = Math.min(horizon, s.bankRemainingMonths[j]);
+            double principal = s.bankPrincipal[j];
+            double gold = s.bankGoldValue[j];
+
+            basePayable += principal * (s.bankRate[j] / 100) * months;
+            payable += principal * (Math.max(0, s.bankRate[j] + scenario.getBankRateChange()) / 100) * months;
+            if (gold < s.bankOutstanding[j]) baseUnderBank++;
+            if (gold * goldFactor < s.bankOutstanding[j]) underBank++;
+        }
+
+        void merge(Totals other) {
+            baseReceivable += other.baseReceivable;
+            receivable += other.receivable;
+            basePayable += other.basePayable;
+            payable += other.payable;
+            baseCollateral += other.baseCollateral;
+            collateral += other.collateral;
+            baseShortfall += other.baseShortfall;
+            shortfall += other.shortfall;
+            baseUnderCustomer += other.baseUnderCustomer;
+            underCustomer += other.underCustomer;
+            baseUnderBank += other.baseUnderBank;
+            underBank += other.underBank;
+            earlyRepaid += other.earlyRepaid;
+        }
+
+        WhatIfResult.Projection projection(boolean scenario) {
+            double r = scenario ? receivable : baseReceivable;
+            double p = scenario ? payable : basePayable;
+            return WhatIfResult.Projection.builder()
+                    .receivableInterest(r)
+                    .payableInterest(p)
+                    .netMargin(r - p)
+                    .collateralValue(scenario ? collateral : baseCollateral)
+                    .collateralShortfall(scenario ? shortfall : baseShortfall)
+                    .underCollateralisedCustomerLoans(scenario ? underCustomer : baseUnderCustomer)
+                    .underCollateralisedBankLoans(scenario ? underBank : baseUnderBank)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class RateFactorTables {
+
+    public static final double RELATIVE_TOLERANCE = 1e-9;
+
+    private static final int MAX_CACHED_RATES = 512;
+    private static final int INITIAL_MONTHS = 121;
+    private static final int INITIAL_DAYS = 3661;
+
+    private final Map<Long, Factors> cache = new ConcurrentHashMap<>();
+
+    public double monthlyFactor(double annualRate, int months) {
+        if (months <= 0) return 1.0;
+        return factors(annualRate).monthly(months);
+    }
+
+    public double dailyFactor(double annualRate, long days) {
+        if (days <= 0) return 1.0;
+        if (days > Integer.MAX_VALUE - 1) {
+            return Math.pow(1 + annualRate / 100 / 12, 12 * days / 365.0);
+        }
+        return factors(annualRate).daily((int) days);
+    }
+
+    public int cachedRates() {
+        return cache.size();
+    }
+
+    private Factors factors(double annualRate) {
+        long key = Math.round(annualRate * 1_000_000);
+        Factors factors = cache.get(key);
+        if (factors == null) {
+            if (cache.size() >= MAX_CACHED_RATES) {
+                cache.clear();
+            }
+            factors = cache.computeIfAbsent(key, k -> new Factors(k / 1_000_000.0));
+        }
+        return factors;
+    }
+
+    private static final class Factors {
+        private final double monthlyGrowth;
+        private final double dailyGrowth;
+        private volatile double[] monthly;
+        private volatile double[] daily;
+
+        Factors(double annualRate) {
+            this.monthlyGrowth = 1 + annualRate / 100 / 12;
+            this.dailyGrowth = Math.pow(monthlyGrowth, 12 / 365.0);
+            this.monthly = powers(monthlyGrowth, INITIAL_MONTHS);
+            this.daily = powers(dailyGrowth, INITIAL_DAYS);
+        }
+
+        double monthly(int n) {
+            double[] table = monthly;
+            if (n >= table.length) {
+                table = grow(true, n);
+            }
+            return table[n];
+        }
+
+        double daily(int n) {
+            double[] table = daily;
+            if (n >= table.length) {
+                table = grow(false, n);
+            }
+            return table[n];
+        }
+
+        private synchronized double[] grow(boolean months, int n) {
+            double[] table = months ? monthly : daily;
+            if (n < table.length) return table;
+            double[] grown = powers(months ? monthlyGrowth : dailyGrowth, Math.max(n + 1, table.length * 2));
+            if (months) {
+                monthly = grown;
+            } else {
+                daily = grown;
+            }
+            return grown;
+        }
+
+        private static double[] powers(double base, int size) {
+            double[] table = new double[size];
+            table[0] = 1.0;
+            for (int i = 1; i < size; i++) {
+                table[i] = table[i - 1] * base;
+            }
+            return table;
+        }
+    }
+}
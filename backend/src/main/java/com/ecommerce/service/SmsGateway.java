@@ -0,0 +1,8 @@
+package com.ecommerce.service;
+
+public interface SmsGateway {
+
+    String getName();
+
+    void send(String phoneNumber, String message);
+}
@@ -1,19 +1,255 @@
 package com.ecommerce.service;
 
+import com.ecommerce.model.smsNotification;
+import com.ecommerce.repository.SmsNotificationRepository;
+import com.ecommerce.utils.TokenBucket;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Slf4j
 @Service
 public class SmsService {
-    public void sendSms(String phoneNumber, String message, String type, String referenceId) {
-        log.info("SMS sent to: {}, Type: {}, Message: {}", phoneNumber, type, message);
-
-        System.out.println(" SMS NOTIFICATION");
-        System.out.println("To: " + phoneNumber);
-        System.out.println("Type: " + type);
-        System.out.println("Message: " + message);
-        System.out.println("Reference ID: " + referenceId);
-        System.out.println("  ");
+
+    private final MongoTemplate mongoTemplate;
+    private final SmsNotificationRepository smsNotificationRepository;
+    private final SmsGateway gateway;
+    private final TokenBucket rateLimiter;
+
+    private final String workerId = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final int claimLimit;
+    private final long pollMillis;
+    private final long leaseSeconds;
+    private final int maxAttempts;
+    private final long backoffBaseSeconds;
+    private final long backoffMaxSeconds;
+
+    private ExecutorService worker;
+    private volatile boolean running;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    public SmsService(MongoTemplate mongoTemplate,
+                      SmsNotificationRepository smsNotificationRepository,
+                      SmsGateway gateway,
+                      Environment environment,
+                      @Value("${sms.outbox.batch-size:50}") int batchSize,
+                      @Value("${sms.outbox.poll-ms:5000}") long pollMillis,
+                      @Value("${sms.outbox.lease-seconds:60}") long leaseSeconds,
+                      @Value("${sms.outbox.max-attempts:5}") int maxAttempts,
+                      @Value("${sms.outbox.backoff-base-seconds:30}") long backoffBaseSeconds,
+                      @Value("${sms.outbox.backoff-max-seconds:3600}") long backoffMaxSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.smsNotificationRepository = smsNotificationRepository;
+        this.gateway = gateway;
+        double ratePerSecond = environment.getProperty(
+                "sms.gateway." + gateway.getName() + ".rate-per-second", Double.class, 5.0);
+        double burst = environment.getProperty(
+                "sms.gateway." + gateway.getName() + ".burst", Double.class, ratePerSecond);
+        this.rateLimiter = new TokenBucket(ratePerSecond, burst);
+        this.batchSize = batchSize;
+        // Never claim more than the rate limiter lets us send before the lease runs out
+        this.claimLimit = (int) Math.max(1, Math.min(batchSize, Math.floor(burst + ratePerSecond * leaseSeconds / 2)));
+        this.pollMillis = pollMillis;
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseSeconds = backoffBaseSeconds;
+        this.backoffMaxSeconds = backoffMaxSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sms-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.submit(this::runWorker);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        worker.shutdownNow();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int processBatch() throws InterruptedException {
+        List<smsNotification> claimed = claimBatch();
+        for (int i = 0; i < claimed.size(); i++) {
+            smsNotification sms = claimed.get(i);
+            if (sms.getRetryCount() != null && sms.getRetryCount() >= maxAttempts) {
+                deadLetter(sms, "Lease expired on every attempt");
+                continue;
+            }
+            rateLimiter.acquire();
+            if (!LocalDateTime.now().isBefore(sms.getLeaseExpiresAt())) {
+                log.warn("Lease expired before sending SMS {}, releasing {} claimed messages", sms.getId(), claimed.size() - i);
+                claimed.subList(i, claimed.size()).forEach(this::release);
+                break;
+            }
+            deliver(sms);
+        }
+        return claimed.size();
+    }
+
+    public smsNotification retryDeadLetter(String id) {
+        smsNotification sms = smsNotificationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("SMS not found"));
+        if (!smsNotification.STATUS_DEAD_LETTER.equals(sms.getStatus())) {
+            throw new RuntimeException("SMS is not dead-lettered");
+        }
+        sms.setStatus(smsNotification.STATUS_PENDING);
+        sms.setRetryCount(0);
+        sms.setScheduledTime(LocalDateTime.now());
+        sms.setLastError(null);
+        return smsNotificationRepository.save(sms);
+    }
+
+    public List<smsNotification> getDeadLetters() {
+        return smsNotificationRepository.findByStatus(smsNotification.STATUS_DEAD_LETTER);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("gateway", gateway.getName());
+        for (String status : List.of(smsNotification.STATUS_PENDING, smsNotification.STATUS_SENDING,
+                smsNotification.STATUS_SENT, smsNotification.STATUS_DEAD_LETTER)) {
+            stats.put(status.toLowerCase(), mongoTemplate.count(new Query(where("status").is(status)), smsNotification.class));
+        }
+        stats.put("sentByThisWorker", sent.get());
+        stats.put("retriedByThisWorker", retried.get());
+        stats.put("deadLetteredByThisWorker", deadLettered.get());
+        return stats;
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                if (processBatch() < batchSize) {
+                    Thread.sleep(pollMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("SMS outbox worker failed", e);
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<smsNotification> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<smsNotification> claimed = new ArrayList<>();
+        // A lapsed lease means the previous holder may have crashed mid-send, so reclaiming counts as an attempt
+        claimInto(claimed, new Query(where("status").is(smsNotification.STATUS_SENDING).and("leaseExpiresAt").lt(now))
+                .with(Sort.by(Sort.Direction.ASC, "leaseExpiresAt")), claimUpdate(now).inc("retryCount", 1));
+        claimInto(claimed, new Query(where("status").is(smsNotification.STATUS_PENDING).and("scheduledTime").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "scheduledTime")), claimUpdate(now));
+        return claimed;
+    }
+
+    private void claimInto(List<smsNotification> claimed, Query query, Update update) {
+        while (claimed.size() < claimLimit) {
+            smsNotification sms = mongoTemplate.findAndModify(
+                    query, update, FindAndModifyOptions.options().returnNew(true), smsNotification.class);
+            if (sms == null) {
+                return;
+            }
+            claimed.add(sms);
+        }
+    }
+
+    private Update claimUpdate(LocalDateTime now) {
+        return new Update()
+                .set("status", smsNotification.STATUS_SENDING)
+                .set("leaseOwner", workerId)
+                .set("leaseExpiresAt", now.plusSeconds(leaseSeconds))
+                .set("gateway", gateway.getName());
+    }
+
+    private void release(smsNotification sms) {
+        complete(sms, new Update().set("status", smsNotification.STATUS_PENDING));
+    }
+
+    private void deadLetter(smsNotification sms, String error) {
+        log.warn("SMS {} dead-lettered after {} attempts: {}", sms.getId(), sms.getRetryCount(), error);
+        complete(sms, new Update().set("status", smsNotification.STATUS_DEAD_LETTER).set("lastError", error));
+        deadLettered.incrementAndGet();
+    }
+
+    private void deliver(smsNotification sms) {
+        try {
+            gateway.send(sms.getPhoneNumber(), sms.getMessage());
+            complete(sms, new Update()
+                    .set("status", smsNotification.STATUS_SENT)
+                    .set("sentTime", LocalDateTime.now())
+                    .unset("lastError"));
+            sent.incrementAndGet();
+        } catch (Exception e) {
+            int attempts = (sms.getRetryCount() == null ? 0 : sms.getRetryCount()) + 1;
+            Update update = new Update().set("retryCount", attempts).set("lastError", e.getMessage());
+            if (attempts >= maxAttempts) {
+                log.warn("SMS {} dead-lettered after {} attempts: {}", sms.getId(), attempts, e.getMessage());
+                update.set("status", smsNotification.STATUS_DEAD_LETTER);
+                deadLettered.incrementAndGet();
+            } else {
+                update.set("status", smsNotification.STATUS_PENDING)
+                        .set("scheduledTime", LocalDateTime.now().plusSeconds(backoffSeconds(attempts)));
+                retried.incrementAndGet();
+            }
+            complete(sms, update);
+        }
+    }
+
+    private void complete(smsNotification sms, Update update) {
+        update.unset("leaseOwner").unset("leaseExpiresAt");
+        UpdateResult result = mongoTemplate.updateFirst(
+                new Query(where("_id").is(sms.getId()).and("leaseOwner").is(workerId)), update, smsNotification.class);
+        if (result.getModifiedCount() == 0) {
+            log.warn("Lease on SMS {} was lost before completion", sms.getId());
+        }
+    }
+
+    private long backoffSeconds(int attempts) {
+        long delay = Math.min(backoffMaxSeconds, backoffBaseSeconds << Math.min(attempts - 1, 20));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 4 + 1);
     }
 }
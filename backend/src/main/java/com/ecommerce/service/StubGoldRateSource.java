@@ -0,0 +1,40 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.GoldRateRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "gold.rate.source", havingValue = "stub", matchIfMissing = true)
+public class StubGoldRateSource implements GoldRateSource {
+
+    private final double price24k;
+    private final double price22k;
+    private final double price18k;
+
+    public StubGoldRateSource(@Value("${gold.rate.stub.24k:0}") double price24k,
+                              @Value("${gold.rate.stub.22k:0}") double price22k,
+                              @Value("${gold.rate.stub.18k:0}") double price18k) {
+        this.price24k = price24k;
+        this.price22k = price22k;
+        this.price18k = price18k;
+    }
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public List<GoldRateRequest> fetch() {
+        List<GoldRateRequest> rates = new ArrayList<>();
+        if (price24k > 0) rates.add(new GoldRateRequest("24K", price24k));
+        if (price22k > 0) rates.add(new GoldRateRequest("22K", price22k));
+        if (price18k > 0) rates.add(new GoldRateRequest("18K", price18k));
+        return rates;
+    }
+}
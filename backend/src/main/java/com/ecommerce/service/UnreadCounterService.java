@@ -0,0 +1,231 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.NotificationCounter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Slf4j
+@Service
+public class UnreadCounterService {
+
+    private static final String DIRECT_PREFIX = "direct:";
+    private static final String BROADCAST_TOTAL_PREFIX = "broadcast-total:";
+    private static final String BROADCAST_READ_PREFIX = "broadcast-read:";
+
+    private final MongoTemplate mongoTemplate;
+    private final long reloadTtlMillis;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public UnreadCounterService(MongoTemplate mongoTemplate,
+                                @Value("${notification.unread.reload-ttl-ms:300000}") long reloadTtlMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.reloadTtlMillis = reloadTtlMillis;
+    }
+
+    public long getUnreadCount(String userId, String role) {
+        long count = value(DIRECT_PREFIX + userId);
+        if (role != null) {
+            count += Math.max(0, value(BROADCAST_TOTAL_PREFIX + role) - value(BROADCAST_READ_PREFIX + userId));
+        }
+        return Math.max(0, count);
+    }
+
+    public void directCreated(String userId) {
+        add(DIRECT_PREFIX + userId, 1);
+    }
+
+    public void directRead(String userId) {
+        add(DIRECT_PREFIX + userId, -1);
+    }
+
+    public void broadcastCreated(String role) {
+        add(BROADCAST_TOTAL_PREFIX + role, 1);
+    }
+
+    public void broadcastRead(String userId) {
+        add(BROADCAST_READ_PREFIX + userId, 1);
+    }
+
+    public void allRead(String userId, String role) {
+        set(DIRECT_PREFIX + userId, 0);
+        if (role != null) {
+            set(BROADCAST_READ_PREFIX + userId, value(BROADCAST_TOTAL_PREFIX + role));
+        }
+    }
+
+    public void resetDirect(String userId, long unread) {
+        set(DIRECT_PREFIX + userId, unread);
+    }
+
+    public void resetBroadcastTotal(String role, long total) {
+        set(BROADCAST_TOTAL_PREFIX + role, total);
+    }
+
+    public void resetBroadcastRead(String userId, long read) {
+        set(BROADCAST_READ_PREFIX + userId, read);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.unread.flush-ms:5000}")
+    public void flush() {
+        // Single-flight: a pass still running means the counters it snapshots are already being written
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            flushCounters();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            flushCounters();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushCounters() {
+        LocalDateTime now = LocalDateTime.now();
+        long staleBefore = System.currentTimeMillis() - reloadTtlMillis;
+        int written = 0;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            boolean set;
+            long value;
+            long delta;
+            synchronized (counter) {
+                if (!counter.dirty) {
+                    // Idle counters are dropped, and clean ones past the TTL are reloaded on next use to pick up writes from other instances
+                    if (!counter.touched || counter.loadedAt < staleBefore) {
+                        counter.evicted = true;
+                        counters.remove(entry.getKey(), counter);
+                    }
+                    counter.touched = false;
+                    continue;
+                }
+                set = counter.pendingSet;
+                value = counter.value;
+                delta = counter.pendingDelta;
+                counter.pendingSet = false;
+                counter.pendingDelta = 0;
+                counter.dirty = false;
+                counter.touched = false;
+            }
+
+            Update update = set ? new Update().set("value", value) : new Update().inc("value", delta);
+            NotificationCounter stored;
+            try {
+                stored = mongoTemplate.findAndModify(new Query(where("_id").is(entry.getKey())), update.set("updatedAt", now),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), NotificationCounter.class);
+            } catch (Exception e) {
+                requeue(counter, set, delta);
+                log.warn("Failed to persist unread counter {}: {}", entry.getKey(), e.getMessage());
+                continue;
+            }
+            refresh(counter, stored);
+            written++;
+        }
+        if (written > 0) {
+            log.debug("Persisted {} unread counters", written);
+        }
+    }
+
+    private static void requeue(Counter counter, boolean set, long delta) {
+        synchronized (counter) {
+            if (!counter.pendingSet) {
+                counter.pendingSet = set;
+                counter.pendingDelta = set ? 0 : counter.pendingDelta + delta;
+            }
+            counter.dirty = true;
+        }
+    }
+
+    // The stored value after an $inc includes other instances' writes; re-apply whatever arrived locally since the snapshot
+    private static void refresh(Counter counter, NotificationCounter stored) {
+        if (stored == null || stored.getValue() == null) {
+            return;
+        }
+        synchronized (counter) {
+            if (!counter.pendingSet) {
+                counter.value = stored.getValue() + counter.pendingDelta;
+            }
+            counter.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    private long value(String key) {
+        Counter counter = load(key);
+        synchronized (counter) {
+            counter.touched = true;
+            return counter.value;
+        }
+    }
+
+    private void add(String key, long delta) {
+        while (true) {
+            Counter counter = load(key);
+            synchronized (counter) {
+                if (counter.evicted) continue;
+                counter.value += delta;
+                counter.pendingDelta += delta;
+                counter.dirty = true;
+                counter.touched = true;
+                return;
+            }
+        }
+    }
+
+    private void set(String key, long value) {
+        while (true) {
+            Counter counter = load(key);
+            synchronized (counter) {
+                if (counter.evicted) continue;
+                counter.value = value;
+                counter.pendingSet = true;
+                counter.pendingDelta = 0;
+                counter.dirty = true;
+                counter.touched = true;
+                return;
+            }
+        }
+    }
+
+    private Counter load(String key) {
+        return counters.computeIfAbsent(key, k -> {
+            NotificationCounter stored = mongoTemplate.findById(k, NotificationCounter.class);
+            Counter counter = new Counter();
+            counter.value = stored != null && stored.getValue() != null ? stored.getValue() : 0;
+            counter.loadedAt = System.currentTimeMillis();
+            return counter;
+        });
+    }
+
+    private static class Counter {
+        private long value;
+        private long pendingDelta;
+        private boolean pendingSet;
+        private boolean dirty;
+        private boolean touched;
+        private boolean evicted;
+        private long loadedAt;
+    }
+}
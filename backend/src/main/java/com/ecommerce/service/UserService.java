@@ -1,6 +1,7 @@
 package com.ecommerce.service;
 
 import com.ecommerce.constants.PermissionConstants;
+import com.ecommerce.dto.CursorPage;
 import com.ecommerce.dto.UserRoleRequest;
 import com.ecommerce.dto.UserRoleResponse;
 import com.ecommerce.model.Customer;
@@ -9,6 +10,7 @@ import com.ecommerce.repository.CustomerRepository;
 import com.ecommerce.dto.UserProfileUpdateRequest;
 import com.ecommerce.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
@@ -16,6 +18,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +28,8 @@ public class UserService {
     private final CustomerRepository customerRepository;
     private final PasswordEncoder passwordEncoder;
     private final NotificationService notificationService;
+    private final KeysetPageService keysetPageService;
+    private final CustomerCache customerCache;
 
     public UserRoleResponse createUserWithRole(UserRoleRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -240,6 +245,16 @@ public class UserService {
         return Optional.empty();
     }
 
+    public CursorPage<Customer> getCustomersPage(String cursor, Integer limit, String query, List<String> ids) {
+        Criteria filter = KeysetPageService.allOf(KeysetPageService.idIn(ids),
+                KeysetPageService.matching(query, "fullName", "email", "phoneNumber"));
+        return keysetPageService.page(filter, cursor, limit, Customer.class, Customer::getId);
+    }
+
+    public Stream<Customer> streamCustomers() {
+        return keysetPageService.stream(null, Customer.class);
+    }
+
     public Customer getCustomerByEmail(String email) {
         return customerRepository.findByEmail(email).orElse(null);
     }
@@ -379,6 +394,8 @@ public class UserService {
         customer.setProfileImage(request.getProfileImage());
         customer.setUpdatedAt(LocalDateTime.now());
 
-        return customerRepository.save(customer);
+        Customer saved = customerRepository.save(customer);
+        customerCache.invalidate(customerId);
+        return saved;
     }
 }
\ No newline at end of file
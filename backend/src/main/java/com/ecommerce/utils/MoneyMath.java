@@ -0,0 +1,54 @@
+package com.ecommerce.utils;
+
+public final class MoneyMath {
+
+    public static final long PAISA_PER_RUPEE = 100;
+
+    private MoneyMath() {
+    }
+
+    public static long toPaisa(Double rupees) {
+        return rupees == null ? 0L : Math.round(rupees * PAISA_PER_RUPEE);
+    }
+
+    public static double toRupees(long paisa) {
+        return paisa / (double) PAISA_PER_RUPEE;
+    }
+
+    public static long interest(long principalPaisa, double annualRatePercent, long days, int dayBasis) {
+        if (principalPaisa == 0 || days <= 0) return 0L;
+        return Math.round(principalPaisa * (annualRatePercent / 100) * days / dayBasis);
+    }
+
+    public static long percentOf(long paisa, double ratePercent) {
+        return Math.round(paisa * ratePercent / 100);
+    }
+
+    public static long share(long totalPaisa, long weight, long totalWeight) {
+        if (totalWeight <= 0) return 0L;
+        return Math.round((double) totalPaisa * weight / totalWeight);
+    }
+
+    // Cumulative rounding: shares of total follow the weights and always sum to exactly totalPaisa.
+    // Negative weights count as zero; if nothing has weight the total is split evenly.
+    public static void allocate(long totalPaisa, long[] weights, long[] out) {
+        if (weights.length == 0) return;
+        long totalWeight = 0;
+        for (long weight : weights) {
+            totalWeight += Math.max(0, weight);
+        }
+        boolean even = totalWeight == 0;
+        if (even) {
+            totalWeight = weights.length;
+        }
+        long cumulativeWeight = 0;
+        long allocated = 0;
+        for (int i = 0; i < weights.length - 1; i++) {
+            cumulativeWeight += even ? 1 : Math.max(0, weights[i]);
+            long upTo = share(totalPaisa, cumulativeWeight, totalWeight);
+            out[i] = upTo - allocated;
+            allocated = upTo;
+        }
+        out[weights.length - 1] = totalPaisa - allocated;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.utils;
+
+public class TokenBucket {
+
+    private final double ratePerSecond;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-tokens / ratePerSecond * 1000);
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitMillis = reserve();
+        if (waitMillis > 0) {
+            Thread.sleep(waitMillis);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * ratePerSecond);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.InterestAccrual;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccrualScheduleServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("schedule-test");
+
+    private final InterestCalculationService interestCalculationService =
+            new InterestCalculationService(new RateFactorTables());
+    private AccrualScheduleService service;
+    private CustomerLoan loan;
+
+    @BeforeEach
+    void setUp() {
+        service = new AccrualScheduleService(mongo.template(), interestCalculationService, 16, 300);
+        loan = new CustomerLoan();
+        loan.setId("loan-1");
+        loan.setPrincipalAmount(100_000.0);
+        loan.setInterestRate(12.0);
+        loan.setInterestType("COMPOUND");
+        loan.setStartDate(LocalDateTime.of(2024, 1, 1, 0, 0));
+        loan.setMaturityDate(LocalDateTime.of(2026, 1, 1, 0, 0));
+        mongo.template().insert(loan);
+    }
+
+    @Test
+    void streamingAColdScheduleGeneratesItWithoutCachingIt() {
+        List<InterestAccrual> streamed;
+        try (Stream<InterestAccrual> schedule = service.streamSchedule("loan-1")) {
+            streamed = schedule.toList();
+        }
+
+        assertEquals(interestCalculationService.generateAccrualSchedule(loan), streamed);
+        assertEquals(0, service.getStats().get("size"));
+        assertEquals(1L, service.getStats().get("misses"));
+    }
+
+    @Test
+    void streamingACachedScheduleReplaysIt() {
+        List<InterestAccrual> listed = service.getSchedule("loan-1", null, null);
+
+        try (Stream<InterestAccrual> schedule = service.streamSchedule("loan-1")) {
+            assertEquals(listed, schedule.toList());
+        }
+        assertEquals(1L, service.getStats().get("hits"));
+    }
+}
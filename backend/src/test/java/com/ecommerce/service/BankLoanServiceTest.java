@@ -0,0 +1,177 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.BankLoanRequest;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.GoldItem;
+import com.ecommerce.repository.BankLoanRepository;
+import com.ecommerce.repository.GoldItemRepository;
+import com.ecommerce.repository.GoldItemRepositoryCustomImpl;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class BankLoanServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("bank-loan-test");
+
+    private MongoTemplate mongoTemplate;
+    private BankClaimBackfill backfill;
+    private BankLoanService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mongo.template();
+        mongoTemplate.indexOps(BankLoan.class).createIndex(
+                new Index().on("bankSerialNumber", Sort.Direction.ASC).unique().sparse());
+
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+        GoldItemRepository goldItemRepository = factory.getRepository(GoldItemRepository.class,
+                RepositoryComposition.RepositoryFragments.just(new GoldItemRepositoryCustomImpl(mongoTemplate)));
+        BankLoanRepository bankLoanRepository = factory.getRepository(BankLoanRepository.class);
+
+        backfill = new BankClaimBackfill(mongoTemplate);
+        service = new BankLoanService(bankLoanRepository, goldItemRepository, mock(DashboardCounterService.class),
+                mock(KeysetPageService.class), new GoldItemEnricher(mongoTemplate, mock(CustomerCache.class)),
+                mock(LoanToValueMonitor.class), mock(BankExposureService.class), backfill);
+    }
+
+    @Test
+    void claimsPledgedItemsForTheNewLoan() {
+        goldItem("g1", "PLEDGED", null, null, LocalDateTime.now());
+        goldItem("g2", "PLEDGED", null, null, LocalDateTime.now());
+
+        BankLoan loan = service.createBankLoan(request("SN-1", "g1", "g2"));
+
+        for (String id : List.of("g1", "g2")) {
+            GoldItem item = item(id);
+            assertEquals("PLEDGED_TO_BANK", item.getStatus());
+            assertEquals(loan.getId(), item.getBankLoanId());
+            assertEquals("SN-1", item.getBankSerialNumber());
+        }
+        assertEquals(List.of("g1", "g2"), loan.getPledgedGoldItemIds());
+    }
+
+    @Test
+    void repeatedRequestReturnsTheExistingLoan() {
+        goldItem("g1", "PLEDGED", null, null, LocalDateTime.now());
+        BankLoan first = service.createBankLoan(request("SN-1", "g1"));
+
+        BankLoan second = service.createBankLoan(request("SN-1", "g1"));
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, mongoTemplate.count(new Query(), BankLoan.class));
+    }
+
+    @Test
+    void itemHeldByAnotherBankLoanIsRejected() {
+        goldItem("g1", "PLEDGED", null, null, LocalDateTime.now());
+        BankLoan held = service.createBankLoan(request("SN-1", "g1"));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> service.createBankLoan(request("SN-2", "g1")));
+
+        assertTrue(error.getMessage().contains("not available"));
+        assertEquals(held.getId(), item("g1").getBankLoanId());
+    }
+
+    @Test
+    void retryOfTheSameSerialTakesOverItsOwnOrphanedClaim() {
+        goldItem("g1", "PLEDGED_TO_BANK", "ghost-loan", "SN-1", LocalDateTime.now());
+
+        BankLoan loan = service.createBankLoan(request("SN-1", "g1"));
+
+        assertEquals(loan.getId(), item("g1").getBankLoanId());
+    }
+
+    @Test
+    void staleOrphanedClaimIsTakenOverOnlyAfterTheBackfill() {
+        goldItem("g1", "PLEDGED_TO_BANK", "ghost-loan", "SN-OLD", LocalDateTime.now().minusHours(1));
+
+        assertThrows(RuntimeException.class, () -> service.createBankLoan(request("SN-2", "g1")));
+
+        backfill.backfill();
+        BankLoan loan = service.createBankLoan(request("SN-2", "g1"));
+        assertEquals(loan.getId(), item("g1").getBankLoanId());
+        assertEquals("SN-2", item("g1").getBankSerialNumber());
+    }
+
+    @Test
+    void freshOrphanedClaimOfAnotherSerialIsNotTakenOver() {
+        backfill.backfill();
+        goldItem("g1", "PLEDGED_TO_BANK", "ghost-loan", "SN-OLD", LocalDateTime.now());
+
+        assertThrows(RuntimeException.class, () -> service.createBankLoan(request("SN-2", "g1")));
+        assertEquals("ghost-loan", item("g1").getBankLoanId());
+    }
+
+    @Test
+    void legacyBankPledgeWithoutBankLoanIdIsNeverTakenOver() {
+        goldItem("g1", "PLEDGED_TO_BANK", null, null, LocalDateTime.now().minusDays(30));
+        backfill.backfill();
+
+        assertThrows(RuntimeException.class, () -> service.createBankLoan(request("SN-2", "g1")));
+        assertNull(item("g1").getBankLoanId());
+    }
+
+    @Test
+    void backfillLinksLegacyItemsToTheActiveLoanThatListsThem() {
+        goldItem("g1", "PLEDGED_TO_BANK", null, null, LocalDateTime.now().minusDays(30));
+        BankLoan legacy = new BankLoan();
+        legacy.setId("legacy-loan");
+        legacy.setStatus("ACTIVE");
+        legacy.setBankSerialNumber("SN-LEGACY");
+        legacy.setPledgedGoldItemIds(List.of("g1"));
+        mongoTemplate.insert(legacy);
+
+        backfill.backfill();
+
+        assertEquals("legacy-loan", item("g1").getBankLoanId());
+        assertEquals("SN-LEGACY", item("g1").getBankSerialNumber());
+        assertThrows(RuntimeException.class, () -> service.createBankLoan(request("SN-2", "g1")));
+    }
+
+    private void goldItem(String id, String status, String bankLoanId, String bankSerialNumber, LocalDateTime updatedAt) {
+        GoldItem item = new GoldItem();
+        item.setId(id);
+        item.setStatus(status);
+        item.setItemType("RING");
+        item.setWeightInGrams(10.0);
+        item.setEstimatedValue(100_000.0);
+        item.setBankLoanId(bankLoanId);
+        item.setBankSerialNumber(bankSerialNumber);
+        item.setUpdatedAt(updatedAt);
+        mongoTemplate.insert(item);
+    }
+
+    private GoldItem item(String id) {
+        return mongoTemplate.findById(id, GoldItem.class);
+    }
+
+    private static BankLoanRequest request(String serialNumber, String... goldItemIds) {
+        BankLoanRequest request = new BankLoanRequest();
+        request.setBankName("Nabil Bank");
+        request.setBankSerialNumber(serialNumber);
+        request.setPrincipalAmount(150_000.0);
+        request.setInterestRate(1.0);
+        request.setTenureMonths(12);
+        request.setGoldItemIds(List.of(goldItemIds));
+        return request;
+    }
+}
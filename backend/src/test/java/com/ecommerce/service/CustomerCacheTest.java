@@ -0,0 +1,65 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Customer;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+class CustomerCacheTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("customer-cache-test");
+
+    private Runnable afterLoad = () -> { };
+    private MongoTemplate mongoTemplate;
+    private CustomerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new MongoTemplate(mongo.client(), mongo.database()) {
+            @Override
+            public <T> List<T> find(Query query, Class<T> entityClass) {
+                List<T> found = super.find(query, entityClass);
+                afterLoad.run();
+                return found;
+            }
+        };
+        cache = new CustomerCache(mongoTemplate, 100, 600);
+
+        Customer customer = new Customer();
+        customer.setId("c1");
+        customer.setFullName("Sita Sharma");
+        mongoTemplate.insert(customer);
+    }
+
+    @Test
+    void loadThatRacedAnInvalidateIsNotCached() {
+        afterLoad = () -> {
+            afterLoad = () -> { };
+            mongoTemplate.updateFirst(new Query(where("_id").is("c1")), new Update().set("fullName", "Sita Thapa"), Customer.class);
+            cache.invalidate("c1");
+        };
+
+        assertEquals("Sita Sharma", cache.get("c1").orElseThrow().getFullName());
+        assertEquals("Sita Thapa", cache.get("c1").orElseThrow().getFullName());
+        assertEquals(2L, cache.getStats().get("loadQueries"));
+    }
+
+    @Test
+    void loadWithoutInterferenceIsCached() {
+        cache.get("c1");
+        cache.get("c1");
+
+        assertEquals(1L, cache.getStats().get("loadQueries"));
+        assertEquals(1, cache.getStats().get("size"));
+    }
+}
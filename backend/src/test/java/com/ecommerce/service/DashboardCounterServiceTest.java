@@ -0,0 +1,98 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.DashboardTotals;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.DashboardCounters;
+import com.ecommerce.repository.CustomerLoanRepository;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+class DashboardCounterServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("dashboard-counter-test");
+
+    private final DashboardQueryService dashboardQueryService = mock(DashboardQueryService.class);
+    private DashboardCounterService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DashboardCounterService(mongo.template(), dashboardQueryService, mock(CustomerLoanRepository.class));
+    }
+
+    @Test
+    void reconcileLeavesCountersAloneWhileAWriteIsPending() {
+        when(dashboardQueryService.getTotals()).thenReturn(totals(1));
+        service.beginWrite();
+
+        DashboardCounters counters = service.reconcile();
+        assertNull(counters.getLastReconciledAt());
+        assertEquals(0L, counters.getActiveBankLoans());
+
+        service.recordBankLoanCreated(bankLoan());
+        counters = service.reconcile();
+        assertNotNull(counters.getLastReconciledAt());
+        assertEquals(1L, counters.getActiveBankLoans());
+        assertEquals(0L, counters.getPendingWrites());
+    }
+
+    @Test
+    void writeThatLandsDuringTheRecountIsNotCountedTwice() {
+        AtomicInteger recounts = new AtomicInteger();
+        when(dashboardQueryService.getTotals()).thenAnswer(invocation -> {
+            if (recounts.getAndIncrement() == 0) {
+                // The source write is already visible to this recount; its increment arrives before the $set
+                service.beginWrite();
+                service.recordBankLoanCreated(bankLoan());
+            }
+            return totals(1);
+        });
+
+        DashboardCounters counters = service.reconcile();
+
+        assertEquals(2, recounts.get());
+        assertEquals(1L, counters.getActiveBankLoans());
+        assertEquals(100_000.0, counters.getTotalBankLoans());
+    }
+
+    @Test
+    void abandonedPendingWriteDoesNotBlockReconcileForever() {
+        when(dashboardQueryService.getTotals()).thenReturn(totals(0));
+        service.beginWrite();
+        mongo.template().updateFirst(new Query(where("_id").is(DashboardCounters.GLOBAL_ID)),
+                new Update().set("updatedAt", LocalDateTime.now().minusHours(1)), DashboardCounters.class);
+
+        DashboardCounters counters = service.reconcile();
+
+        assertNotNull(counters.getLastReconciledAt());
+        assertEquals(0L, counters.getPendingWrites());
+    }
+
+    private static DashboardTotals totals(long activeBankLoans) {
+        return DashboardTotals.builder()
+                .activeBankLoans(activeBankLoans)
+                .totalBankLoans(activeBankLoans * 100_000.0)
+                .build();
+    }
+
+    private static BankLoan bankLoan() {
+        BankLoan loan = new BankLoan();
+        loan.setPrincipalAmount(100_000.0);
+        loan.setTotalInterestPayable(12_000.0);
+        return loan;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.GoldRateRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class GoldRateServiceTest {
+
+    private final GoldRateService service = new GoldRateService(mock(MongoTemplate.class),
+            mock(GoldRateSource.class), mock(ApplicationEventPublisher.class));
+
+    @Test
+    void parsesKaratNotation() {
+        assertFineness(22 / 24.0, "22K");
+        assertFineness(0.75, "18 kt");
+        assertFineness(1.0, "24 Carat");
+        assertFineness(22.5 / 24, "22.5K");
+        assertFineness(Double.NaN, "25K");
+    }
+
+    @Test
+    void parsesFractionsPercentagesAndMillesimalFineness() {
+        assertFineness(0.916, "0.916");
+        assertFineness(0.999, ".999");
+        assertFineness(0.916, "91.6%");
+        assertFineness(0.916, "916");
+        assertFineness(0.75, "750");
+        assertFineness(1.0, "1000");
+        assertFineness(0.916, "916 KDM");
+    }
+
+    @Test
+    void readsBareKaratOnlyInTheKaratRange() {
+        assertFineness(22 / 24.0, "22");
+        assertFineness(8 / 24.0, "8");
+        assertFineness(1.0, "24");
+    }
+
+    @Test
+    void rejectsAmbiguousBareNumbers() {
+        for (String purity : List.of("1", "1.0", "5", "30", "100", "332", "1001")) {
+            assertTrue(Double.isNaN(GoldRateService.parseFineness(purity)), purity);
+        }
+        assertFineness(Double.NaN, "");
+        assertFineness(Double.NaN, "gold");
+    }
+
+    @Test
+    void normalizesToTheNearestKarat() {
+        assertEquals("22K", service.normalizePurity("916"));
+        assertEquals("18K", service.normalizePurity("0.75"));
+        assertEquals("24K", service.normalizePurity("99.9%"));
+        assertNull(service.normalizePurity("1"));
+        assertNull(service.normalizePurity(null));
+    }
+
+    @Test
+    void ingestRejectsUnrecognisedPurity() {
+        GoldRateRequest request = new GoldRateRequest();
+        request.setPurity("1");
+        request.setPricePerGram(12_000.0);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.ingest(List.of(request), "manual"));
+        assertEquals("Unrecognised purity: 1", error.getMessage());
+    }
+
+    private static void assertFineness(double expected, String purity) {
+        assertEquals(expected, GoldRateService.parseFineness(purity), 1e-12, purity);
+    }
+}
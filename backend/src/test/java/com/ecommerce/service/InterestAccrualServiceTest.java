@@ -0,0 +1,79 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.support.InMemoryMongo;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+class InterestAccrualServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("accrual-test");
+
+    private final String untouched = new ObjectId().toHexString();
+    private final String repaid = new ObjectId().toHexString();
+    private final LocalDateTime repaidAt = LocalDate.now().atStartOfDay().minusDays(1);
+    private MongoTemplate mongoTemplate;
+    private InterestAccrualService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new MongoTemplate(mongo.client(), mongo.database()) {
+            // Records a repayment after the batch has been read but before it is written
+            @Override
+            public <T> Stream<T> stream(Query query, Class<T> entityType) {
+                return super.stream(query, entityType).peek(loan -> {
+                    if (((CustomerLoan) loan).getId().equals(untouched)) {
+                        updateFirst(new Query(where("_id").is(new ObjectId(repaid))),
+                                new Update().set("lastPaymentDate", repaidAt), CustomerLoan.class);
+                    }
+                });
+            }
+        };
+        service = new InterestAccrualService(mongoTemplate, new InterestCalculationService(new RateFactorTables()), 1, 10);
+        mongoTemplate.insert(loan(untouched));
+        mongoTemplate.insert(loan(repaid));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void loansRepaidDuringTheRunKeepTheirOwnFigures() {
+        service.run(LocalDate.now());
+
+        CustomerLoan accrued = mongoTemplate.findById(untouched, CustomerLoan.class);
+        assertEquals(LocalDate.now().atStartOfDay(), accrued.getLastInterestCalculationDate());
+        assertEquals(100_000 * 0.1095 * 30 / 365, accrued.getAccruedInterest(), 0.01);
+
+        CustomerLoan skipped = mongoTemplate.findById(repaid, CustomerLoan.class);
+        assertNull(skipped.getLastInterestCalculationDate());
+        assertNull(skipped.getAccruedInterest());
+    }
+
+    private static CustomerLoan loan(String id) {
+        CustomerLoan loan = new CustomerLoan();
+        loan.setId(id);
+        loan.setStatus("ACTIVE");
+        loan.setOutstandingAmount(100_000.0);
+        loan.setInterestRate(10.95);
+        loan.setStartDate(LocalDate.now().atStartOfDay().minusDays(30));
+        return loan;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CustomerLoan;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InterestCalculationServiceTest {
+
+    private final InterestCalculationService service = new InterestCalculationService(new RateFactorTables());
+
+    @Test
+    void reducingBalanceMatchesMonthlyLoop() {
+        for (double rate : new double[]{0.0, 9.5, 12.0, 18.75, 36.0}) {
+            for (int months = 1; months <= 120; months++) {
+                double expected = loopInterest(100_000, rate, months);
+                assertClose(expected, service.calculateReducingBalanceInterest(100_000, rate, months));
+            }
+        }
+    }
+
+    @Test
+    void compoundInterestMatchesPow() {
+        for (double rate : new double[]{0.0, 9.5, 12.0, 18.75, 36.0}) {
+            for (int months = 0; months <= 360; months++) {
+                double expected = 250_000 * Math.pow(1 + rate / 100 / 12, months) - 250_000;
+                assertClose(expected, service.calculateCompoundInterest(250_000, rate, months));
+            }
+        }
+    }
+
+    @Test
+    void accruedCompoundInterestMatchesPow() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        CustomerLoan loan = new CustomerLoan();
+        loan.setInterestType("COMPOUND");
+        loan.setInterestRate(14.5);
+        loan.setPrincipalAmount(80_000.0);
+        loan.setStartDate(start);
+        loan.setMaturityDate(start.plusYears(20));
+
+        for (int days = 0; days <= 7300; days += 7) {
+            double expected = 80_000 * Math.pow(1 + 14.5 / 100 / 12, 12 * (days / 365.0)) - 80_000;
+            assertClose(expected, service.calculateAccruedInterest(loan, start.plusDays(days)));
+        }
+    }
+
+    private static double loopInterest(double principal, double annualRate, int tenureMonths) {
+        double monthlyRate = annualRate / 12 / 100;
+        double monthlyPrincipal = principal / tenureMonths;
+        double total = 0.0;
+        double remaining = principal;
+        for (int month = 1; month <= tenureMonths; month++) {
+            total += remaining * monthlyRate;
+            remaining -= monthlyPrincipal;
+        }
+        return total;
+    }
+
+    private static void assertClose(double expected, double actual) {
+        double tolerance = Math.max(1e-6, Math.abs(expected) * RateFactorTables.RELATIVE_TOLERANCE);
+        assertEquals(expected, actual, tolerance);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.model.Customer;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetPageServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("keyset-test");
+
+    private KeysetPageService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new KeysetPageService(mongo.template());
+        for (int i = 1; i <= 5; i++) {
+            Customer customer = new Customer();
+            customer.setId("customer-" + i);
+            customer.setFullName(i % 2 == 0 ? "Sita Sharma " + i : "Ram Thapa " + i);
+            customer.setEmail("c" + i + "@example.com");
+            mongo.template().insert(customer);
+        }
+    }
+
+    @Test
+    void searchPagesThroughEveryMatchNotJustTheFirstPage() {
+        CursorPage<Customer> first = service.page(KeysetPageService.matching("  thapa ", "fullName", "email"),
+                null, 2, Customer.class, Customer::getId);
+        assertEquals(List.of("customer-5", "customer-3"), first.getItems().stream().map(Customer::getId).toList());
+        assertTrue(first.isHasMore());
+
+        CursorPage<Customer> second = service.page(KeysetPageService.matching("thapa", "fullName", "email"),
+                first.getNextCursor(), 2, Customer.class, Customer::getId);
+        assertEquals(List.of("customer-1"), second.getItems().stream().map(Customer::getId).toList());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    void searchTreatsTheQueryAsLiteralText() {
+        CursorPage<Customer> page = service.page(KeysetPageService.matching(".*", "fullName"),
+                null, 10, Customer.class, Customer::getId);
+        assertTrue(page.getItems().isEmpty());
+    }
+
+    @Test
+    void combinesIdLookupWithOtherFilters() {
+        CursorPage<Customer> page = service.page(KeysetPageService.allOf(
+                        KeysetPageService.idIn(List.of("customer-2", "customer-3", "missing")),
+                        KeysetPageService.matching("sita", "fullName")),
+                null, 10, Customer.class, Customer::getId);
+        assertEquals(List.of("customer-2"), page.getItems().stream().map(Customer::getId).toList());
+
+        assertNull(KeysetPageService.allOf(KeysetPageService.idIn(List.of()), KeysetPageService.matching(" ", "fullName")));
+    }
+}
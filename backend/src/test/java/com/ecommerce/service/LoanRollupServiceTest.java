@@ -0,0 +1,101 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.LoanMonthlyRollup;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class LoanRollupServiceTest {
+
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2026, 1, 10, 12, 0);
+    private static final LocalDateTime FEBRUARY = LocalDateTime.of(2026, 2, 10, 12, 0);
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("rollup-test");
+
+    private LoanRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LoanRollupService(mongo.template());
+    }
+
+    @Test
+    void backfillCountsTheSameEventsAsTheIncrementalPath() {
+        CustomerLoan adminCreated = loan("admin", "ACTIVE");
+        adminCreated.setStartDate(JANUARY);
+        adminCreated.setPrincipalAmount(100_000.0);
+        mongo.template().insert(adminCreated);
+
+        CustomerLoan requested = loan("requested", "PENDING_APPROVAL");
+        requested.setCreatedAt(JANUARY);
+        requested.setRequestedAt(JANUARY);
+        mongo.template().insert(requested);
+
+        CustomerLoan rejected = loan("rejected", "REJECTED");
+        rejected.setCreatedAt(JANUARY);
+        rejected.setRequestedAt(JANUARY);
+        rejected.setRejectedAt(FEBRUARY);
+        mongo.template().insert(rejected);
+
+        CustomerLoan legacyRequest = loan("legacy", "PENDING_APPROVAL");
+        legacyRequest.setCreatedAt(FEBRUARY);
+        mongo.template().insert(legacyRequest);
+
+        service.backfill();
+
+        LoanMonthlyRollup january = month("2026-01");
+        assertEquals(1L, january.getActivatedLoans());
+        assertEquals(100_000.0, january.getDisbursedPrincipal());
+        assertEquals(2L, january.getRequestedLoans());
+        assertEquals(0L, january.getRejectedLoans());
+
+        LoanMonthlyRollup february = month("2026-02");
+        assertEquals(1L, february.getRequestedLoans());
+        assertEquals(1L, february.getRejectedLoans());
+    }
+
+    @Test
+    void rebuildWaitsForLoanWritesInProgress() throws Exception {
+        CustomerLoan active = loan("active", "ACTIVE");
+        active.setStartDate(JANUARY);
+        active.setPrincipalAmount(50_000.0);
+        mongo.template().insert(active);
+
+        service.beginWrite();
+        CompletableFuture<Long> rebuild = CompletableFuture.supplyAsync(service::backfill);
+        Thread.sleep(200);
+        assertFalse(rebuild.isDone());
+
+        CustomerLoan activated = loan("activated", "ACTIVE");
+        activated.setStartDate(JANUARY);
+        activated.setPrincipalAmount(25_000.0);
+        mongo.template().insert(activated);
+        service.recordLoanActivated(activated, JANUARY);
+        service.endWrite();
+
+        rebuild.get(10, TimeUnit.SECONDS);
+        assertEquals(2L, month("2026-01").getActivatedLoans());
+        assertEquals(75_000.0, month("2026-01").getDisbursedPrincipal());
+    }
+
+    private LoanMonthlyRollup month(String key) {
+        return mongo.template().findById(key, LoanMonthlyRollup.class);
+    }
+
+    private static CustomerLoan loan(String id, String status) {
+        CustomerLoan loan = new CustomerLoan();
+        loan.setId(id);
+        loan.setStatus(status);
+        return loan;
+    }
+}
@@ -0,0 +1,215 @@
+package com.ecommerce.service;
+
+import com.ecommerce.constants.PermissionConstants;
+import com.ecommerce.dto.CollateralRevaluedEvent;
+import com.ecommerce.dto.LoanToValue;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.GoldItem;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class LoanToValueMonitorTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("ltv-test");
+
+    private MongoTemplate mongoTemplate;
+    private Runnable onBankLoanStream = () -> { };
+    private Runnable onGoldItemFind = () -> { };
+    private final NotificationDispatcher dispatcher = mock(NotificationDispatcher.class);
+    private LoanToValueMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new MongoTemplate(mongo.client(), mongo.database()) {
+            @Override
+            public <T> Stream<T> stream(Query query, Class<T> entityType) {
+                if (entityType == BankLoan.class) onBankLoanStream.run();
+                return super.stream(query, entityType);
+            }
+
+            @Override
+            public <T> List<T> find(Query query, Class<T> entityClass) {
+                List<T> found = super.find(query, entityClass);
+                if (entityClass == GoldItem.class) onGoldItemFind.run();
+                return found;
+            }
+        };
+        monitor = new LoanToValueMonitor(mongoTemplate, dispatcher, 0.7, 0.8);
+
+        goldItem("g1", 50_000);
+        goldItem("g2", 50_000);
+        goldItem("g3", 40_000);
+        mongoTemplate.insert(customerLoan("c1", 60_000, "g1", "g2"));
+        mongoTemplate.insert(bankLoan("b1", 30_000, "g1"));
+        monitor.rebuild();
+    }
+
+    @Test
+    void rebuildIndexesActiveLoansByLoanAndByItem() {
+        Map<String, Object> status = monitor.getStatus();
+
+        assertEquals(1, status.get("customerLoans"));
+        assertEquals(1, status.get("bankLoans"));
+        assertEquals(2, status.get("items"));
+        assertTrue(monitor.getAtRiskLoans().isEmpty());
+    }
+
+    @Test
+    void loanChangesRelinkItemsAndReadValuesOfNewlyPledgedOnes() {
+        monitor.customerLoanChanged(customerLoan("c1", 70_000, "g2", "g3"));
+
+        assertEquals(3, monitor.getStatus().get("items"));
+        LoanToValue atRisk = monitor.getAtRiskLoans().get(0);
+        assertEquals("c1", atRisk.getLoanId());
+        assertEquals(90_000.0, atRisk.getCollateralValue());
+        assertEquals("WARNING", atRisk.getLevel());
+
+        // g1 now only backs the bank loan
+        revalue("g1", 10_000);
+        assertEquals(Set.of("c1", "b1"), Set.copyOf(monitor.getAtRiskLoans().stream().map(LoanToValue::getLoanId).toList()));
+
+        CustomerLoan closed = customerLoan("c1", 0, "g2", "g3");
+        closed.setStatus("CLOSED");
+        monitor.customerLoanChanged(closed);
+
+        assertEquals(0, monitor.getStatus().get("customerLoans"));
+        assertEquals(1, monitor.getStatus().get("items"));
+        clearInvocations(dispatcher);
+        revalue("g2", 1);
+        verifyNoInteractions(dispatcher);
+    }
+
+    @Test
+    void onlyEscalationsAlert() {
+        revalue("g2", 35_000);
+        verify(dispatcher).notifyRole(eq(PermissionConstants.ROLE_ADMIN), anyString(), anyString(),
+                eq("LTV_WARNING"), eq("c1"), anyMap());
+
+        revalue("g2", 30_000);
+        verify(dispatcher, times(1)).notifyRole(anyString(), anyString(), anyString(), anyString(), anyString(), anyMap());
+
+        revalue("g2", 20_000);
+        verify(dispatcher).notifyRole(eq(PermissionConstants.ROLE_ADMIN), anyString(), anyString(),
+                eq("LTV_BREACH"), eq("c1"), anyMap());
+        verify(dispatcher).notifyUser(eq("customer-c1"), anyString(), anyString(), eq("LTV_BREACH"), eq("c1"), anyMap());
+
+        clearInvocations(dispatcher);
+        revalue("g2", 50_000);
+        verifyNoInteractions(dispatcher);
+
+        // Recovering re-arms the alert for the next rise
+        revalue("g2", 20_000);
+        verify(dispatcher).notifyRole(eq(PermissionConstants.ROLE_ADMIN), anyString(), anyString(),
+                eq("LTV_BREACH"), eq("c1"), anyMap());
+    }
+
+    @Test
+    void editedItemValueReachesTheIndex() {
+        GoldItem edited = mongoTemplate.findById("g2", GoldItem.class);
+        edited.setEstimatedValue(30_000.0);
+
+        monitor.itemChanged(edited);
+
+        assertEquals(80_000.0, monitor.getAtRiskLoans().get(0).getCollateralValue());
+        verify(dispatcher).notifyRole(anyString(), anyString(), anyString(), eq("LTV_WARNING"), eq("c1"), anyMap());
+
+        edited.setAppraisedValue(20_000.0);
+        monitor.itemChanged(edited);
+        assertEquals("BREACH", monitor.getAtRiskLoans().get(0).getLevel());
+    }
+
+    @Test
+    void itemThatLeavesTheIndexWhileValuesAreReadIsReadOnTheRetry() {
+        // g2 is tracked when c2 is first checked, then c1 closes and releases it before c2 takes the lock
+        onGoldItemFind = () -> {
+            onGoldItemFind = () -> { };
+            CustomerLoan closed = customerLoan("c1", 0, "g1", "g2");
+            closed.setStatus("CLOSED");
+            monitor.customerLoanChanged(closed);
+        };
+
+        monitor.customerLoanChanged(customerLoan("c2", 80_000, "g2", "g3"));
+
+        LoanToValue atRisk = monitor.getAtRiskLoans().get(0);
+        assertEquals("c2", atRisk.getLoanId());
+        assertEquals(90_000.0, atRisk.getCollateralValue());
+    }
+
+    @Test
+    void changesMadeDuringRebuildSurviveTheSwap() {
+        onBankLoanStream = () -> {
+            onBankLoanStream = () -> { };
+            revalue("g2", 20_000);
+            monitor.customerLoanChanged(customerLoan("c2", 10_000, "g3"));
+        };
+
+        monitor.rebuild();
+
+        assertEquals(2, monitor.getStatus().get("customerLoans"));
+        assertEquals(3, monitor.getStatus().get("items"));
+        List<LoanToValue> atRisk = monitor.getAtRiskLoans();
+        assertEquals(1, atRisk.size());
+        assertEquals("BREACH", atRisk.get(0).getLevel());
+        assertEquals(70_000.0, atRisk.get(0).getCollateralValue());
+        // The live index alerted once; the replay stays silent
+        verify(dispatcher, times(1)).notifyRole(anyString(), anyString(), anyString(), eq("LTV_BREACH"), eq("c1"), anyMap());
+        verify(dispatcher, never()).notifyRole(anyString(), anyString(), anyString(), anyString(), eq("c2"), anyMap());
+    }
+
+    private void revalue(String itemId, double value) {
+        monitor.onCollateralRevalued(new CollateralRevaluedEvent(Set.of(), Set.of(), Map.of(itemId, value)));
+    }
+
+    private void goldItem(String id, double estimatedValue) {
+        GoldItem item = new GoldItem();
+        item.setId(id);
+        item.setStatus("PLEDGED");
+        item.setEstimatedValue(estimatedValue);
+        mongoTemplate.insert(item);
+    }
+
+    private static CustomerLoan customerLoan(String id, double outstanding, String... goldItemIds) {
+        CustomerLoan loan = new CustomerLoan();
+        loan.setId(id);
+        loan.setLoanNumber("CL-" + id);
+        loan.setCustomerId("customer-" + id);
+        loan.setStatus("ACTIVE");
+        loan.setOutstandingAmount(outstanding);
+        loan.setGoldItemIds(List.of(goldItemIds));
+        return loan;
+    }
+
+    private static BankLoan bankLoan(String id, double outstanding, String... goldItemIds) {
+        BankLoan loan = new BankLoan();
+        loan.setId(id);
+        loan.setLoanNumber("BL-" + id);
+        loan.setBankName("Nabil Bank");
+        loan.setStatus("ACTIVE");
+        loan.setOutstandingAmount(outstanding);
+        loan.setPledgedGoldItemIds(List.of(goldItemIds));
+        return loan;
+    }
+}
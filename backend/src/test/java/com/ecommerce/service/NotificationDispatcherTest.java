@@ -0,0 +1,119 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Notification;
+import com.ecommerce.repository.NotificationRepository;
+import com.ecommerce.repository.SmsNotificationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDispatcherTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final SmsNotificationRepository smsNotificationRepository = mock(SmsNotificationRepository.class);
+    private final NotificationStreamService notificationStreamService = mock(NotificationStreamService.class);
+    private final UnreadCounterService unreadCounterService = mock(UnreadCounterService.class);
+
+    private NotificationDispatcher dispatcher(int capacity, int workers) {
+        return new NotificationDispatcher(notificationRepository, smsNotificationRepository,
+                notificationStreamService, unreadCounterService, capacity, workers, 10, 10, 5, 3, 1);
+    }
+
+    @Test
+    void fullQueueRunsWriteOnCallerThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+        when(notificationRepository.insert(anyIterable())).thenAnswer(invocation -> {
+            String thread = Thread.currentThread().getName();
+            writerThreads.add(thread);
+            if (thread.startsWith("notification-dispatch")) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return invocation.getArgument(0);
+        });
+
+        NotificationDispatcher dispatcher = dispatcher(1, 1);
+        dispatcher.start();
+        for (int i = 0; i < 3; i++) {
+            dispatcher.notifyUser("user-" + i, "Title", "Message", "INFO", null, null);
+        }
+
+        // One event is stuck in the worker and one fills the queue, so at least one must have run inline
+        assertTrue((Long) dispatcher.getStats().get("callerRuns") >= 1);
+        assertTrue(writerThreads.contains(Thread.currentThread().getName()));
+
+        release.countDown();
+        dispatcher.shutdown();
+        assertEquals(3L, dispatcher.getStats().get("persisted"));
+        assertEquals(0L, dispatcher.getStats().get("failed"));
+    }
+
+    @Test
+    void failedInsertIsRetriedWithTheSameIds() {
+        when(notificationRepository.insert(anyIterable())).thenThrow(new IllegalStateException("primary stepped down"));
+        when(notificationRepository.saveAll(anyIterable()))
+                .thenThrow(new IllegalStateException("still electing"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        NotificationDispatcher dispatcher = dispatcher(10, 1);
+        dispatcher.notifyUser("user-1", "Title", "Message", "INFO", null, null);
+
+        verify(notificationRepository, times(1)).insert(anyIterable());
+        verify(notificationRepository, times(2)).saveAll(anyIterable());
+        verify(notificationRepository, never()).save(any(Notification.class));
+        verify(unreadCounterService).directCreated("user-1");
+        verify(notificationStreamService).publish(anyList());
+        assertEquals(1L, dispatcher.getStats().get("persisted"));
+        assertEquals(0L, dispatcher.getStats().get("failed"));
+    }
+
+    @Test
+    void exhaustedRetriesFallBackToSingleSaves() {
+        when(notificationRepository.insert(anyIterable())).thenThrow(new IllegalStateException("bulk write failed"));
+        when(notificationRepository.saveAll(anyIterable())).thenThrow(new IllegalStateException("bulk write failed"));
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            assertNotNull(notification.getId());
+            return notification;
+        });
+
+        NotificationDispatcher dispatcher = dispatcher(10, 1);
+        dispatcher.notifyRole("ADMIN", "Title", "Message", "INFO", null, null);
+
+        verify(notificationRepository, times(2)).saveAll(anyIterable());
+        verify(notificationRepository).save(any(Notification.class));
+        verify(unreadCounterService).broadcastCreated("ADMIN");
+        assertEquals(1L, dispatcher.getStats().get("persisted"));
+        assertEquals(0L, dispatcher.getStats().get("failed"));
+    }
+
+    @Test
+    void eventIsCountedFailedOnlyAfterEveryFallback() {
+        when(notificationRepository.insert(anyIterable())).thenThrow(new IllegalStateException("down"));
+        when(notificationRepository.saveAll(anyIterable())).thenThrow(new IllegalStateException("down"));
+        when(notificationRepository.save(any(Notification.class))).thenThrow(new IllegalStateException("down"));
+
+        NotificationDispatcher dispatcher = dispatcher(10, 1);
+        dispatcher.notifyUser("user-1", "Title", "Message", "INFO", null, null);
+
+        verify(unreadCounterService, never()).directCreated(any());
+        verify(notificationStreamService, never()).publish(any());
+        assertEquals(0L, dispatcher.getStats().get("persisted"));
+        assertEquals(1L, dispatcher.getStats().get("failed"));
+    }
+}
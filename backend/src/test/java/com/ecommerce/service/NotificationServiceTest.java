@@ -0,0 +1,92 @@
+package com.ecommerce.service;
+
+import com.ecommerce.constants.PermissionConstants;
+import com.ecommerce.model.Notification;
+import com.ecommerce.model.NotificationReceipt;
+import com.ecommerce.repository.NotificationRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class NotificationServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("notification-test");
+
+    private final NotificationStreamService notificationStreamService = mock(NotificationStreamService.class);
+    private final UnreadCounterService unreadCounterService = mock(UnreadCounterService.class);
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new NotificationService(mock(NotificationRepository.class), mongo.template(),
+                notificationStreamService, unreadCounterService, mock(UserRepository.class));
+    }
+
+    @Test
+    void directNotificationIsCountedReadOnceAndOnlyByItsOwner() {
+        Notification notification = save("n1", "user-1", null);
+
+        assertThrows(RuntimeException.class, () -> service.markAsRead("n1", "user-2", PermissionConstants.ROLE_USER));
+        verifyNoInteractions(unreadCounterService);
+
+        service.markAsRead("n1", "user-1", PermissionConstants.ROLE_USER);
+        service.markAsRead("n1", "user-1", PermissionConstants.ROLE_USER);
+
+        assertTrue(mongo.template().findById(notification.getId(), Notification.class).isRead());
+        verify(unreadCounterService, times(1)).directRead("user-1");
+        verify(notificationStreamService, times(1)).publishUnreadDelta("user-1", -1);
+    }
+
+    @Test
+    void broadcastIsCountedReadOncePerUserAndOnlyForItsRole() {
+        save("b1", null, PermissionConstants.ROLE_ADMIN);
+
+        assertThrows(RuntimeException.class, () -> service.markAsRead("b1", "staff-1", PermissionConstants.ROLE_STAFF));
+        verifyNoInteractions(unreadCounterService);
+
+        service.markAsRead("b1", "admin-1", PermissionConstants.ROLE_ADMIN);
+        service.markAsRead("b1", "admin-1", PermissionConstants.ROLE_ADMIN);
+        service.markAsRead("b1", "admin-2", PermissionConstants.ROLE_ADMIN);
+
+        verify(unreadCounterService, times(1)).broadcastRead("admin-1");
+        verify(unreadCounterService, times(1)).broadcastRead("admin-2");
+        assertFalse(mongo.template().findById("b1", Notification.class).isRead());
+    }
+
+    @Test
+    void broadcastAlreadyCoveredByReadAllIsNotCountedAgain() {
+        save("b1", null, PermissionConstants.ROLE_ADMIN);
+        service.markAllAsRead("admin-1", PermissionConstants.ROLE_ADMIN);
+
+        service.markAsRead("b1", "admin-1", PermissionConstants.ROLE_ADMIN);
+
+        verify(unreadCounterService, never()).broadcastRead("admin-1");
+        assertEquals(1, mongo.template().count(new Query(), NotificationReceipt.class));
+    }
+
+    private Notification save(String id, String userId, String targetRole) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setUserId(userId);
+        notification.setTargetRole(targetRole);
+        notification.setTitle("Title");
+        notification.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+        return mongo.template().insert(notification);
+    }
+}
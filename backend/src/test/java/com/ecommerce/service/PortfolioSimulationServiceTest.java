@@ -0,0 +1,144 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.WhatIfResult;
+import com.ecommerce.dto.WhatIfScenario;
+import com.ecommerce.model.BankLoan;
+import com.ecommerce.model.CustomerLoan;
+import com.ecommerce.model.GoldAllocation;
+import com.ecommerce.model.GoldItem;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PortfolioSimulationServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("simulation-test");
+
+    private MongoTemplate mongoTemplate;
+    private PortfolioSimulationService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mongo.template();
+        service = new PortfolioSimulationService(mongoTemplate,
+                new InterestCalculationService(new RateFactorTables()), 2, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void pinsScenarioOutputForSimpleAndCompoundLoans() {
+        LocalDateTime now = LocalDateTime.now();
+        customerLoan("simple", "SIMPLE", 100_000, now.plusDays(365).plusHours(1));
+        customerLoan("compound", "COMPOUND", 50_000, now.plusDays(365).plusHours(1));
+        goldItem("g1", "simple", 150_000);
+        goldItem("g2", "compound", 55_000);
+
+        BankLoan bankLoan = new BankLoan();
+        bankLoan.setId("bank");
+        bankLoan.setStatus("ACTIVE");
+        bankLoan.setOutstandingAmount(200_000.0);
+        bankLoan.setInterestRate(1.0);
+        bankLoan.setMaturityDate(now.plusMonths(6).minusHours(1));
+        mongoTemplate.insert(bankLoan);
+
+        WhatIfScenario scenario = new WhatIfScenario();
+        scenario.setName("rates up, gold down");
+        scenario.setCustomerRateChange(2);
+        scenario.setBankRateChange(0.5);
+        scenario.setGoldPriceChangePercent(-20);
+
+        WhatIfResult result = service.simulate(scenario);
+
+        // Simple loans accrue actual/365 on the outstanding balance; compound ones grow by the daily factor
+        WhatIfResult.Projection baseline = result.getBaseline();
+        assertClose(12_000 + 6_341.251506598489, baseline.getReceivableInterest());
+        assertClose(12_000, baseline.getPayableInterest());
+        assertClose(6_341.251506598489, baseline.getNetMargin());
+        assertClose(205_000, baseline.getCollateralValue());
+        assertClose(0, baseline.getCollateralShortfall());
+        assertEquals(0, baseline.getUnderCollateralisedCustomerLoans());
+        assertEquals(1, baseline.getUnderCollateralisedBankLoans());
+
+        WhatIfResult.Projection projected = result.getProjected();
+        assertClose(14_000 + 7_467.101460357883, projected.getReceivableInterest());
+        assertClose(18_000, projected.getPayableInterest());
+        assertClose(164_000, projected.getCollateralValue());
+        assertClose(6_000, projected.getCollateralShortfall());
+        assertEquals(1, projected.getUnderCollateralisedCustomerLoans());
+        assertClose(3_467.101460357884 - 6_341.251506598489, result.getNetMarginChange());
+        assertEquals(2, result.getCustomerLoans());
+        assertEquals(1, result.getBankLoans());
+        assertEquals(0, result.getEarlyRepaidLoans());
+    }
+
+    @Test
+    void valuesBankCollateralAtTheItemsCurrentAppraisal() {
+        GoldItem item = new GoldItem();
+        item.setId("g3");
+        item.setStatus("PLEDGED_TO_BANK");
+        item.setEstimatedValue(100_000.0);
+        item.setAppraisedValue(250_000.0);
+        mongoTemplate.insert(item);
+
+        GoldAllocation allocation = new GoldAllocation();
+        allocation.setGoldItemId("g3");
+        allocation.setEstimatedValue(100_000);
+        allocation.setRemainingPrincipal(200_000);
+
+        BankLoan bankLoan = new BankLoan();
+        bankLoan.setId("bank");
+        bankLoan.setStatus("ACTIVE");
+        bankLoan.setOutstandingAmount(200_000.0);
+        bankLoan.setInterestRate(1.0);
+        bankLoan.setMaturityDate(LocalDateTime.now().plusMonths(6));
+        bankLoan.setPledgedGoldItemIds(List.of("g3"));
+        bankLoan.setIndividualGoldCalculations(List.of(allocation));
+        mongoTemplate.insert(bankLoan);
+
+        WhatIfScenario scenario = new WhatIfScenario();
+        scenario.setName("gold down");
+        scenario.setGoldPriceChangePercent(-30);
+
+        WhatIfResult result = service.simulate(scenario);
+
+        assertEquals(0, result.getBaseline().getUnderCollateralisedBankLoans());
+        assertEquals(1, result.getProjected().getUnderCollateralisedBankLoans());
+    }
+
+    private void customerLoan(String id, String interestType, double outstanding, LocalDateTime maturity) {
+        CustomerLoan loan = new CustomerLoan();
+        loan.setId(id);
+        loan.setStatus("ACTIVE");
+        loan.setInterestType(interestType);
+        loan.setInterestRate(12.0);
+        loan.setOutstandingAmount(outstanding);
+        loan.setMaturityDate(maturity);
+        mongoTemplate.insert(loan);
+    }
+
+    private void goldItem(String id, String customerLoanId, double estimatedValue) {
+        GoldItem item = new GoldItem();
+        item.setId(id);
+        item.setCustomerLoanId(customerLoanId);
+        item.setStatus("PLEDGED");
+        item.setEstimatedValue(estimatedValue);
+        mongoTemplate.insert(item);
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, Math.max(1e-6, Math.abs(expected) * 1e-9));
+    }
+}
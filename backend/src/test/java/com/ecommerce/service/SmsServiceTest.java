@@ -0,0 +1,167 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.smsNotification;
+import com.ecommerce.repository.SmsNotificationRepository;
+import com.ecommerce.support.InMemoryMongo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+class SmsServiceTest {
+
+    @RegisterExtension
+    final InMemoryMongo mongo = new InMemoryMongo("sms-test");
+
+    private MongoTemplate mongoTemplate;
+    private StubGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mongo.template();
+        gateway = new StubGateway();
+    }
+
+    @Test
+    void sendsPendingMessagesAndMarksThemSent() throws Exception {
+        insert("a", smsNotification.STATUS_PENDING, 0, null);
+        insert("b", smsNotification.STATUS_PENDING, 0, null);
+
+        assertEquals(2, service(50, 60, 100).processBatch());
+
+        assertEquals(List.of("a", "b"), gateway.sent);
+        assertEquals(smsNotification.STATUS_SENT, find("a").getStatus());
+        assertNull(find("a").getLeaseOwner());
+    }
+
+    @Test
+    void failedSendIsRescheduledThenDeadLettered() throws Exception {
+        gateway.failing = true;
+        insert("a", smsNotification.STATUS_PENDING, 0, null);
+        SmsService service = service(50, 60, 100);
+
+        service.processBatch();
+        smsNotification sms = find("a");
+        assertEquals(smsNotification.STATUS_PENDING, sms.getStatus());
+        assertEquals(1, sms.getRetryCount());
+        assertTrue(sms.getScheduledTime().isAfter(LocalDateTime.now()));
+
+        mongoTemplate.updateFirst(new Query(where("_id").is("a")),
+                new Update().set("retryCount", 2).set("scheduledTime", LocalDateTime.now().minusSeconds(1)),
+                smsNotification.class);
+        service.processBatch();
+        assertEquals(smsNotification.STATUS_DEAD_LETTER, find("a").getStatus());
+    }
+
+    @Test
+    void reclaimingAnExpiredLeaseCountsAsAnAttempt() throws Exception {
+        insert("a", smsNotification.STATUS_SENDING, 0, LocalDateTime.now().minusSeconds(5));
+
+        service(50, 60, 100).processBatch();
+
+        smsNotification sms = find("a");
+        assertEquals(smsNotification.STATUS_SENT, sms.getStatus());
+        assertEquals(1, sms.getRetryCount());
+    }
+
+    @Test
+    void messageWhoseLeaseKeepsExpiringIsDeadLetteredWithoutSending() throws Exception {
+        insert("a", smsNotification.STATUS_SENDING, 2, LocalDateTime.now().minusSeconds(5));
+
+        service(50, 60, 100).processBatch();
+
+        assertEquals(smsNotification.STATUS_DEAD_LETTER, find("a").getStatus());
+        assertTrue(gateway.sent.isEmpty());
+    }
+
+    @Test
+    void claimIsCappedToWhatTheRateLimitCanSendWithinTheLease() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            insert("m" + i, smsNotification.STATUS_PENDING, 0, null);
+        }
+
+        // burst 1 + 10/s over half of a one second lease
+        assertEquals(6, service(50, 1, 10).processBatch());
+        assertEquals(14, mongoTemplate.count(
+                new Query(where("status").is(smsNotification.STATUS_PENDING)), smsNotification.class));
+    }
+
+    @Test
+    void messagesLeftOverWhenTheLeaseLapsesAreReleased() throws Exception {
+        gateway.delayMillis = 1100;
+        insert("a", smsNotification.STATUS_PENDING, 0, null);
+        insert("b", smsNotification.STATUS_PENDING, 0, null);
+
+        service(50, 1, 1000).processBatch();
+
+        assertEquals(List.of("a"), gateway.sent);
+        smsNotification released = find("b");
+        assertEquals(smsNotification.STATUS_PENDING, released.getStatus());
+        assertEquals(0, released.getRetryCount());
+        assertNull(released.getLeaseOwner());
+    }
+
+    private SmsService service(int batchSize, long leaseSeconds, double ratePerSecond) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("sms.gateway.stub.rate-per-second", String.valueOf(ratePerSecond))
+                .withProperty("sms.gateway.stub.burst", "1");
+        return new SmsService(mongoTemplate, mock(SmsNotificationRepository.class), gateway, environment,
+                batchSize, 10, leaseSeconds, 3, 30, 3600);
+    }
+
+    private void insert(String id, String status, int retryCount, LocalDateTime leaseExpiresAt) {
+        smsNotification sms = new smsNotification();
+        sms.setId(id);
+        sms.setPhoneNumber("98000000" + id);
+        sms.setMessage("Message " + id);
+        sms.setStatus(status);
+        sms.setRetryCount(retryCount);
+        sms.setScheduledTime(LocalDateTime.now().minusMinutes(1));
+        if (leaseExpiresAt != null) {
+            sms.setLeaseOwner("crashed-worker");
+            sms.setLeaseExpiresAt(leaseExpiresAt);
+        }
+        mongoTemplate.insert(sms);
+    }
+
+    private smsNotification find(String id) {
+        return mongoTemplate.findById(id, smsNotification.class);
+    }
+
+    private static class StubGateway implements SmsGateway {
+        private final List<String> sent = new ArrayList<>();
+        private boolean failing;
+        private long delayMillis;
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public void send(String phoneNumber, String message) {
+            if (failing) {
+                throw new IllegalStateException("gateway unavailable");
+            }
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(phoneNumber.substring(8));
+        }
+    }
+}
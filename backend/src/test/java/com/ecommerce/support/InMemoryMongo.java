@@ -0,0 +1,51 @@
+package com.ecommerce.support;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetSocketAddress;
+
+// Starts a fresh in-memory Mongo server for every test; register it with @RegisterExtension
+public class InMemoryMongo implements BeforeEachCallback, AfterEachCallback {
+
+    private final String database;
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate template;
+
+    public InMemoryMongo(String database) {
+        this.database = database;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        template = new MongoTemplate(client, database);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        client.close();
+        server.shutdown();
+    }
+
+    public MongoClient client() {
+        return client;
+    }
+
+    public String database() {
+        return database;
+    }
+
+    public MongoTemplate template() {
+        return template;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyMathTest {
+
+    @Test
+    void allocateSplitsRemaindersByCumulativeRounding() {
+        assertArrayEquals(new long[]{33, 34, 33}, allocate(100, 1, 1, 1));
+        assertArrayEquals(new long[]{1, 0, 1}, allocate(2, 1, 1, 1));
+        assertArrayEquals(new long[]{25_000, 75_000}, allocate(100_000, 1_000, 3_000));
+    }
+
+    @Test
+    void allocateSumsToTotalForRandomWeights() {
+        Random random = new Random(42);
+        for (int run = 0; run < 10_000; run++) {
+            long total = random.nextInt(2_000_000_001) - 1_000_000_000L;
+            long[] weights = new long[1 + random.nextInt(12)];
+            for (int i = 0; i < weights.length; i++) {
+                int kind = random.nextInt(4);
+                weights[i] = kind == 0 ? 0 : kind == 1 ? -random.nextInt(1_000_000) : random.nextInt(1_000_000_000);
+            }
+            long[] out = new long[weights.length];
+            MoneyMath.allocate(total, weights, out);
+            assertEquals(total, Arrays.stream(out).sum(), () -> "weights " + Arrays.toString(weights));
+
+            long positive = Arrays.stream(weights).filter(w -> w > 0).sum();
+            for (int i = 0; i < weights.length; i++) {
+                double exact = positive == 0 ? (double) total / weights.length
+                        : weights[i] > 0 ? (double) total * weights[i] / positive : 0;
+                assertTrue(Math.abs(out[i] - exact) <= 1, "share " + i + " of " + Arrays.toString(weights));
+            }
+        }
+    }
+
+    @Test
+    void allocateTreatsNegativeWeightsAsZero() {
+        assertArrayEquals(new long[]{0, 1_000, 0}, allocate(1_000, -5, 10, 0));
+        assertArrayEquals(new long[]{500, 0, 500}, allocate(1_000, 7, -7, 7));
+    }
+
+    @Test
+    void allocateSplitsEvenlyWhenNothingHasWeight() {
+        assertArrayEquals(new long[]{33, 34, 33}, allocate(100, 0, 0, 0));
+        assertArrayEquals(new long[]{50, 50}, allocate(100, -1, -3));
+        assertArrayEquals(new long[]{0, 0}, allocate(0, 0, 0));
+    }
+
+    @Test
+    void allocateKeepsLargeTotalsExact() {
+        long total = 9_007_199_254_740_993L;
+        long[] out = allocate(total, 1_000_000_007L, 3, 999_999_937L);
+        assertEquals(total, Arrays.stream(out).sum());
+    }
+
+    @Test
+    void allocateIgnoresEmptyWeights() {
+        long[] out = new long[0];
+        MoneyMath.allocate(1_000, new long[0], out);
+        assertEquals(0, out.length);
+    }
+
+    @Test
+    void interestRoundsHalfUpToThePaisa() {
+        assertEquals(986, MoneyMath.interest(100_000, 12.0, 30, 365));
+        assertEquals(15, MoneyMath.interest(150, 10.0, 365, 365));
+        assertEquals(1, MoneyMath.interest(365, 50.0, 1, 365));
+        assertEquals(0, MoneyMath.interest(364, 50.0, 1, 365));
+        assertEquals(0, MoneyMath.interest(100_000, 12.0, 0, 365));
+        assertEquals(0, MoneyMath.interest(100_000, 12.0, -3, 365));
+        assertEquals(0, MoneyMath.interest(0, 12.0, 30, 365));
+    }
+
+    @Test
+    void percentOfRoundsHalfUpToThePaisa() {
+        assertEquals(1, MoneyMath.percentOf(5, 10.0));
+        assertEquals(2, MoneyMath.percentOf(15, 10.0));
+        assertEquals(0, MoneyMath.percentOf(4, 10.0));
+        assertEquals(0, MoneyMath.percentOf(-5, 10.0));
+        assertEquals(-1, MoneyMath.percentOf(-15, 10.0));
+        assertEquals(12_345, MoneyMath.percentOf(1_234_500, 1.0));
+    }
+
+    @Test
+    void convertsBetweenRupeesAndPaisa() {
+        assertEquals(30, MoneyMath.toPaisa(0.1 + 0.2));
+        assertEquals(0, MoneyMath.toPaisa(null));
+        assertEquals(-1_050, MoneyMath.toPaisa(-10.5));
+        assertEquals(123.45, MoneyMath.toRupees(12_345));
+    }
+
+    private static long[] allocate(long total, long... weights) {
+        long[] out = new long[weights.length];
+        MoneyMath.allocate(total, weights, out);
+        return out;
+    }
+}
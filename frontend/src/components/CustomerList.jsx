@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { useTranslation } from 'react-i18next';
 import './CustomerList.css';
-import { adminAPI } from '../services/api';
+import { adminAPI, pageOf } from '../services/api';
 import { FaEdit, FaTrash, FaPlus, FaSearch, FaEye, FaCamera } from 'react-icons/fa'; 
 import { useNepaliNumber } from '../hooks/useNepaliNumber';
 import { formatDateTime, toNepaliDigits, toEnglishDigits } from '../utils/nepaliFormat';
@@ -12,6 +12,7 @@ const CustomerList = ({ token }) => {
   const currentLng = i18n.language;
   const { convertCurrency } = useNepaliNumber();
   const [customers, setCustomers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState('');
   const [showModal, setShowModal] = useState(false);
@@ -37,10 +38,11 @@ const CustomerList = ({ token }) => {
     fetchCustomers();
   }, []);
 
-  const fetchCustomers = async () => {
+  const fetchCustomers = async (cursor = null) => {
     try {
-      const response = await adminAPI.getCustomers();
-      setCustomers(response.data.data || []);
+      const page = pageOf(await adminAPI.getCustomersPage(cursor));
+      setCustomers(previous => (cursor ? [...previous, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
     } catch (err) {
       console.error('Failed to fetch customers:', err);
     } finally {
@@ -215,6 +217,12 @@ const CustomerList = ({ token }) => {
         ))}
       </div>
 
+      {nextCursor && (
+        <button className="load-more-btn" onClick={() => fetchCustomers(nextCursor)}>
+          {t('common.load_more', 'Load more')}
+        </button>
+      )}
+
       {showModal && (
         <div className="modal">
           <div className="modal-content">
@@ -0,0 +1,66 @@
+import React, { useState, useEffect } from 'react';
+import { useTranslation } from 'react-i18next';
+import { adminAPI, pageOf, PAGE_LIMIT } from '../services/api';
+import './CustomerPicker.css';
+
+const SEARCH_DELAY_MS = 300;
+
+const labelOf = (customer) => `${customer.fullName} (${customer.email})`;
+
+// Searches customers on the server so any customer can be picked, not just the newest page
+const CustomerPicker = ({ name = 'customerId', value, onChange, selectedLabel, required }) => {
+  const { t } = useTranslation();
+  const [query, setQuery] = useState('');
+  const [customers, setCustomers] = useState([]);
+  const [selected, setSelected] = useState(null);
+
+  useEffect(() => {
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const filters = query.trim() ? { q: query.trim() } : undefined;
+        const page = pageOf(await adminAPI.getCustomersPage(null, PAGE_LIMIT, filters));
+        if (!cancelled) setCustomers(page.items);
+      } catch (err) {
+        console.error('Failed to search customers:', err);
+        if (!cancelled) setCustomers([]);
+      }
+    }, SEARCH_DELAY_MS);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [query]);
+
+  const handleChange = (e) => {
+    const customer = customers.find(c => c.id === e.target.value);
+    setSelected(customer ? { id: customer.id, label: labelOf(customer) } : null);
+    onChange(e);
+  };
+
+  // Keep the current choice listed when a later search no longer returns it
+  const pinnedLabel = selected && selected.id === value ? selected.label : selectedLabel;
+  const showPinned = value && !customers.some(c => c.id === value);
+
+  return (
+    <div className="customer-picker">
+      <input
+        type="text"
+        placeholder={t('customers.search', 'Search customers...')}
+        value={query}
+        onChange={(e) => setQuery(e.target.value)}
+      />
+      <select name={name} value={value} onChange={handleChange} required={required}>
+        <option value="">{t('loans.select_customer', 'Select Customer')}</option>
+        {showPinned && <option value={value}>{pinnedLabel || value}</option>}
+        {customers.map(customer => (
+          <option key={customer.id} value={customer.id}>
+            {labelOf(customer)}
+          </option>
+        ))}
+      </select>
+    </div>
+  );
+};
+
+export default CustomerPicker;
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import './Dashboard.css';
-import { adminAPI } from '../services/api';
+import { adminAPI, pageOf } from '../services/api';
 import { FaMoneyBillWave, FaUsers, FaGem, FaChartLine, FaCoins, FaPercentage } from 'react-icons/fa';
 import { 
   BarChart, Bar, XAxis, YAxis, CartesianGrid, Tooltip, Legend, 
@@ -68,9 +68,7 @@ const Dashboard = ({ token }) => {
 
   const fetchRecentLoans = async () => {
     try {
-      const response = await adminAPI.getCustomerLoans();
-      const loansData = Array.isArray(response.data.data) ? response.data.data : [];
-      setRecentLoans(loansData.slice(-5));
+      setRecentLoans(pageOf(await adminAPI.getCustomerLoansPage(null, 5)).items);
     } catch (err) {
       console.error('Failed to fetch recent loans:', err);
       setRecentLoans([]); 
@@ -11,18 +11,19 @@ import {
   toEnglishDigits 
 } from '../utils/nepaliFormat';
 import WebcamCapture from './WebcamCapture'; 
-import api from '../services/api';
+import CustomerPicker from './CustomerPicker';
+import api, { pageOf } from '../services/api';
 
 const GoldItems = ({ token }) => {
   const { t, i18n } = useTranslation();
   const currentLng = i18n.language;
   const { convertNumber, convertCurrency: convertCurrencyHook, convertWeight: convertWeightHook } = useNepaliNumber();
   const [items, setItems] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState('');
   const [showModal, setShowModal] = useState(false);
   const [editingItem, setEditingItem] = useState(null);
-  const [customers, setCustomers] = useState([]);
   const [showWebcam, setShowWebcam] = useState(false);
   const [formData, setFormData] = useState({
     customerId: '',
@@ -37,15 +38,17 @@ const GoldItems = ({ token }) => {
 
   useEffect(() => {
     fetchGoldItems();
-    fetchCustomers();
   }, []);
 
-  const fetchGoldItems = async () => {
+  const fetchGoldItems = async (cursor = null) => {
     try {
-      const response = await api.get('/admin/gold-items', {
+      const response = await api.get('/admin/gold-items/page', {
+        params: { cursor },
         headers: { Authorization: `Bearer ${token}` }
       });
-      setItems(response.data.data || []);
+      const page = pageOf(response);
+      setItems(previous => (cursor ? [...previous, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
     } catch (err) {
       console.error('Failed to fetch gold items:', err);
     } finally {
@@ -53,17 +56,6 @@ const GoldItems = ({ token }) => {
     }
   };
 
-  const fetchCustomers = async () => {
-    try {
-      const response = await api.get('/admin/customers', {
-        headers: { Authorization: `Bearer ${token}` }
-      });
-      setCustomers(response.data.data || []);
-    } catch (err) {
-      console.error('Failed to fetch customers:', err);
-    }
-  };
-
   const handleInputChange = (e) => {
     const { name, value } = e.target;
     const englishValue = toEnglishDigits(value);
@@ -155,11 +147,6 @@ const GoldItems = ({ token }) => {
     });
   };
 
-  const getCustomerName = (customerId) => {
-    const customer = customers.find(c => c.id === customerId);
-    return customer ? customer.fullName : 'Unknown';
-  };
-
   const getStatusBadgeClass = (status) => {
     switch(status) {
       case 'AVAILABLE': return 'badge-success';
@@ -171,7 +158,7 @@ const GoldItems = ({ token }) => {
 
   const filteredItems = items.filter(item =>
     item.itemType?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-    getCustomerName(item.customerId)?.toLowerCase().includes(searchTerm.toLowerCase()) ||
+    item.customerName?.toLowerCase().includes(searchTerm.toLowerCase()) ||
     item.purity?.toLowerCase().includes(searchTerm.toLowerCase()) ||
     item.loanNumber?.toLowerCase().includes(searchTerm.toLowerCase())
   );
@@ -243,7 +230,7 @@ const GoldItems = ({ token }) => {
               </span>
             </div>
             <div className="item-details">
-              <p><strong>{t('gold_items.fields.owner')}:</strong> {item.customerName || getCustomerName(item.customerId)}</p>
+              <p><strong>{t('gold_items.fields.owner')}:</strong> {item.customerName || 'Unknown'}</p>
               {item.loanNumber && (
               <p>
               <strong>{t('gold_items.fields.loan_number')}:</strong>{' '}
@@ -267,6 +254,12 @@ const GoldItems = ({ token }) => {
         ))}
       </div>
 
+      {nextCursor && (
+        <button className="load-more-btn" onClick={() => fetchGoldItems(nextCursor)}>
+          {t('common.load_more', 'Load more')}
+        </button>
+      )}
+
       {showModal && (
         <div className="modal">
           <div className="modal-content">
@@ -298,19 +291,12 @@ const GoldItems = ({ token }) => {
               </div>
 
               <div className="form-row">
-                <select
-                  name="customerId"
+                <CustomerPicker
                   value={formData.customerId}
                   onChange={handleInputChange}
+                  selectedLabel={editingItem?.customerName}
                   required
-                >
-                  <option value="">{t('loans.select_customer')}</option>
-                  {customers.map(customer => (
-                    <option key={customer.id} value={customer.id}>
-                      {customer.fullName} ({customer.email})
-                    </option>
-                  ))}
-                </select>
+                />
 
                 <select
                   name="itemType"
@@ -1,8 +1,9 @@
 import React, { useState, useEffect, useCallback } from 'react';
 import './Loans.css';
 import WebcamCapture from './WebcamCapture';
+import CustomerPicker from './CustomerPicker';
 import { FaCamera } from 'react-icons/fa';
-import { adminAPI } from '../services/api';
+import { adminAPI, fetchByIds, pageOf, PAGE_LIMIT } from '../services/api';
 import { useTranslation } from 'react-i18next';
 import { 
   FaPlus, 
@@ -64,10 +65,13 @@ const Loans = ({ token }) => {
   const [activeTab, setActiveTab] = useState('customer');
   const [customerLoans, setCustomerLoans] = useState([]);
   const [bankLoans, setBankLoans] = useState([]);
+  const [customerLoansCursor, setCustomerLoansCursor] = useState(null);
+  const [bankLoansCursor, setBankLoansCursor] = useState(null);
   const [pendingLoans, setPendingLoans] = useState([]);
-  const [customers, setCustomers] = useState([]);
-  const [goldItems, setGoldItems] = useState([]);
+  const [knownCustomers, setKnownCustomers] = useState({});
+  const [knownGoldItems, setKnownGoldItems] = useState({});
   const [availableGoldItems, setAvailableGoldItems] = useState([]);
+  const [goldItemQuery, setGoldItemQuery] = useState('');
   const [selectedGoldItems, setSelectedGoldItems] = useState([]);
   const [selectedGoldItemsDetails, setSelectedGoldItemsDetails] = useState([]);
   const [imagePreviews, setImagePreviews] = useState([]);
@@ -184,49 +188,64 @@ const Loans = ({ token }) => {
     }
   }, []);
 
-  const fetchCustomerLoans = useCallback(async () => {
+  const fetchCustomerLoans = useCallback(async (cursor = null) => {
     try {
-      const response = await adminAPI.getCustomerLoans();
-      const loans = Array.isArray(response.data.data) ? response.data.data : [];
-      setCustomerLoans(loans);
-      return loans;
+      const page = pageOf(await adminAPI.getCustomerLoansPage(cursor));
+      setCustomerLoans(previous => (cursor ? [...previous, ...page.items] : page.items));
+      setCustomerLoansCursor(page.nextCursor);
+      return page.items;
     } catch (err) {
       console.error('Failed to fetch customer loans:', err);
-      setCustomerLoans([]);
+      if (!cursor) {
+        setCustomerLoans([]);
+        setCustomerLoansCursor(null);
+      }
       return [];
     }
   }, []);
 
-  const fetchBankLoans = useCallback(async () => {
+  const fetchBankLoans = useCallback(async (cursor = null) => {
     try {
-      const response = await adminAPI.getBankLoans();
-      setBankLoans(Array.isArray(response.data.data) ? response.data.data : []);
+      const page = pageOf(await adminAPI.getBankLoansPage(cursor));
+      setBankLoans(previous => (cursor ? [...previous, ...page.items] : page.items));
+      setBankLoansCursor(page.nextCursor);
     } catch (err) {
       console.error('Failed to fetch bank loans:', err);
-      setBankLoans([]);
-    }
-  }, []);
-
-  const fetchCustomers = useCallback(async () => {
-    try {
-      const response = await adminAPI.getCustomers();
-      setCustomers(Array.isArray(response.data.data) ? response.data.data : []);
-    } catch (err) {
-      console.error('Failed to fetch customers:', err);
-      setCustomers([]);
+      if (!cursor) {
+        setBankLoans([]);
+        setBankLoansCursor(null);
+      }
     }
   }, []);
 
-  const fetchGoldItems = useCallback(async () => {
+  // Loads only the customers and gold items that the listed loans refer to
+  const resolveReferences = useCallback(async (loans) => {
+    const customerIds = new Set();
+    const goldItemIds = new Set();
+    loans.forEach(loan => {
+      if (loan.customerId) customerIds.add(loan.customerId);
+      (loan.goldItemIds || []).forEach(id => goldItemIds.add(id));
+      (loan.pledgedGoldItemIds || []).forEach(id => goldItemIds.add(id));
+    });
+    const missingCustomers = [...customerIds].filter(id => knownCustomers[id] === undefined);
+    const missingGoldItems = [...goldItemIds].filter(id => knownGoldItems[id] === undefined);
+    if (missingCustomers.length === 0 && missingGoldItems.length === 0) return;
+    // Ids the server no longer has are remembered as null so they are not asked for again
+    const byId = (ids, items) => ({
+      ...Object.fromEntries(ids.map(id => [id, null])),
+      ...Object.fromEntries(items.map(item => [item.id, item]))
+    });
     try {
-      const response = await adminAPI.getGoldItems();
-      const items = Array.isArray(response.data.data) ? response.data.data : [];
-      setGoldItems(items);
+      const [customers, goldItems] = await Promise.all([
+        fetchByIds(adminAPI.getCustomersPage, missingCustomers),
+        fetchByIds(adminAPI.getGoldItemsPage, missingGoldItems)
+      ]);
+      setKnownCustomers(previous => ({ ...previous, ...byId(missingCustomers, customers) }));
+      setKnownGoldItems(previous => ({ ...previous, ...byId(missingGoldItems, goldItems) }));
     } catch (err) {
-      console.error('Failed to fetch gold items:', err);
-      setGoldItems([]);
+      console.error('Failed to resolve loan references:', err);
     }
-  }, []);
+  }, [knownCustomers, knownGoldItems]);
 
   const fetchCustomerGoldItems = useCallback(async (customerId) => {
     if (!customerId) {
@@ -265,51 +284,28 @@ const Loans = ({ token }) => {
     try {
       await Promise.all([
         fetchCustomerLoans(),
-        fetchBankLoans(),
-        fetchCustomers(),
-        fetchGoldItems()
+        fetchBankLoans()
       ]);
     } catch (error) {
       console.error('Error fetching data:', error);
     } finally {
       setLoading(false);
     }
-  }, [fetchCustomerLoans, fetchBankLoans, fetchCustomers, fetchGoldItems]);
+  }, [fetchCustomerLoans, fetchBankLoans]);
 
-  const fetchAvailableGoldItemsForBank = useCallback(async () => {
+  // Only customer-pledged items can go to a bank; the server filters and searches them
+  const fetchAvailableGoldItemsForBank = useCallback(async (query) => {
     setLoadingGoldItems(true);
     try {
-      const pledgedItems = goldItems.filter(item => 
-        item.status === 'PLEDGED' || item.status === 'PLEDGED_TO_CUSTOMER'
-      );
-      
-      const formattedItems = pledgedItems.map(item => {
-        const customer = customers.find(c => c.id === item.customerId);
-        
-        return {
-          id: item.id,
-          itemType: item.itemType,
-          weightInGrams: item.weightInGrams,
-          purity: item.purity,
-          estimatedValue: item.estimatedValue,
-          serialNumber: item.serialNumber,
-          customerId: item.customerId,
-          customerLoanId: item.customerLoanId,
-          customerName: customer ? customer.fullName : 'Unknown',
-          imageUrl: item.imageUrl,
-          loanNumber: item.loanNumber,
-          customerSerialNumber: item.customerSerialNumber
-        };
-      });
-      
-      setAvailableGoldItems(formattedItems);
+      const filters = { status: 'PLEDGED', ...(query ? { q: query } : {}) };
+      setAvailableGoldItems(pageOf(await adminAPI.getGoldItemsPage(null, PAGE_LIMIT, filters)).items);
     } catch (err) {
       console.error('Failed to fetch available gold items:', err);
       setAvailableGoldItems([]);
     } finally {
       setLoadingGoldItems(false);
     }
-  }, [goldItems, customers]);
+  }, []);
 
   useEffect(() => {
     fetchAllData();
@@ -325,10 +321,14 @@ const Loans = ({ token }) => {
   }, [fetchAllData, fetchUserPermissions]);
 
   useEffect(() => {
-    if (goldItems.length > 0) {
-      fetchAvailableGoldItemsForBank();
-    }
-  }, [goldItems, fetchAvailableGoldItemsForBank]);
+    resolveReferences([...customerLoans, ...bankLoans, ...pendingLoans]);
+  }, [customerLoans, bankLoans, pendingLoans, resolveReferences]);
+
+  useEffect(() => {
+    if (!showModal || formData.loanType !== 'bank') return undefined;
+    const timer = setTimeout(() => fetchAvailableGoldItemsForBank(goldItemQuery.trim()), 300);
+    return () => clearTimeout(timer);
+  }, [showModal, formData.loanType, goldItemQuery, fetchAvailableGoldItemsForBank]);
 
   useEffect(() => {
     if (activeTab === 'pending') {
@@ -337,6 +337,8 @@ const Loans = ({ token }) => {
   }, [activeTab, fetchPendingLoans]);
 
   const searchLoans = async () => {
+    setCustomerLoansCursor(null);
+    setBankLoansCursor(null);
     try {
       if (searchType === 'serial' && serialNumber) {
         if (activeTab === 'customer') {
@@ -390,11 +392,17 @@ const Loans = ({ token }) => {
     });
   };
 
+  // Items already chosen stay listed while the search narrows the rest
+  const bankGoldItemOptions = [
+    ...selectedGoldItemsDetails,
+    ...availableGoldItems.filter(item => !selectedGoldItemsDetails.some(selected => selected.id === item.id))
+  ];
+
   const handleGoldItemSelection = (e) => {
     const selectedOptions = Array.from(e.target.selectedOptions, option => option.value);
     setSelectedGoldItems(selectedOptions);
     
-    const selectedItems = availableGoldItems.filter(item => 
+    const selectedItems = bankGoldItemOptions.filter(item => 
       selectedOptions.includes(item.id)
     );
     
@@ -650,18 +658,19 @@ const Loans = ({ token }) => {
     });
     setSelectedGoldItems([]);
     setSelectedGoldItemsDetails([]);
+    setGoldItemQuery('');
     setImagePreviews([]);
     setCustomerGoldItems([]);
   };
 
   const getCustomerName = (customerId) => {
-    const customer = customers.find(c => c.id === customerId);
+    const customer = knownCustomers[customerId];
     return customer ? customer.fullName : 'Unknown';
   };
 
   const getGoldItemDetails = (itemIds) => {
     if (!itemIds || itemIds.length === 0) return 'No items';
-    const items = goldItems.filter(item => itemIds.includes(item.id));
+    const items = itemIds.map(id => knownGoldItems[id]).filter(Boolean);
     return items.map(item => `${item.itemType} (${convertWeight(item.weightInGrams)})`).join(', ');
   };
 
@@ -847,6 +856,11 @@ const Loans = ({ token }) => {
           ) : (
             <p className="no-data">{t('loans.no_data', 'No customer loans found')}</p>
           )}
+          {customerLoansCursor && (
+            <button className="load-more-btn" onClick={() => fetchCustomerLoans(customerLoansCursor)}>
+              {t('common.load_more', 'Load more')}
+            </button>
+          )}
         </div>
       )}
 
@@ -987,8 +1001,9 @@ const Loans = ({ token }) => {
                       <div className="pledged-items">
                         <p><FaGem /> <strong>{t('loans.pledged_items', 'Pledged Items')}:</strong></p>
                         <ul>
-                          {goldItems
-                            .filter(item => loan.pledgedGoldItemIds.includes(item.id))
+                          {loan.pledgedGoldItemIds
+                            .map(id => knownGoldItems[id])
+                            .filter(Boolean)
                             .map(item => (
                                 <li key={item.id}>
                                   {t(`item_types.${item.itemType}`, item.itemType)} - {convertWeight(item.weightInGrams)} - {displayPurity(item.purity)} 
@@ -1019,6 +1034,11 @@ const Loans = ({ token }) => {
           ) : (
             <p className="no-data">{t('loans.no_bank_loans', 'No bank loans found')}</p>
           )}
+          {bankLoansCursor && (
+            <button className="load-more-btn" onClick={() => fetchBankLoans(bankLoansCursor)}>
+              {t('common.load_more', 'Load more')}
+            </button>
+          )}
         </div>
       )}
 
@@ -1053,19 +1073,11 @@ const Loans = ({ token }) => {
             {formData.loanType === 'customer' && (
               <form onSubmit={handleSubmitCustomerLoan}>
                 <div className="form-row">
-                  <select
-                    name="customerId"
+                  <CustomerPicker
                     value={formData.customerId}
                     onChange={handleInputChange}
                     required
-                  >
-                    <option value="">{t('loans.select_customer', 'Select Customer')}</option>
-                    {customers.map(customer => (
-                      <option key={customer.id} value={customer.id}>
-                        {customer.fullName} ({customer.email})
-                      </option>
-                    ))}
-                  </select>
+                  />
 
                   <input
                     type="text"
@@ -1253,9 +1265,15 @@ const Loans = ({ token }) => {
                   <div className="form-row">
                     <div className="form-group">
                       <label>{t('loans.select_items_label', 'Select Gold Items to Pledge (Multiple)')}</label>
+                      <input
+                        type="text"
+                        placeholder={t('gold_items.search', 'Search items...')}
+                        value={goldItemQuery}
+                        onChange={(e) => setGoldItemQuery(e.target.value)}
+                      />
                       {loadingGoldItems ? (
                         <div className="loading-small">{t('common.loading')}</div>
-                      ) : availableGoldItems.length > 0 ? (
+                      ) : bankGoldItemOptions.length > 0 ? (
                         <select
                           name="goldItemIdsBank"
                           multiple
@@ -1264,7 +1282,7 @@ const Loans = ({ token }) => {
                           className="multi-select"
                           size="6"
                         >
-                          {availableGoldItems.map(item => (
+                          {bankGoldItemOptions.map(item => (
                             <option key={item.id} value={item.id}>
                               {item.itemType} - {convertWeight(item.weightInGrams)} - {displayPurity(item.purity)} - 
                               {t('loans.customer')} {item.customerName || 'Unknown'} - 
@@ -19,12 +19,62 @@ const Notifications = () => {
   useEffect(() => {
     fetchNotifications();
     fetchUnreadCount();
-    
-    const interval = setInterval(() => {
-      fetchUnreadCount();
-    }, 30000);
-    
-    return () => clearInterval(interval);
+
+    let stream = null;
+    let interval = null;
+    let retryTimer = null;
+    let retryDelay = 1000;
+    let closed = false;
+
+    const handleEvent = (event, data) => {
+      if (event === 'notification') {
+        setNotifications(prev => [data, ...prev.filter(n => n.id !== data.id)]);
+      } else if (event === 'unread-count') {
+        setUnreadCount(Number(data) || 0);
+      } else if (event === 'unread-delta') {
+        setUnreadCount(prev => Math.max(0, prev + (Number(data) || 0)));
+      } else if (event === 'resync') {
+        fetchNotifications();
+        fetchUnreadCount();
+      }
+    };
+
+    const connect = () => {
+      if (closed || typeof api.streamNotifications !== 'function') return;
+      stream = api.streamNotifications(handleEvent);
+      stream.done
+        .then(() => {
+          retryDelay = 1000;
+        })
+        .catch(err => {
+          if (err.name !== 'AbortError') console.error('Notification stream failed:', err);
+        })
+        .finally(() => {
+          if (closed) return;
+          if (!interval) {
+            interval = setInterval(fetchUnreadCount, 30000);
+          }
+          retryTimer = setTimeout(() => {
+            clearInterval(interval);
+            interval = null;
+            connect();
+          }, retryDelay);
+          retryDelay = Math.min(retryDelay * 2, 60000);
+        });
+    };
+
+    if (typeof api.streamNotifications === 'function') {
+      connect();
+    } else {
+      interval = setInterval(fetchUnreadCount, 30000);
+    }
+
+    return () => {
+      closed = true;
+      if (stream) stream.close();
+      clearInterval(interval);
+      clearTimeout(retryTimer);
+    };
   }, []);
 
   const fetchNotifications = async () => {
@@ -63,6 +63,78 @@ api.interceptors.response.use(
   }
 );
 
+const streamEvents = (path, onEvent) => {
+  const controller = new AbortController();
+  const token = localStorage.getItem('token');
+
+  const done = fetch(`${API_BASE_URL}${path}`, {
+    headers: {
+      Accept: 'text/event-stream',
+      ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    },
+    signal: controller.signal,
+  }).then(async (response) => {
+    if (!response.ok || !response.body) {
+      throw new Error(`Stream request failed with status ${response.status}`);
+    }
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+
+    while (true) {
+      const { value, done: finished } = await reader.read();
+      if (finished) break;
+      buffer += decoder.decode(value, { stream: true });
+
+      let boundary;
+      while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+        const chunk = buffer.slice(0, boundary);
+        buffer = buffer.slice(boundary + 2);
+
+        let event = 'message';
+        const data = [];
+        chunk.split('\n').forEach((line) => {
+          if (line.startsWith('event:')) event = line.slice(6).trim();
+          else if (line.startsWith('data:')) data.push(line.slice(5).trim());
+        });
+        if (data.length > 0) {
+          const raw = data.join('\n');
+          let parsed = raw;
+          try {
+            parsed = JSON.parse(raw);
+          } catch (e) {
+            parsed = raw;
+          }
+          onEvent(event, parsed);
+        }
+      }
+    }
+  });
+
+  return { close: () => controller.abort(), done };
+};
+
+export const PAGE_LIMIT = 50;
+const LOOKUP_CHUNK = 200;
+
+export const pageOf = (response) => {
+  const page = (response && response.data && response.data.data) || {};
+  return {
+    items: Array.isArray(page.items) ? page.items : [],
+    nextCursor: page.hasMore ? page.nextCursor : null,
+  };
+};
+
+// Resolves records by id in page-sized chunks, for labels on rows that came from another list
+export const fetchByIds = async (fetchPage, ids) => {
+  const items = [];
+  for (let start = 0; start < ids.length; start += LOOKUP_CHUNK) {
+    const chunk = ids.slice(start, start + LOOKUP_CHUNK);
+    items.push(...pageOf(await fetchPage(null, chunk.length, { ids: chunk.join(',') })).items);
+  }
+  return items;
+};
+
 export const authAPI = {
   login: (credentials) => api.post('/auth/login', credentials),
   signup: (userData) => api.post('/auth/signup', userData),
@@ -72,13 +144,15 @@ export const adminAPI = {
   getDashboard: () => api.get('/admin/dashboard'),
   saveSnapshot: () => api.post('/admin/dashboard/snapshot'),
 
-  getCustomers: () => api.get('/admin/customers'),
+  getCustomersPage: (cursor, limit, filters) =>
+    api.get('/admin/customers/page', { params: { cursor, limit, ...filters } }),
   getCustomer: (id) => api.get(`/admin/customers/${id}`),
   createCustomer: (data) => api.post('/admin/customers', data),
   updateCustomer: (id, data) => api.put(`/admin/customers/${id}`, data),
   deleteCustomer: (id) => api.delete(`/admin/customers/${id}`),
 
-  getGoldItems: () => api.get('/admin/gold-items'),
+  getGoldItemsPage: (cursor, limit, filters) =>
+    api.get('/admin/gold-items/page', { params: { cursor, limit, ...filters } }),
   getGoldItem: (id) => api.get(`/admin/gold-items/${id}`),
   createGoldItem: (data) => api.post('/admin/gold-items', data),
   updateGoldItem: (id, data) => api.put(`/admin/gold-items/${id}`, data),
@@ -97,8 +171,9 @@ export const adminAPI = {
   getAvailableGoldItemsForBank: () =>
     api.get('/admin/gold-items/available-for-bank'),
 
-  getCustomerLoans: () => api.get('/admin/customer-loans'),
+  getCustomerLoansPage: (cursor, limit) => api.get('/admin/customer-loans/page', { params: { cursor, limit } }),
   getCustomerLoan: (id) => api.get(`/admin/customer-loans/${id}`),
+  getCustomerLoanSchedule: (id, params) => api.get(`/admin/customer-loans/${id}/schedule`, { params }),
   createCustomerLoan: (data) => api.post('/admin/customer-loans', data),
 
   processRepayment: (id, amount) =>
@@ -126,7 +201,7 @@ export const adminAPI = {
   rejectLoan: (loanId, data) =>
     api.post(`/admin/customer-loans/${loanId}/reject`, data),
 
-  getBankLoans: () => api.get('/admin/bank-loans'),
+  getBankLoansPage: (cursor, limit) => api.get('/admin/bank-loans/page', { params: { cursor, limit } }),
   getBankLoan: (id) => api.get(`/admin/bank-loans/${id}`),
   createBankLoan: (data) => api.post('/admin/bank-loans', data),
 
@@ -181,6 +256,7 @@ export const adminAPI = {
   getUnreadNotificationCount: () => api.get('/admin/notifications/unread-count'),
   markNotificationAsRead: (id) => api.post(`/admin/notifications/${id}/read`),
   markAllNotificationsAsRead: () => api.post('/admin/notifications/read-all'),
+  streamNotifications: (onEvent) => streamEvents('/admin/notifications/stream', onEvent),
 };
 
 export const userAPI = {
@@ -188,6 +264,7 @@ export const userAPI = {
   getDashboard: () => api.get('/user/dashboard'),
   getMyLoans: () => api.get('/user/my-loans'),
   getMyLoanById: (loanId) => api.get(`/user/my-loans/${loanId}`),
+  getMyLoanSchedule: (loanId, params) => api.get(`/user/my-loans/${loanId}/schedule`, { params }),
   getMyGoldItems: () => api.get('/user/my-gold-items'),
   getMyGoldItemById: (itemId) => api.get(`/user/my-gold-items/${itemId}`),
   changePassword: (data) => api.post('/user/change-password', data),
@@ -201,6 +278,9 @@ export const userAPI = {
   markAllNotificationsAsRead: () =>
     api.post('/user/notifications/read-all'),
 
+  streamNotifications: (onEvent) =>
+    streamEvents('/user/notifications/stream', onEvent),
+
   getUserSummary: () => api.get('/user/summary'),
 
   requestLoan: (loanData) =>